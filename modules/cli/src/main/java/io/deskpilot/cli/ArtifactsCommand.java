@@ -0,0 +1,107 @@
+package io.deskpilot.cli;
+
+import io.deskpilot.engine.ArtifactCodec;
+import io.deskpilot.engine.DeltaFrames;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+public final class ArtifactsCommand {
+
+    /**
+     * Usage:
+     *   deskpilot artifacts png [--level <0-9>] <runDir>
+     *   deskpilot artifacts reconstruct <frame.dpdelta> [out.png]
+     *   deskpilot artifacts reconstruct <runDir>
+     *
+     * png: converts raw frame dumps (*.dpraw, written with -Ddeskpilot.artifacts.codec=raw) to PNG.
+     * reconstruct: rebuilds delta-encoded step screenshots (*.dpdelta) as PNG.
+     *
+     * Return:
+     *   0 success, 1 failure, 2 usage
+     */
+    public int run(String[] args) throws Exception {
+        if (args == null || args.length < 2) {
+            usage();
+            return 2;
+        }
+        String sub = args[0].trim().toLowerCase(Locale.ROOT);
+        if (sub.equals("reconstruct")) return reconstruct(args);
+        if (!sub.equals("png")) {
+            usage();
+            return 2;
+        }
+
+        int level = -1;
+        Path dir = null;
+        for (int i = 1; i < args.length; i++) {
+            String a = args[i].trim();
+            if ("--level".equalsIgnoreCase(a) && i + 1 < args.length) {
+                try {
+                    level = Integer.parseInt(args[++i].trim());
+                } catch (NumberFormatException e) {
+                    usage();
+                    return 2;
+                }
+            } else if (!a.isEmpty()) {
+                dir = Paths.get(a);
+            }
+        }
+
+        if (dir == null || !Files.isDirectory(dir)) {
+            System.err.println("[ERROR] Not a directory: " + dir);
+            usage();
+            return 2;
+        }
+
+        try {
+            ArtifactCodec png = level < 0 ? ArtifactCodec.png() : ArtifactCodec.png(level);
+            List<Path> written = ArtifactCodec.convertRawToPng(dir, png);
+            System.out.println("Converted " + written.size() + " raw frame(s) to PNG under " + dir.toAbsolutePath());
+            return 0;
+        } catch (Exception e) {
+            System.err.println("[ERROR] Artifact conversion failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int reconstruct(String[] args) {
+        Path in = Paths.get(args[1].trim());
+        try {
+            if (Files.isDirectory(in)) {
+                List<Path> written = DeltaFrames.materialize(in);
+                System.out.println("Reconstructed " + written.size() + " delta frame(s) under " + in.toAbsolutePath());
+                return 0;
+            }
+            if (!Files.isRegularFile(in)) {
+                System.err.println("[ERROR] No such frame: " + in);
+                return 2;
+            }
+
+            Path out;
+            if (args.length >= 3 && !args[2].isBlank()) {
+                out = Paths.get(args[2].trim());
+            } else {
+                String n = in.getFileName().toString();
+                int dot = n.lastIndexOf('.');
+                out = in.resolveSibling((dot > 0 ? n.substring(0, dot) : n) + ".png");
+            }
+            ArtifactCodec.png().write(DeltaFrames.reconstruct(in), out);
+            System.out.println("Wrote " + out.toAbsolutePath());
+            return 0;
+        } catch (Exception e) {
+            System.err.println("[ERROR] Reconstruct failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage:\n"
+                + "    deskpilot artifacts png [--level <0-9>] <runDir>\n"
+                + "    deskpilot artifacts reconstruct <frame.dpdelta> [out.png]\n"
+                + "    deskpilot artifacts reconstruct <runDir>");
+    }
+}
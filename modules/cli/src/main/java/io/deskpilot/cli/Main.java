@@ -57,6 +57,9 @@ public final class Main {
     case "smoke" -> {
         yield smoke(slice(args));
     }
+    case "artifacts" -> {
+        yield new ArtifactsCommand().run(slice(args));
+    }
     default -> {
         System.err.println("Unknown command: " + args[0]);
         System.err.println("Run: deskpilot --help");
@@ -155,6 +158,8 @@ public final class Main {
         System.out.println("  deskpilot record [--framework junit5|testng] [--projectDir <dir>] [--force] [<outputFile>]");
         System.out.println("  deskpilot run <fully.qualified.TestClass>");
         System.out.println("  deskpilot smoke demo");
+        System.out.println("  deskpilot artifacts png [--level <0-9>] <runDir>");
+        System.out.println("  deskpilot artifacts reconstruct <frame.dpdelta|runDir> [out.png]");
         System.out.println();
     }
 
@@ -0,0 +1,186 @@
+package io.deskpilot.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Byte budgets for a run folder, enforced by deleting the least valuable files first.
+ *
+ * Priorities (lowest evicted first):
+ * - POLL_DUMP: OCR poll crops, preprocessed images, stabilize frames, recorder crops
+ * - FRAME: step screenshots, client shots, overlays
+ * - KEEP: text diagnostics, manifests, delta chains, and anything in a failed step (error.txt)
+ *
+ * The step budget is checked when a step finishes, the run budget after every step and once more
+ * on close (after async writes are flushed). Evictions are listed in runs/.../evicted.txt.
+ */
+public final class ArtifactBudget {
+
+    public enum Priority { POLL_DUMP, FRAME, KEEP }
+
+    private record Entry(Path file, long bytes, Priority priority, long order) {}
+
+    private final long maxRunBytes;
+    private final long maxStepBytes;
+
+    private final List<Entry> evictable = new ArrayList<>(); // finished steps, run-budget candidates
+    private long runBytes;
+    private long order;
+    private long evictedBytes;
+    private int evictedFiles;
+
+    /** 0 = unlimited. */
+    public ArtifactBudget(long maxRunBytes, long maxStepBytes) {
+        if (maxRunBytes < 0) throw new IllegalArgumentException("maxRunBytes must be >= 0");
+        if (maxStepBytes < 0) throw new IllegalArgumentException("maxStepBytes must be >= 0");
+        this.maxRunBytes = maxRunBytes;
+        this.maxStepBytes = maxStepBytes;
+    }
+
+    public long maxRunBytes() {
+        return maxRunBytes;
+    }
+
+    public long maxStepBytes() {
+        return maxStepBytes;
+    }
+
+    public synchronized long evictedBytes() {
+        return evictedBytes;
+    }
+
+    public synchronized int evictedFiles() {
+        return evictedFiles;
+    }
+
+    /** Classifies an artifact by file name (folder-level failure handling is separate). */
+    public static Priority priorityOf(String fileName) {
+        String n = fileName.toLowerCase(Locale.ROOT);
+        if (!(n.endsWith(".png") || n.endsWith(ArtifactCodec.RAW_EXTENSION))) return Priority.KEEP;
+        if (n.contains("error") || n.contains("timeout") || n.contains("too_small")) return Priority.KEEP;
+
+        if (n.startsWith("ocr_") || n.startsWith("ocr-")
+                || n.contains("-cropped") || n.contains("-preprocessed")
+                || n.endsWith("_crop.png") || n.endsWith("_pre.png")
+                || n.startsWith("stabilize_") || n.startsWith("rec-")) {
+            return Priority.POLL_DUMP;
+        }
+        return Priority.FRAME;
+    }
+
+    /**
+     * Enforces the step budget inside {@code stepDir}, then the run budget over all finished steps.
+     * Never throws: evidence management must not fail a run.
+     */
+    synchronized void onStepFinished(Path runDir, Path stepDir, boolean protectFrames) {
+        try {
+            List<Entry> entries = scan(stepDir, protectFrames);
+            long stepBytes = 0;
+            for (Entry e : entries) stepBytes += e.bytes;
+
+            if (maxStepBytes > 0 && stepBytes > maxStepBytes) {
+                stepBytes -= evict(runDir, entries, stepBytes - maxStepBytes);
+            }
+            runBytes += stepBytes;
+            for (Entry e : entries) {
+                if (e.priority != Priority.KEEP && Files.exists(e.file)) evictable.add(e);
+            }
+            enforceRun(runDir);
+        } catch (Exception e) {
+            System.err.println("[WARN] Artifact budget check failed for " + stepDir + ": " + e.getMessage());
+        }
+    }
+
+    /** Final pass once everything is on disk: re-measures the whole run folder. */
+    synchronized void onRunFinished(Path runDir, boolean protectFrames) {
+        if (maxRunBytes <= 0) return;
+        try {
+            evictable.clear();
+            runBytes = 0;
+            try (var dirs = Files.list(runDir)) {
+                for (Path d : dirs.sorted().toList()) {
+                    if (!Files.isDirectory(d)) {
+                        runBytes += sizeOrZero(d);
+                        continue;
+                    }
+                    if (d.getFileName().toString().equals("blobs")) {
+                        // shared by manifests of many steps (dedup mode): counted, never evicted
+                        for (Entry e : scan(d, true)) runBytes += e.bytes;
+                        continue;
+                    }
+                    for (Entry e : scan(d, protectFrames)) {
+                        runBytes += e.bytes;
+                        if (e.priority != Priority.KEEP) evictable.add(e);
+                    }
+                }
+            }
+            enforceRun(runDir);
+        } catch (Exception e) {
+            System.err.println("[WARN] Artifact budget check failed for " + runDir + ": " + e.getMessage());
+        }
+    }
+
+    private void enforceRun(Path runDir) throws IOException {
+        if (maxRunBytes <= 0 || runBytes <= maxRunBytes) return;
+        runBytes -= evict(runDir, evictable, runBytes - maxRunBytes);
+        evictable.removeIf(e -> !Files.exists(e.file));
+    }
+
+    /** Deletes lowest-priority, oldest files until {@code excess} bytes are freed. Returns bytes freed. */
+    private long evict(Path runDir, List<Entry> candidates, long excess) throws IOException {
+        List<Entry> order = new ArrayList<>(candidates);
+        order.removeIf(e -> e.priority == Priority.KEEP);
+        order.sort(Comparator.comparing(Entry::priority).thenComparingLong(Entry::order));
+
+        long freed = 0;
+        StringBuilder log = new StringBuilder();
+        for (Entry e : order) {
+            if (freed >= excess) break;
+            if (!Files.deleteIfExists(e.file)) continue;
+            freed += e.bytes;
+            evictedFiles++;
+            evictedBytes += e.bytes;
+            log.append(runDir.relativize(e.file).toString().replace('\\', '/'))
+                    .append(" bytes=").append(e.bytes)
+                    .append(" priority=").append(e.priority)
+                    .append(System.lineSeparator());
+        }
+        if (log.length() > 0) {
+            Files.writeString(runDir.resolve("evicted.txt"), log.toString(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return freed;
+    }
+
+    private List<Entry> scan(Path dir, boolean protectFrames) throws IOException {
+        List<Entry> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return out;
+
+        boolean failed = Files.exists(dir.resolve("error.txt")) || Files.exists(dir.resolve("attach_error.txt"));
+        try (var files = Files.walk(dir)) {
+            for (Path f : files.filter(Files::isRegularFile).sorted().toList()) {
+                String name = f.getFileName().toString();
+                if (name.contains(".tmp-")) continue; // async write in flight
+
+                Priority p = failed ? Priority.KEEP : priorityOf(name);
+                if (p == Priority.FRAME && protectFrames) p = Priority.KEEP; // delta chains need every frame
+                out.add(new Entry(f, sizeOrZero(f), p, order++));
+            }
+        }
+        return out;
+    }
+
+    private static long sizeOrZero(Path f) {
+        try {
+            return Files.size(f);
+        } catch (IOException e) {
+            return 0; // moved or deleted while scanning
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package io.deskpilot.engine;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * How image artifacts are encoded on disk.
+ *
+ * - PNG at a chosen deflate level (0 = fastest/biggest, 9 = slowest/smallest, -1 = ImageIO default).
+ * - RAW: a ".dpraw" frame dump (header + deflate level 1 over RGB bytes). Several times cheaper
+ *   to write than PNG; convert to PNG later with {@link #convertRawToPng(Path, ArtifactCodec)}
+ *   (CLI: {@code deskpilot artifacts png <runDir>}) when someone actually wants to look.
+ *
+ * Spec strings (RunOptions / -Ddeskpilot.artifacts.codec): "png", "png:1", "raw".
+ */
+public final class ArtifactCodec implements ArtifactWriter.Encoder {
+
+    public enum Kind { PNG, RAW }
+
+    public static final String RAW_EXTENSION = ".dpraw";
+
+    private static final int RAW_MAGIC = 0x44505257; // "DPRW"
+    private static final int RAW_VERSION = 1;
+
+    private final Kind kind;
+    private final int level;
+
+    private ArtifactCodec(Kind kind, int level) {
+        this.kind = kind;
+        this.level = level;
+    }
+
+    /** Plain {@code ImageIO.write(img, "png", file)}, the historical behaviour. */
+    public static ArtifactCodec png() {
+        return new ArtifactCodec(Kind.PNG, -1);
+    }
+
+    /** PNG with an explicit deflate level 0..9. */
+    public static ArtifactCodec png(int deflateLevel) {
+        if (deflateLevel < -1 || deflateLevel > 9) throw new IllegalArgumentException("deflateLevel must be -1..9");
+        return new ArtifactCodec(Kind.PNG, deflateLevel);
+    }
+
+    public static ArtifactCodec raw() {
+        return new ArtifactCodec(Kind.RAW, Deflater.BEST_SPEED);
+    }
+
+    /** Parses "png", "png:&lt;level&gt;" or "raw" (case-insensitive). */
+    public static ArtifactCodec parse(String spec) {
+        if (spec == null || spec.isBlank()) return png();
+        String s = spec.trim().toLowerCase(Locale.ROOT);
+        if (s.equals("png")) return png();
+        if (s.equals("raw")) return raw();
+        if (s.startsWith("png:")) {
+            try {
+                return png(Integer.parseInt(s.substring(4).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad PNG level in codec spec: " + spec);
+            }
+        }
+        throw new IllegalArgumentException("Unknown artifact codec: " + spec + " (use png, png:<0-9>, raw)");
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /** Deflate level (-1 = ImageIO default). */
+    public int level() {
+        return level;
+    }
+
+    /** File extension including the dot (".png" or ".dpraw"). */
+    public String extension() {
+        return kind == Kind.RAW ? RAW_EXTENSION : ".png";
+    }
+
+    @Override
+    public void write(BufferedImage img, Path file) throws Exception {
+        if (img == null) throw new IllegalArgumentException("img is null");
+        if (file == null) throw new IllegalArgumentException("file is null");
+
+        if (kind == Kind.RAW) {
+            writeRaw(img, file, level);
+        } else if (level < 0) {
+            ImageIO.write(img, "png", file.toFile());
+        } else {
+            writePng(img, file, level);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.RAW ? "raw" : (level < 0 ? "png" : "png:" + level);
+    }
+
+    // ---------------- PNG ----------------
+
+    private static void writePng(BufferedImage img, Path file, int level) throws IOException {
+        Files.deleteIfExists(file); // the image stream is random-access and would not truncate
+        ImageWriter w = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            ImageWriteParam p = w.getDefaultWriteParam();
+            p.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            // JDK PNG writer: deflate level = (int) (9 * (1 - quality)); bias to land on the exact level
+            p.setCompressionQuality(Math.max(0f, Math.min(1f, 1f - (level + 0.25f) / 9f)));
+            w.setOutput(out);
+            w.write(null, new IIOImage(img, null, null), p);
+        } finally {
+            w.dispose();
+        }
+    }
+
+    // ---------------- RAW ----------------
+
+    private static void writeRaw(BufferedImage img, Path file, int level) throws IOException {
+        int w = img.getWidth();
+        int h = img.getHeight();
+        boolean alpha = img.getColorModel().hasAlpha();
+        int bpp = alpha ? 4 : 3;
+
+        Deflater deflater = new Deflater(level);
+        try (OutputStream fos = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+             DataOutputStream hdr = new DataOutputStream(fos)) {
+            hdr.writeInt(RAW_MAGIC);
+            hdr.writeByte(RAW_VERSION);
+            hdr.writeBoolean(alpha);
+            hdr.writeInt(w);
+            hdr.writeInt(h);
+            hdr.flush();
+
+            DeflaterOutputStream z = new DeflaterOutputStream(fos, deflater, 1 << 16);
+            int[] row = new int[w];
+            byte[] bytes = new byte[w * bpp];
+            for (int y = 0; y < h; y++) {
+                img.getRGB(0, y, w, 1, row, 0, w);
+                for (int x = 0, i = 0; x < w; x++) {
+                    int p = row[x];
+                    if (alpha) bytes[i++] = (byte) (p >>> 24);
+                    bytes[i++] = (byte) (p >> 16);
+                    bytes[i++] = (byte) (p >> 8);
+                    bytes[i++] = (byte) p;
+                }
+                z.write(bytes);
+            }
+            z.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Decodes a ".dpraw" frame dump. */
+    public static BufferedImage readRaw(Path file) throws IOException {
+        try (InputStream fis = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+             DataInputStream in = new DataInputStream(fis)) {
+            if (in.readInt() != RAW_MAGIC) throw new IOException("Not a DeskPilot raw frame: " + file);
+            int version = in.readUnsignedByte();
+            if (version != RAW_VERSION) throw new IOException("Unsupported raw frame version " + version + ": " + file);
+            boolean alpha = in.readBoolean();
+            int w = in.readInt();
+            int h = in.readInt();
+            if (w <= 0 || h <= 0) throw new IOException("Bad raw frame size " + w + "x" + h + ": " + file);
+
+            BufferedImage img = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            int bpp = alpha ? 4 : 3;
+            byte[] bytes = new byte[w * bpp];
+            int[] row = new int[w];
+            Inflater inflater = new Inflater();
+            try {
+                DataInputStream z = new DataInputStream(new InflaterInputStream(in, inflater, 1 << 16));
+                for (int y = 0; y < h; y++) {
+                    z.readFully(bytes);
+                    for (int x = 0, i = 0; x < w; x++) {
+                        int a = alpha ? (bytes[i++] & 0xFF) : 0xFF;
+                        int r = bytes[i++] & 0xFF;
+                        int g = bytes[i++] & 0xFF;
+                        int b = bytes[i++] & 0xFF;
+                        row[x] = (a << 24) | (r << 16) | (g << 8) | b;
+                    }
+                    img.setRGB(0, y, w, 1, row, 0, w);
+                }
+            } finally {
+                inflater.end();
+            }
+            return img;
+        }
+    }
+
+    /**
+     * Converts every ".dpraw" file under {@code dir} to PNG (same base name), deletes the raw file,
+     * and rewrites manifest.txt references. Returns the PNG files written.
+     */
+    public static List<Path> convertRawToPng(Path dir, ArtifactCodec png) throws Exception {
+        if (dir == null) throw new IllegalArgumentException("dir is null");
+        if (png == null || png.kind != Kind.PNG) throw new IllegalArgumentException("target codec must be PNG");
+
+        List<Path> raws;
+        List<Path> manifests;
+        try (var stream = Files.walk(dir)) {
+            List<Path> all = stream.filter(Files::isRegularFile).toList();
+            raws = all.stream().filter(p -> p.getFileName().toString().endsWith(RAW_EXTENSION)).toList();
+            manifests = all.stream().filter(p -> p.getFileName().toString().equals("manifest.txt")).toList();
+        }
+
+        List<Path> out = new ArrayList<>();
+        for (Path raw : raws) {
+            String name = raw.getFileName().toString();
+            Path target = raw.resolveSibling(name.substring(0, name.length() - RAW_EXTENSION.length()) + ".png");
+            png.write(readRaw(raw), target);
+            Files.delete(raw);
+            out.add(target);
+        }
+
+        for (Path m : manifests) {
+            String text = Files.readString(m);
+            String fixed = text.replace(RAW_EXTENSION + "\n", ".png\n");
+            if (!fixed.equals(text)) Files.writeString(m, fixed);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,231 @@
+package io.deskpilot.engine;
+
+import io.deskpilot.engine.trace.Span;
+import io.deskpilot.engine.trace.Trace;
+import io.deskpilot.engine.trace.TraceRecorder;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Background image encoder for {@link Artifacts}: the test thread only enqueues.
+ *
+ * Rules:
+ * - Bounded queue; when full either BLOCK the caller or DROP the new image.
+ * - Re-saving a file that is still queued replaces the queued image (latest wins, one encode).
+ * - Files are written to a temp name and moved into place, so readers never see half a PNG.
+ * - Failures are logged and counted, never thrown: evidence must not fail a run.
+ * - Callers must not mutate an image after handing it over.
+ */
+public final class ArtifactWriter implements AutoCloseable {
+
+    public enum Overflow { BLOCK, DROP }
+
+    /** Writes one image to one file (PNG by default). */
+    @FunctionalInterface
+    public interface Encoder {
+        void write(BufferedImage img, Path file) throws Exception;
+    }
+
+    private record Pending(BufferedImage img, long seq, TraceRecorder trace) {} // trace: the submitter's recorder
+
+    private final BlockingQueue<Path> queue;
+    private final Map<Path, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<Path, Long> committedSeq = new HashMap<>();
+    private final Overflow overflow;
+    private final Encoder encoder;
+    private final Thread[] workers;
+
+    private final AtomicLong seq = new AtomicLong();
+    private final Object idle = new Object();
+    private int outstanding; // guarded by idle
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean closed;
+    private volatile Consumer<Path> failureListener = f -> {};
+
+    public ArtifactWriter(int capacity, int threads, Overflow overflow, Encoder encoder) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        if (threads <= 0) throw new IllegalArgumentException("threads must be > 0");
+        if (overflow == null) throw new IllegalArgumentException("overflow is null");
+        if (encoder == null) throw new IllegalArgumentException("encoder is null");
+
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflow = overflow;
+        this.encoder = encoder;
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(this::workLoop, "deskpilot-artifacts-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+            workers[i] = t;
+        }
+    }
+
+    /**
+     * Queue an image for {@code file}. Returns immediately (or blocks on a full queue with BLOCK).
+     * @return false if the image was dropped (writer closed, DROP on a full queue, interrupted)
+     */
+    public boolean submit(Path file, BufferedImage img) {
+        if (file == null) throw new IllegalArgumentException("file is null");
+        if (img == null) throw new IllegalArgumentException("img is null");
+        if (closed) {
+            System.err.println("[WARN] ArtifactWriter closed; dropping " + file.getFileName());
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        Path key = file.toAbsolutePath().normalize();
+        Pending prev = pending.put(key, new Pending(img, seq.incrementAndGet(), Trace.current()));
+        if (prev != null) {
+            coalesced.incrementAndGet(); // the queued entry will pick up the newer image
+            return true;
+        }
+
+        synchronized (idle) {
+            outstanding++;
+        }
+
+        try {
+            if (overflow == Overflow.BLOCK) {
+                queue.put(key);
+            } else if (!queue.offer(key)) {
+                pending.remove(key);
+                dropped.incrementAndGet();
+                done();
+                return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.remove(key);
+            dropped.incrementAndGet();
+            done();
+            return false;
+        }
+    }
+
+    /** Called on a worker thread with the target file of every failed encode; null clears it. */
+    public void setFailureListener(Consumer<Path> listener) {
+        this.failureListener = listener == null ? f -> {} : listener;
+    }
+
+    /** Wait until everything queued so far is on disk. Returns false on timeout. */
+    public boolean flush(long timeoutMs) throws InterruptedException {
+        long end = System.currentTimeMillis() + timeoutMs;
+        synchronized (idle) {
+            while (outstanding > 0) {
+                long left = end - System.currentTimeMillis();
+                if (left <= 0) return false;
+                idle.wait(left);
+            }
+        }
+        return true;
+    }
+
+    /** Flush (bounded) and stop the workers. Idempotent. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        try {
+            if (!flush(30_000)) {
+                System.err.println("[WARN] ArtifactWriter: timed out flushing artifacts");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Thread t : workers) t.interrupt();
+
+        if (dropped.get() > 0 || failed.get() > 0) {
+            System.err.println("[WARN] ArtifactWriter: written=" + written.get()
+                    + " coalesced=" + coalesced.get()
+                    + " dropped=" + dropped.get()
+                    + " failed=" + failed.get());
+        }
+    }
+
+    public long written() { return written.get(); }
+    public long coalesced() { return coalesced.get(); }
+    public long dropped() { return dropped.get(); }
+    public long failed() { return failed.get(); }
+
+    private void workLoop() {
+        while (true) {
+            Path file;
+            try {
+                file = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                if (queue.isEmpty()) return;
+                continue; // drain what is left before exiting
+            }
+            if (file == null) {
+                if (closed) return;
+                continue;
+            }
+
+            Pending job = pending.remove(file);
+            if (job == null) {
+                done();
+                continue;
+            }
+
+            Trace.Scope scope = Trace.bind(job.trace());
+            try (Span s = Trace.span("artifact.encode", "artifact")) {
+                s.arg("file", file.getFileName());
+                writeAtomically(file, job);
+                written.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                System.err.println("[WARN] Failed to write artifact " + file + ": " + e.getMessage());
+                failureListener.accept(file);
+            } finally {
+                scope.close();
+                done();
+            }
+        }
+    }
+
+    private void writeAtomically(Path file, Pending job) throws Exception {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp-" + job.seq());
+        encoder.write(job.img(), tmp);
+
+        synchronized (committedSeq) {
+            // a newer image for the same file may have been written by another worker already
+            if (committedSeq.getOrDefault(file, 0L) > job.seq()) {
+                Files.deleteIfExists(tmp);
+                return;
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            committedSeq.put(file, job.seq());
+        }
+    }
+
+    private void done() {
+        synchronized (idle) {
+            outstanding--;
+            if (outstanding <= 0) idle.notifyAll();
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package io.deskpilot.engine;
 
+import io.deskpilot.engine.ocr.OcrResultCache;
+import io.deskpilot.engine.trace.Span;
+import io.deskpilot.engine.trace.Trace;
+
 import java.awt.image.BufferedImage;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Milestone 12: unified artifact layout.
@@ -13,15 +22,58 @@ import java.util.concurrent.atomic.AtomicInteger;
  *   runs/<runName>/<NN>-<label>/...
  *
  * PRD 2.2: step numbering must not collide with 01-startup when it exists.
+ *
+ * PNG encoding can run on an {@link ArtifactWriter} (async); call {@link #close()} to flush.
+ *
+ * Dedup mode: opaque images are stored once under runs/<runName>/blobs/<pixelhash>-<w>x<h>.png
+ * and each step folder gets a manifest.txt ("fileName=../blobs/...") instead of its own copy.
+ * Identical frames (step_after of step N == step_before of step N+1, OCR poll crops) are then
+ * neither encoded nor written twice. Manifests are append-only: when a name is saved again
+ * (OCR polls) the last line for it wins.
  */
-public final class Artifacts {
+public final class Artifacts implements AutoCloseable {
 
     private final Path outDir;
     private final AtomicInteger step;
+    private final ArtifactWriter writer; // null = write synchronously
+    private final boolean dedup;
+    private final ArtifactCodec codec;
+    private volatile DeltaFrames deltaFrames; // null = every frame is a full image
+    private volatile ArtifactBudget budget;   // null = unlimited
+    private volatile boolean zipOnClose;
+    private volatile RunEvents events = RunEvents.NOOP;
+    private volatile RunArchive.RunLock runLock; // null = not a managed run
+    private boolean closed;
+
+    private final Set<String> blobs = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Object> manifestLocks = new ConcurrentHashMap<>();
+    private final AtomicLong dedupHits = new AtomicLong();
+    private final AtomicLong droppedImages = new AtomicLong();
 
    public Artifacts(Path outDir) throws Exception {
+    this(outDir, null, false);
+}
+
+   public Artifacts(Path outDir, ArtifactWriter writer) throws Exception {
+    this(outDir, writer, false);
+}
+
+   public Artifacts(Path outDir, ArtifactWriter writer, boolean dedup) throws Exception {
+    this(outDir, writer, dedup, ArtifactCodec.png());
+}
+
+   /**
+    * @param codec on-disk image format for the synchronous path and for file extensions;
+    *              an async {@code writer} should be built with the same codec as its encoder
+    */
+   public Artifacts(Path outDir, ArtifactWriter writer, boolean dedup, ArtifactCodec codec) throws Exception {
     if (outDir == null) throw new IllegalArgumentException("outDir is null");
+    if (codec == null) throw new IllegalArgumentException("codec is null");
     this.outDir = outDir;
+    this.writer = writer;
+    this.dedup = dedup;
+    this.codec = codec;
+    if (writer != null) writer.setFailureListener(this::onWriteFailed);
 
     // PRD 2.2: 01-startup is reserved, so first real step is 02-...
     int maxSeen = 1;
@@ -70,18 +122,210 @@ public Path stepDir(String label) throws Exception {
 }
 
 
+    /**
+     * Saves an image into the step folder (or the blob store in dedup mode).
+     * @return the file the image is (or will be, when async) written to; null if the async writer
+     *         dropped it, which is counted in {@link #droppedImages()}
+     */
     public Path savePng(Path stepDir, String fileName, BufferedImage img) throws Exception {
+        try (Span s = Trace.span("artifact.savePng", "artifact")) {
+            s.arg("file", fileName);
+            return savePngImpl(stepDir, fileName, img);
+        }
+    }
+
+    private Path savePngImpl(Path stepDir, String fileName, BufferedImage img) throws Exception {
         if (stepDir == null) throw new IllegalArgumentException("stepDir is null");
         if (fileName == null || fileName.isBlank()) throw new IllegalArgumentException("fileName blank");
         if (img == null) throw new IllegalArgumentException("img is null");
 
         String n = safeFile(fileName);
         if (!n.toLowerCase(Locale.US).endsWith(".png")) n = n + ".png";
+
+        // dedup is for opaque screenshots; translucent images keep their own file
+        if (dedup && !img.getColorModel().hasAlpha()) {
+            return saveBlob(stepDir, n, img); // manifest keeps the logical .png name
+        }
+
+        if (codec.kind() != ArtifactCodec.Kind.PNG) {
+            n = n.substring(0, n.length() - ".png".length()) + codec.extension();
+        }
+
         Path file = stepDir.resolve(n);
-        javax.imageio.ImageIO.write(img, "png", file.toFile());
+        if (!encode(file, img)) return null;
+        emitArtifact(stepDir, file, "image");
         return file;
     }
 
+    /**
+     * Enables delta encoding for {@link #saveFrame}: a keyframe every {@code keyframeInterval}
+     * same-size frames, dirty tiles in between. 0 disables it.
+     */
+    public void setDeltaFrames(int keyframeInterval) {
+        this.deltaFrames = keyframeInterval > 0 ? new DeltaFrames(keyframeInterval, 32) : null;
+    }
+
+    public DeltaFrames deltaFrames() {
+        return deltaFrames;
+    }
+
+    /** Byte budgets enforced at {@link #finishStep} and {@link #close()}; null = unlimited. */
+    public void setBudget(ArtifactBudget budget) {
+        this.budget = budget;
+    }
+
+    public ArtifactBudget budget() {
+        return budget;
+    }
+
+    /** On {@link #close()}, replace runs/<runName>/<runId>/ with runs/<runName>/<runId>.zip. */
+    public void setZipOnClose(boolean zipOnClose) {
+        this.zipOnClose = zipOnClose;
+    }
+
+    /** Lock on {@link #outDir()} held by this run; released by {@link #close()} after the run is archived. */
+    public void setRunLock(RunArchive.RunLock runLock) {
+        this.runLock = runLock;
+    }
+
+    /** Receives an "artifact" event for every file saved. */
+    public void setEvents(RunEvents events) {
+        this.events = events == null ? RunEvents.NOOP : events;
+    }
+
+    /** Marks a step folder as complete so the step/run budgets can be applied to it. */
+    public void finishStep(Path stepDir) {
+        ArtifactBudget b = budget;
+        if (b != null && stepDir != null) b.onStepFinished(outDir, stepDir, deltaFrames != null);
+    }
+
+    /**
+     * Saves a full-client screenshot that is part of the step sequence (step_before/after, before/after).
+     * With delta frames enabled this may write a ".dpdelta" instead of an image; a name already used
+     * in the step folder gets a "-2", "-3", ... suffix. Otherwise identical to {@link #savePng}.
+     */
+    public Path saveFrame(Path stepDir, String fileName, BufferedImage img) throws Exception {
+        DeltaFrames d = deltaFrames;
+        if (d == null || img == null || img.getColorModel().hasAlpha()) return savePng(stepDir, fileName, img);
+        if (stepDir == null) throw new IllegalArgumentException("stepDir is null");
+        if (fileName == null || fileName.isBlank()) throw new IllegalArgumentException("fileName blank");
+
+        String n = safeFile(fileName);
+        if (n.toLowerCase(Locale.US).endsWith(".png")) n = n.substring(0, n.length() - ".png".length());
+        // keyframes bypass the async writer: deltas reference them immediately
+        Path file = d.save(stepDir.resolve(n + codec.extension()), stepDir.resolve(n + DeltaFrames.EXTENSION), img,
+                (f, i) -> codec.write(i, f));
+        emitArtifact(stepDir, file, file.getFileName().toString().endsWith(DeltaFrames.EXTENSION) ? "delta" : "keyframe");
+        return file;
+    }
+
+    /** Number of images the async writer dropped (DROP overflow policy or closed writer). */
+    public long droppedImages() {
+        return droppedImages.get();
+    }
+
+    /** Number of images that were not encoded because an identical blob already existed. */
+    public long dedupHits() {
+        return dedupHits.get();
+    }
+
+    private Path saveBlob(Path stepDir, String name, BufferedImage img) throws Exception {
+        // SHA-256 of the pixels: a name hit must mean the same image, or the manifest points at the wrong evidence
+        String blobName = String.format(Locale.US, "%s-%dx%d%s",
+                OcrResultCache.imageHash(img), img.getWidth(), img.getHeight(), codec.extension());
+        Path blobDir = outDir.resolve("blobs");
+        Path blob = blobDir.resolve(blobName);
+
+        if (blobs.contains(blobName)) {
+            dedupHits.incrementAndGet();
+        } else {
+            Files.createDirectories(blobDir);
+            if (!encode(blob, img)) return null; // dropped: no blob, so no manifest entry either
+            blobs.add(blobName); // async failures unregister it again (onWriteFailed)
+        }
+
+        appendManifest(stepDir, name, stepDir.relativize(blob).toString().replace('\\', '/'));
+        emitArtifact(stepDir, blob, "blob");
+        return blob;
+    }
+
+    /** Async encode failed: forget the blob so the next identical image is written again. */
+    private void onWriteFailed(Path file) {
+        if (file.getParent() != null && file.getParent().getFileName() != null
+                && file.getParent().getFileName().toString().equals("blobs")) {
+            blobs.remove(file.getFileName().toString());
+        }
+    }
+
+    private void appendManifest(Path stepDir, String name, String target) throws Exception {
+        Object lock = manifestLocks.computeIfAbsent(stepDir, k -> new Object());
+        synchronized (lock) {
+            Files.writeString(stepDir.resolve("manifest.txt"), name + "=" + target + "\n",
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /** Returns false if the async writer dropped the image (nothing will appear at {@code file}). */
+    private boolean encode(Path file, BufferedImage img) throws Exception {
+        if (writer == null) {
+            codec.write(img, file);
+            return true;
+        }
+        if (writer.submit(file, img)) return true; // returns before the file exists
+
+        droppedImages.incrementAndGet();
+        return false;
+    }
+
+    /** Synchronous default-level PNG encode. */
+    static void writePng(BufferedImage img, Path file) throws Exception {
+        ArtifactCodec.png().write(img, file);
+    }
+
+    /** Wait for queued images to reach disk (no-op when writing synchronously). */
+    public boolean flush(long timeoutMs) throws InterruptedException {
+        return writer == null || writer.flush(timeoutMs);
+    }
+
+    /**
+     * Flush and stop the async writer, apply the run budget, mark the run complete, zip it if
+     * configured, then release the run lock.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+
+        if (writer != null) writer.close();
+
+        ArtifactBudget b = budget;
+        if (b != null) b.onRunFinished(outDir, deltaFrames != null);
+
+        try {
+            RunArchive.markComplete(outDir);
+        } catch (Exception e) {
+            System.err.println("[WARN] Failed to mark run complete " + outDir + ": " + e.getMessage());
+        }
+
+        if (zipOnClose) {
+            try {
+                Path zip = RunArchive.zipAndDelete(outDir);
+                System.out.println("Run archived: " + zip.toAbsolutePath());
+            } catch (Exception e) {
+                System.err.println("[WARN] Failed to zip run folder " + outDir + ": " + e.getMessage());
+            }
+        }
+
+        RunArchive.RunLock lock = runLock;
+        if (lock != null) {
+            try {
+                lock.close();
+            } catch (Exception e) {
+                System.err.println("[WARN] Failed to release run lock " + outDir + ": " + e.getMessage());
+            }
+        }
+    }
+
     public Path saveText(Path stepDir, String fileName, String text) throws Exception {
         if (stepDir == null) throw new IllegalArgumentException("stepDir is null");
         if (fileName == null || fileName.isBlank()) throw new IllegalArgumentException("fileName blank");
@@ -89,9 +333,24 @@ public Path stepDir(String label) throws Exception {
         String n = safeFile(fileName);
         Path file = stepDir.resolve(n);
         Files.writeString(file, text);
+        emitArtifact(stepDir, file, "text");
         return file;
     }
 
+    private void emitArtifact(Path stepDir, Path file, String kind) {
+        RunEvents ev = events;
+        if (!ev.enabled()) return;
+
+        Path root = outDir.toAbsolutePath().normalize();
+        Path abs = file.toAbsolutePath().normalize();
+        String rel = (abs.startsWith(root) ? root.relativize(abs) : abs).toString().replace('\\', '/');
+        ev.event("artifact")
+                .put("step", stepDir.getFileName() == null ? "" : stepDir.getFileName().toString())
+                .put("file", rel)
+                .put("kind", kind)
+                .emit();
+    }
+
     static String safeFile(String s) {
         if (s == null) return "";
         return s.replaceAll("[^a-zA-Z0-9._-]+", "-");
@@ -0,0 +1,320 @@
+package io.deskpilot.engine;
+
+import io.deskpilot.engine.image.FrameDiff;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Delta-encoded screenshot frames for {@link Artifacts#saveFrame}.
+ *
+ * Frames of the same size form a chain: a full keyframe (PNG / raw, via the artifact codec)
+ * every {@code keyframeInterval} frames, and ".dpdelta" files in between holding only the tiles
+ * that changed since the previous frame. A delta stores its predecessor as a path relative to
+ * its own folder, so any frame can be rebuilt from the run folder alone ({@link #reconstruct}).
+ *
+ * Falls back to a keyframe when most of the frame changed. A frame never reuses a path that an
+ * earlier frame (of any chain) was written to, or that already exists: rewriting a keyframe or a
+ * delta would corrupt every later delta built on it, so such saves get a "-2", "-3", ... suffix.
+ * Keyframes must be on disk when {@code save} returns (see {@link KeyframeSink}).
+ */
+public final class DeltaFrames {
+
+    public static final String EXTENSION = ".dpdelta";
+
+    /** Dirty-area fraction above which a keyframe is cheaper than a delta. */
+    private static final double MAX_DELTA_AREA = 0.5;
+
+    private static final int MAGIC = 0x4450444C; // "DPDL"
+    private static final int VERSION = 1;
+
+    /**
+     * Writes a keyframe synchronously. Deltas reference it as soon as it is written, so a keyframe
+     * that an async writer could drop or fail to encode would break the whole chain.
+     */
+    @FunctionalInterface
+    interface KeyframeSink {
+        void write(Path file, BufferedImage img) throws Exception;
+    }
+
+    private static final class Chain {
+        BufferedImage last;
+        Path lastFile;
+        int sinceKeyframe;
+    }
+
+    private final int keyframeInterval;
+    private final int tileSize;
+    private final FrameDiff tileDiff = FrameDiff.exact();
+    private final Map<String, Chain> chains = new HashMap<>();
+    private final Set<Path> written = new HashSet<>();
+
+    private long keyframes;
+    private long deltas;
+
+    public DeltaFrames(int keyframeInterval, int tileSize) {
+        if (keyframeInterval < 1) throw new IllegalArgumentException("keyframeInterval must be >= 1");
+        if (tileSize < 8) throw new IllegalArgumentException("tileSize must be >= 8");
+        this.keyframeInterval = keyframeInterval;
+        this.tileSize = tileSize;
+    }
+
+    public synchronized long keyframes() {
+        return keyframes;
+    }
+
+    public synchronized long deltas() {
+        return deltas;
+    }
+
+    /**
+     * Stores {@code img} either as a keyframe at {@code keyFile} or as a delta at {@code deltaFile}
+     * (both suffixed when either path is already taken). Returns the file actually written.
+     * Callers must not mutate {@code img} afterwards.
+     */
+    synchronized Path save(Path requestedKeyFile, Path requestedDeltaFile, BufferedImage img, KeyframeSink sink) throws Exception {
+        Path keyFile = requestedKeyFile;
+        Path deltaFile = requestedDeltaFile;
+        for (int i = 2; taken(keyFile) || taken(deltaFile); i++) {
+            keyFile = suffixed(requestedKeyFile, i);
+            deltaFile = suffixed(requestedDeltaFile, i);
+        }
+
+        String key = img.getWidth() + "x" + img.getHeight();
+        Chain c = chains.get(key);
+
+        if (c != null && c.sinceKeyframe + 1 < keyframeInterval) {
+            List<Rectangle> dirty = dirtyTiles(c.last, img);
+            long area = 0;
+            for (Rectangle r : dirty) area += (long) r.width * r.height;
+
+            if (area <= MAX_DELTA_AREA * img.getWidth() * (long) img.getHeight()) {
+                String ref = deltaFile.getParent().relativize(c.lastFile).toString().replace('\\', '/');
+                writeDelta(deltaFile, ref, img, dirty);
+                written.add(norm(deltaFile));
+                c.last = img;
+                c.lastFile = deltaFile;
+                c.sinceKeyframe++;
+                deltas++;
+                return deltaFile;
+            }
+        }
+
+        chains.remove(key); // a failed keyframe write must not leave deltas pointing at it
+        sink.write(keyFile, img);
+        written.add(norm(keyFile));
+        Chain k = new Chain();
+        k.last = img;
+        k.lastFile = keyFile;
+        chains.put(key, k);
+        keyframes++;
+        return keyFile;
+    }
+
+    private boolean taken(Path file) {
+        return written.contains(norm(file)) || Files.exists(file);
+    }
+
+    private static Path suffixed(Path file, int i) {
+        String n = file.getFileName().toString();
+        int dot = n.lastIndexOf('.');
+        return file.resolveSibling(n.substring(0, dot) + "-" + i + n.substring(dot));
+    }
+
+    private List<Rectangle> dirtyTiles(BufferedImage prev, BufferedImage cur) {
+        List<Rectangle> out = new ArrayList<>();
+        int w = cur.getWidth();
+        int h = cur.getHeight();
+        for (int y = 0; y < h; y += tileSize) {
+            for (int x = 0; x < w; x += tileSize) {
+                Rectangle t = new Rectangle(x, y, Math.min(tileSize, w - x), Math.min(tileSize, h - y));
+                if (tileDiff.anyChange(prev, cur, t)) out.add(t);
+            }
+        }
+        return out;
+    }
+
+    private static void writeDelta(Path file, String ref, BufferedImage img, List<Rectangle> tiles) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (BufferedOutputStream bos = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+             DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(ref);
+            out.writeInt(img.getWidth());
+            out.writeInt(img.getHeight());
+            out.writeInt(tiles.size());
+            out.flush();
+
+            DeflaterOutputStream z = new DeflaterOutputStream(bos, deflater, 1 << 16);
+            DataOutputStream zd = new DataOutputStream(z);
+            int[] row = new int[0];
+            for (Rectangle t : tiles) {
+                zd.writeInt(t.x);
+                zd.writeInt(t.y);
+                zd.writeInt(t.width);
+                zd.writeInt(t.height);
+                if (row.length < t.width) row = new int[t.width];
+                byte[] bytes = new byte[t.width * 3];
+                for (int y = t.y; y < t.y + t.height; y++) {
+                    img.getRGB(t.x, y, t.width, 1, row, 0, t.width);
+                    for (int x = 0, i = 0; x < t.width; x++) {
+                        int p = row[x];
+                        bytes[i++] = (byte) (p >> 16);
+                        bytes[i++] = (byte) (p >> 8);
+                        bytes[i++] = (byte) p;
+                    }
+                    zd.write(bytes);
+                }
+            }
+            zd.flush();
+            z.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Rebuilds the full image for any artifact frame (.dpdelta, .dpraw or a regular image file). */
+    public static BufferedImage reconstruct(Path frame) throws IOException {
+        if (frame == null) throw new IllegalArgumentException("frame is null");
+
+        // walk back to the keyframe, then replay deltas forward
+        Deque<Path> chain = new ArrayDeque<>();
+        Path p = frame.toAbsolutePath().normalize();
+        while (p.getFileName().toString().endsWith(EXTENSION)) {
+            if (chain.contains(p) || chain.size() > 10_000) throw new IOException("Delta chain loops at " + p);
+            chain.push(p);
+            p = p.getParent().resolve(readRef(p)).normalize();
+        }
+
+        BufferedImage img = readFull(p);
+        BufferedImage out = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_RGB);
+        out.getGraphics().drawImage(img, 0, 0, null);
+        while (!chain.isEmpty()) applyDelta(chain.pop(), out);
+        return out;
+    }
+
+    /**
+     * Writes a PNG next to every ".dpdelta" under {@code dir} (same base name); deltas are kept,
+     * because later frames may reference them. A PNG that is (or, for a raw keyframe, will become)
+     * a keyframe of some chain is never overwritten; that delta is skipped with a warning.
+     * Returns the PNG files written.
+     */
+    public static List<Path> materialize(Path dir) throws Exception {
+        List<Path> deltas;
+        try (var stream = Files.walk(dir)) {
+            deltas = stream.filter(f -> f.getFileName().toString().endsWith(EXTENSION)).toList();
+        }
+
+        Set<Path> keyframes = new HashSet<>();
+        for (Path d : deltas) {
+            Path ref = d.getParent().resolve(readRef(d)).toAbsolutePath().normalize();
+            String r = ref.getFileName().toString();
+            if (r.endsWith(EXTENSION)) continue;
+            keyframes.add(ref);
+            if (r.endsWith(ArtifactCodec.RAW_EXTENSION)) {
+                keyframes.add(ref.resolveSibling(r.substring(0, r.length() - ArtifactCodec.RAW_EXTENSION.length()) + ".png"));
+            }
+        }
+
+        List<Path> out = new ArrayList<>();
+        for (Path d : deltas) {
+            String n = d.getFileName().toString();
+            Path png = d.resolveSibling(n.substring(0, n.length() - EXTENSION.length()) + ".png");
+            if (keyframes.contains(png.toAbsolutePath().normalize())) {
+                System.err.println("[WARN] Not materializing " + d + ": " + png.getFileName() + " is a keyframe");
+                continue;
+            }
+            ArtifactCodec.png().write(reconstruct(d), png);
+            out.add(png);
+        }
+        return out;
+    }
+
+    private static BufferedImage readFull(Path file) throws IOException {
+        String n = file.getFileName().toString();
+        if (n.endsWith(ArtifactCodec.RAW_EXTENSION)) {
+            if (Files.exists(file)) return ArtifactCodec.readRaw(file);
+            // raw keyframe already converted by "deskpilot artifacts png"
+            file = file.resolveSibling(n.substring(0, n.length() - ArtifactCodec.RAW_EXTENSION.length()) + ".png");
+        }
+        BufferedImage img = ImageIO.read(file.toFile());
+        if (img == null) throw new IOException("Cannot decode keyframe: " + file);
+        return img;
+    }
+
+    private static String readRef(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            readHeaderStart(in, file);
+            return in.readUTF();
+        }
+    }
+
+    private static void readHeaderStart(DataInputStream in, Path file) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a DeskPilot delta frame: " + file);
+        int v = in.readUnsignedByte();
+        if (v != VERSION) throw new IOException("Unsupported delta frame version " + v + ": " + file);
+    }
+
+    private static void applyDelta(Path file, BufferedImage target) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            readHeaderStart(in, file);
+            in.readUTF();
+            int w = in.readInt();
+            int h = in.readInt();
+            int n = in.readInt();
+            if (w != target.getWidth() || h != target.getHeight()) {
+                throw new IOException("Delta size " + w + "x" + h + " does not match its reference: " + file);
+            }
+
+            Inflater inflater = new Inflater();
+            try {
+                DataInputStream z = new DataInputStream(new InflaterInputStream(in, inflater, 1 << 16));
+                for (int t = 0; t < n; t++) {
+                    int tx = z.readInt();
+                    int ty = z.readInt();
+                    int tw = z.readInt();
+                    int th = z.readInt();
+                    if (tx < 0 || ty < 0 || tw <= 0 || th <= 0 || tx + tw > w || ty + th > h) {
+                        throw new IOException("Bad tile in " + file);
+                    }
+                    byte[] bytes = new byte[tw * 3];
+                    int[] row = new int[tw];
+                    for (int y = ty; y < ty + th; y++) {
+                        z.readFully(bytes);
+                        for (int x = 0, i = 0; x < tw; x++) {
+                            row[x] = 0xFF000000 | ((bytes[i++] & 0xFF) << 16) | ((bytes[i++] & 0xFF) << 8) | (bytes[i++] & 0xFF);
+                        }
+                        target.setRGB(tx, y, tw, 1, row, 0, tw);
+                    }
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    private static Path norm(Path p) {
+        return p.toAbsolutePath().normalize();
+    }
+}
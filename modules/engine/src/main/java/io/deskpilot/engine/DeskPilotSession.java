@@ -1,15 +1,30 @@
 package io.deskpilot.engine;
 
 import com.sun.jna.platform.win32.WinDef.HWND;
+import io.deskpilot.engine.image.FrameDiff;
 import io.deskpilot.engine.image.ImageUtil;
+import io.deskpilot.engine.locators.LocateCache;
 import io.deskpilot.engine.locators.Locator;
 import io.deskpilot.engine.locators.LocatorResult;
 import io.deskpilot.engine.locators.LocatorSession;
 import io.deskpilot.engine.locators.RegionLocator;
 import io.deskpilot.engine.actions.Actions;
 import io.deskpilot.engine.locators.TemplateLocatorEngine;
+import io.deskpilot.engine.metrics.EngineMetrics;
+import io.deskpilot.engine.metrics.MetricsRegistry;
+import io.deskpilot.engine.ocr.FuzzyMatch;
+import io.deskpilot.engine.ocr.MultiPatternMatcher;
 import io.deskpilot.engine.ocr.OcrConfig;
+import io.deskpilot.engine.ocr.OcrPipeline;
+import io.deskpilot.engine.ocr.OcrResultCache;
+import io.deskpilot.engine.ocr.OcrText;
+import io.deskpilot.engine.ocr.OcrWordIndex;
+import io.deskpilot.engine.ocr.PresetRace;
+import io.deskpilot.engine.runtime.AdaptivePoll;
 import io.deskpilot.engine.targets.TemplateTarget;
+import io.deskpilot.engine.trace.Span;
+import io.deskpilot.engine.trace.Trace;
+import io.deskpilot.engine.trace.TraceRecorder;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
@@ -21,7 +36,11 @@ import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 
 /**
@@ -40,26 +59,72 @@ private Actions actions;
     private Path currentStepDir; // set when step() starts
 private static final int OCR_MIN_CROP_W = 60;
 private static final int OCR_MIN_CROP_H = 18;
+private static final int WORD_INDEX_PAD = 16; // px read around a word-index region, so words cut by its edge come back whole
 
     private OcrEngine ocr;
+    private static final long OCR_BORROW_TIMEOUT_MS = 60_000;
     private OcrConfig ocrConfig = OcrConfig.defaults();
 
     private BufferedImage beforeImg;
     private BufferedImage afterImg;
 
+    private final LocateCache locateCache;
+    private Path templateDumpStep;                                       // step templateDumps belong to
+    private final Set<String> templateDumps = new java.util.HashSet<>(); // identity|digest already dumped
+    private final OcrResultCache ocrCache;
+    private OcrWordIndex wordIndex; // last frame's words; null until the first indexed read
+    private final RunEvents events;
+    private final TraceRecorder tracer; // null = tracing off
+    private final MetricsRegistry metrics = EngineMetrics.newRegistry();
+
+    // attach warmup, taken by the first OCR call (race reads may call from several threads)
+    private final java.util.concurrent.atomic.AtomicReference<OcrWarmup> ocrWarmup;
+    private final java.util.concurrent.atomic.AtomicBoolean firstOcrPending = new java.util.concurrent.atomic.AtomicBoolean(true);
+    private volatile long attachedAtNanos = System.nanoTime(); // reset when attach completes
+
     private DeskPilotSession(
             DesktopDriver driver,
             HWND hwnd,
             Rectangle clientRectWin32,
             Rectangle clientRectRobot,
             Artifacts artifacts,
-            RunOptions runOptions) {
+            RunOptions runOptions,
+            OcrWarmup ocrWarmup) {
         this.driver = driver;
+        this.ocrWarmup = new java.util.concurrent.atomic.AtomicReference<>(ocrWarmup);
         this.hwnd = hwnd;
         this.clientRectWin32 = clientRectWin32;
         this.clientRectRobot = clientRectRobot;
         this.artifacts = artifacts;
         this.runOptions = java.util.Objects.requireNonNull(runOptions, "runOptions is null");
+        this.locateCache = new LocateCache(runOptions.locateCacheSize());
+        this.ocrCache = new OcrResultCache(runOptions.ocrCacheSize());
+        ocrCache.setMetrics(metrics);
+        this.events = openEvents(artifacts, runOptions);
+        artifacts.setEvents(events);
+        this.tracer = runOptions.trace() ? new TraceRecorder(runOptions.traceMaxSpans()) : null;
+        if (tracer != null) Trace.install(tracer); // attaching thread; pool and writer tasks carry it along
+        if (driver != null) driver.setMetrics(metrics);
+    }
+
+    private static RunEvents openEvents(Artifacts artifacts, RunOptions options) {
+        if (!options.runEvents()) return RunEvents.NOOP;
+        try {
+            return new RunEvents(artifacts.outDir().resolve("events.jsonl"), 256);
+        } catch (Exception e) {
+            System.err.println("[WARN] Could not open events.jsonl: " + e.getMessage());
+            return RunEvents.NOOP;
+        }
+    }
+
+    /** Structured run timeline (events.jsonl); {@link RunEvents#NOOP} when disabled. */
+    public RunEvents events() {
+        return events;
+    }
+
+    /** Counters/histograms for this session; merged into {@link MetricsRegistry#process()} on close. */
+    public MetricsRegistry metrics() {
+        return metrics;
     }
 
     // -------------------------
@@ -78,6 +143,12 @@ public static DeskPilotSession attachPickWindow(RunOptions options) throws Excep
     Path outDir = RunOptions.prepareRunFolder(options);
     Path startupDir = outDir.resolve("01-startup");
     Files.createDirectories(startupDir);
+    RunArchive.RunLock runLock = RunArchive.lock(outDir); // other JVMs must not prune us
+
+    // load tessdata and the native OCR library while the user picks the window; the first OCR call waits for the rest
+    OcrWarmup warmup = options.ocrWarmup()
+            ? OcrWarmup.start(OcrEnginePool.shared(), OcrConfig.defaults().profile, OCR_BORROW_TIMEOUT_MS)
+            : null;
 
     try {
         long timeoutMs = options.attachTimeoutMs();
@@ -95,7 +166,7 @@ public static DeskPilotSession attachPickWindow(RunOptions options) throws Excep
 
         if (options.bringToFrontOnAttach()) {
             WindowManager.bringToFront(hwnd);
-            Thread.sleep(300);
+            Trace.sleep(300);
         }
 
         // ✅ Write attach diagnostics into startup (always exists now)
@@ -106,16 +177,30 @@ public static DeskPilotSession attachPickWindow(RunOptions options) throws Excep
                 "clientRectRobot=" + clientRectRobot + System.lineSeparator()
         );
 
-        Artifacts artifacts = new Artifacts(outDir);
+        ArtifactWriter writer = options.asyncArtifacts()
+                ? new ArtifactWriter(
+                        options.artifactQueueCapacity(),
+                        options.artifactWriterThreads(),
+                        options.artifactOverflow(),
+                        options.artifactCodec())
+                : null;
+        Artifacts artifacts = new Artifacts(outDir, writer, options.dedupArtifacts(), options.artifactCodec());
+        artifacts.setRunLock(runLock);
+        artifacts.setDeltaFrames(options.artifactKeyframeInterval());
+        if (options.maxRunBytes() > 0 || options.maxStepBytes() > 0) {
+            artifacts.setBudget(new ArtifactBudget(options.maxRunBytes(), options.maxStepBytes()));
+        }
+        artifacts.setZipOnClose(options.zipRunOnClose());
         DesktopDriver driver = new DesktopDriver();
 
-        DeskPilotSession s = new DeskPilotSession(driver, hwnd, clientRectWin32, clientRectRobot, artifacts, options);
+        DeskPilotSession s = new DeskPilotSession(driver, hwnd, clientRectWin32, clientRectRobot, artifacts, options, warmup);
 
         // ✅ Make attach stabilization step-scoped
         s.step("startup", () -> {
             s.before();                 // baseline screenshot in 01-startup
             s.stabilizeInStep("attach");
         });
+        s.attachedAtNanos = System.nanoTime();
 
         return s;
 
@@ -123,6 +208,10 @@ public static DeskPilotSession attachPickWindow(RunOptions options) throws Excep
         // ✅ PRD: attach failures always leave a failure bundle in 01-startup
         try {
             Files.writeString(startupDir.resolve("attach_error.txt"), stackTrace(e));
+            RunArchive.markComplete(outDir);
+        } catch (Exception ignored) {}
+        try {
+            runLock.close();
         } catch (Exception ignored) {}
         throw e;
     }
@@ -169,10 +258,104 @@ private static String stackTrace(Throwable t) {
         return ocr;
     }
 
+    /** Session-owned engine, outside the pool. Not thread-safe; concurrent callers should use {@link #ocrPool()}. */
     public OcrEngine getOcr() {
         return ocr();
     }
 
+    /** Process-wide engine pool used by the session's own OCR calls. */
+    public OcrEnginePool ocrPool() {
+        return OcrEnginePool.shared();
+    }
+
+    public OcrResultCache getOcrCache() {
+        return ocrCache;
+    }
+
+    private String ocrReadText(BufferedImage img) throws Exception {
+        return ocrReadText(img, ocrConfig);
+    }
+
+    private String ocrReadText(BufferedImage img, OcrConfig cfg) throws Exception {
+        return ocrCache.computeIfAbsent(OcrResultCache.TEXT, img, cfg.key(),
+                () -> withOcrEngine(cfg, e -> e.readText(img)));
+    }
+
+    /**
+     * Runs one OCR call on a pooled engine for {@code cfg}'s profile. Waits for the attach warmup
+     * (if any) first, so the first call does not load tessdata and the native library a second time
+     * in parallel with it.
+     */
+    private <T> T withOcrEngine(OcrConfig cfg, java.util.function.Function<OcrEngine, T> call) throws Exception {
+        awaitOcrWarmup();
+        try (OcrEnginePool.Lease lease = ocrPool().borrow(cfg.profile, OCR_BORROW_TIMEOUT_MS, metrics)) {
+            long t0 = System.nanoTime();
+            T out = call.apply(lease.engine());
+            EngineMetrics.ocr(metrics, t0);
+            if (firstOcrPending.compareAndSet(true, false)) {
+                long sinceAttach = System.nanoTime() - attachedAtNanos;
+                metrics.histogram(EngineMetrics.OCR_FIRST_CALL_SECONDS).recordNanos(sinceAttach);
+                System.out.println("OCR first call finished " + sinceAttach / 1_000_000L + " ms after attach"
+                        + " (call " + (System.nanoTime() - t0) / 1_000_000L + " ms)");
+            }
+            return out;
+        }
+    }
+
+    private void awaitOcrWarmup() throws InterruptedException {
+        OcrWarmup w = ocrWarmup.getAndSet(null); // only the first call waits
+        if (w == null) return;
+
+        long waited = w.await(OCR_BORROW_TIMEOUT_MS);
+        metrics.histogram(EngineMetrics.OCR_WARMUP_WAIT_SECONDS).recordNanos(waited);
+        long took = w.durationNanos();
+        if (took >= 0) metrics.histogram(EngineMetrics.OCR_WARMUP_SECONDS).recordNanos(took);
+        System.out.println("OCR warmup " + (w.error() == null ? "ready" : "failed")
+                + ": took " + (took < 0 ? "?" : took / 1_000_000L) + " ms, first call waited "
+                + waited / 1_000_000L + " ms");
+    }
+
+    /**
+     * Word index able to answer a read of {@code area} on {@code clientShot}: reused while the
+     * OcrConfig and the pixels of the patch holding that area are unchanged (changes elsewhere in
+     * the client do not count). Otherwise only that area, merged with the patches it overlaps, is
+     * read again; the client is never OCR'd as a whole.
+     */
+    private OcrWordIndex wordIndex(BufferedImage clientShot, Rectangle area) throws Exception {
+        OcrConfig cfg = ocrConfig;
+        OcrWordIndex idx = wordIndex;
+        if (idx != null && idx.matches(clientShot, area, cfg.key())) {
+            metrics.counter(EngineMetrics.OCR_WORD_INDEX, "result", "hit").inc();
+            return idx;
+        }
+        if (idx == null || !idx.configKey().equals(cfg.key()) || !idx.sameSize(clientShot)) {
+            idx = OcrWordIndex.empty(clientShot, cfg.key());
+        }
+
+        Rectangle patch = idx.patchFor(area, WORD_INDEX_PAD);
+        OcrPipeline.Result pre = OcrPipeline.preprocess(ImageUtil.crop(clientShot, patch), cfg);
+        List<OcrEngine.OcrWord> words = withOcrEngine(cfg, e -> e.readWords(pre.preprocessed));
+
+        // boxes come back in preprocessed patch pixels; the index works in client-shot pixels
+        double sf = pre.scaleFactor > 0 ? pre.scaleFactor : 1.0;
+        List<OcrEngine.OcrWord> unscaled = new java.util.ArrayList<>(words.size());
+        for (OcrEngine.OcrWord w : words) {
+            Rectangle b = w.box;
+            unscaled.add(new OcrEngine.OcrWord(w.text, new Rectangle(
+                    patch.x + (int) Math.floor(b.x / sf), patch.y + (int) Math.floor(b.y / sf),
+                    Math.max(1, (int) Math.round(b.width / sf)), Math.max(1, (int) Math.round(b.height / sf))),
+                    w.confidence));
+        }
+
+        metrics.counter(EngineMetrics.OCR_WORD_INDEX, "result", "build").inc();
+        wordIndex = idx.with(clientShot, patch, unscaled);
+        return wordIndex;
+    }
+
+    public LocateCache getLocateCache() {
+        return locateCache;
+    }
+
     public OcrConfig getOcrConfig() {
         return ocrConfig;
     }
@@ -195,14 +378,14 @@ private static String stackTrace(Throwable t) {
 
     public DeskPilotSession before() throws Exception {
         this.beforeImg = driver.screenshot(clientRectRobot);
-        saveStepPng("before.png", beforeImg);
+        saveStepFrame("before.png", beforeImg);
         System.out.println("Saved BEFORE screenshot");
         return this;
     }
 
     public DeskPilotSession after() throws Exception {
         this.afterImg = driver.screenshot(clientRectRobot);
-        saveStepPng("after.png", afterImg);
+        saveStepFrame("after.png", afterImg);
         System.out.println("Saved AFTER screenshot");
 
         return this;
@@ -219,7 +402,9 @@ private static String stackTrace(Throwable t) {
     if (locator == null)
         throw new IllegalArgumentException("locator is null");
 
+    long t0 = System.nanoTime();
     LocatorResult r = locator.locate(this);
+    EngineMetrics.locate(metrics, locator.kind(), r == null ? null : r.status, t0);
 
     return r;
 }
@@ -252,6 +437,7 @@ private static String stackTrace(Throwable t) {
         long end = System.currentTimeMillis() + timeoutMs;
         Exception last = null;
         int attempts = 0;
+        AdaptivePoll poll = AdaptivePoll.around(200, driver.millisSinceLastInput());
 
         while (System.currentTimeMillis() < end) {
             attempts++;
@@ -259,10 +445,12 @@ private static String stackTrace(Throwable t) {
                 return click(locator);
             } catch (Exception e) {
                 last = e;
-                Thread.sleep(200);
+                poll.onIdle();
+                poll.sleep(end);
             }
         }
 
+        EngineMetrics.timeout(metrics, "click");
         throw new RuntimeException(
                 "Timeout clicking locator: label=" + locator.label() +
                         " kind=" + locator.kind() +
@@ -314,15 +502,37 @@ private static String stackTrace(Throwable t) {
  public LocatorResult locateTemplate(TemplateTarget target, String label) throws Exception {
     BufferedImage clientShot = driver.screenshot(clientRectRobot);
 
-    LocatorResult r = TemplateLocatorEngine.locate(clientShot, clientRectWin32, target, label);
+    // Same pixels in the search area => same answer; skip the scan on retries.
+    String identity = null;
+    String contentHash = null;
+    if (locateCache.enabled()) {
+        identity = TemplateLocatorEngine.identity(target, label, clientRectWin32);
+        contentHash = TemplateLocatorEngine.searchAreaDigest(clientShot, target);
+    }
+
+    LocatorResult r = (identity == null) ? null : locateCache.get(identity, contentHash);
+    if (r == null) {
+        r = TemplateLocatorEngine.locate(clientShot, clientRectWin32, target, label);
+        if (identity != null) locateCache.put(identity, contentHash, r);
+    }
 
-    if (r != null && !r.isFound()) {
+    if (r != null && !r.isFound() && firstTemplateDump(identity, contentHash)) {
         dumpTemplateDiagnostics(label, clientShot, r);
     }
 
     return r;
 }
 
+    /** False when this step already holds the miss diagnostics for these pixels (a retry of the same miss). */
+    private boolean firstTemplateDump(String identity, String contentHash) {
+        if (identity == null) return true;
+        if (!java.util.Objects.equals(templateDumpStep, currentStepDir)) {
+            templateDumps.clear();
+            templateDumpStep = currentStepDir;
+        }
+        return templateDumps.add(identity + "|" + contentHash);
+    }
+
 
     // -------------------------
     // Low-level actions
@@ -378,13 +588,16 @@ public void saveStepText(String name, String content) throws Exception {
     // -------------------------
 
     public DeskPilotSession waitForUiStable(long timeoutMs) throws Exception {
+        StabilityOptions opt = runOptions.stability();
         UiStabilityWait.waitForStable(
                 driver,
                 clientRectRobot,
                 timeoutMs,
                 350,
                 0.0015,
-                90);
+                90,
+                opt.ignoreRegions,
+                opt.autoMaskVolatile);
         return this;
     }
 
@@ -406,12 +619,14 @@ public void saveStepText(String name, String content) throws Exception {
             double diffThreshold01) throws Exception {
 
         long end = System.currentTimeMillis() + timeoutMs;
+        AdaptivePoll poll = AdaptivePoll.around(80, driver.millisSinceLastInput());
 
         while (System.currentTimeMillis() < end) {
-            Thread.sleep(80);
+            poll.sleep(end);
+            poll.onIdle();
             BufferedImage now = driver.screenshot(regionRobot);
 
-            double diff = imageDiff01(baseline, now);
+            double diff = PIXEL_CHANGE_DIFF.withEarlyExit(diffThreshold01).ratio(baseline, now);
             if (diff >= diffThreshold01) {
                 System.out.println("Pixel change detected. diff=" + diff);
                 return;
@@ -427,6 +642,18 @@ public void saveStepText(String name, String content) throws Exception {
      */
     public DeskPilotSession waitForTextContains(NormalizedRegion region, String expected, long timeoutMs)
             throws Exception {
+        return waitForTextContains(region, expected, timeoutMs, 0);
+    }
+
+    /**
+     * Like {@link #waitForTextContains(NormalizedRegion, String, long)}, but also accepts OCR text
+     * containing {@code expected} within {@code maxEdits} edits (normalized, see {@link FuzzyMatch}),
+     * so a single misread character does not keep the wait polling until timeout.
+     * {@code maxEdits} may be at most a third of the normalized expected text
+     * ({@link FuzzyMatch#requireMaxEdits}).
+     */
+    public DeskPilotSession waitForTextContains(NormalizedRegion region, String expected, long timeoutMs, int maxEdits)
+            throws Exception {
 
         if (region == null)
             throw new IllegalArgumentException("region is null");
@@ -434,16 +661,34 @@ public void saveStepText(String name, String content) throws Exception {
             throw new IllegalArgumentException("expected text is empty");
 
         String exp = expected.trim().toLowerCase();
+        String expNorm = OcrText.normalizeForMatch(exp);
+        FuzzyMatch.requireMaxEdits(expNorm, maxEdits);
         long end = System.currentTimeMillis() + timeoutMs;
 
         String last = "";
         int polls = 0;
+        int skipped = 0;
+        BufferedImage lastOcrCrop = null;
+        AdaptivePoll poll = AdaptivePoll.around(200, driver.millisSinceLastInput());
 
         while (System.currentTimeMillis() < end) {
             polls++;
 
-            OcrCapture cap = captureForOcr(region);
-            String text = getOcr().readText(cap.preprocessed);
+            // identical pixels give identical OCR: only preprocess + OCR when the crop changed
+            OcrCrop crop = cropForOcr(region);
+            if (FrameDiff.identical(lastOcrCrop, crop.cropped())) {
+                skipped++;
+                metrics.counter(EngineMetrics.OCR_POLLS_SKIPPED).inc();
+                poll.onIdle();
+                poll.sleep(end);
+                continue;
+            }
+
+            OcrCapture cap = preprocessForOcr(crop);
+            String text = ocrReadText(cap.preprocessed);
+            lastOcrCrop = crop.cropped();
+            if (polls > 1 && !text.equals(last)) poll.onChange();
+            else poll.onIdle();
             last = text;
 
             if (Boolean.getBoolean("deskpilot.ocr.dump")) {
@@ -463,13 +708,21 @@ public void saveStepText(String name, String content) throws Exception {
     }
 }
 
+            int distance = -1;
             if (!text.isEmpty() && text.contains(exp)) {
+                distance = 0;
+            } else if (maxEdits > 0 && !expNorm.isEmpty()) {
+                int d = FuzzyMatch.bestDistance(expNorm, OcrText.normalizeForMatch(text));
+                if (d <= maxEdits) distance = d;
+            }
+            if (distance >= 0) {
                 System.out.println(
-                        "Text matched. expectedContains='" + expected + "' actual='" + text + "' polls=" + polls);
+                        "Text matched. expectedContains='" + expected + "' actual='" + text + "' polls=" + polls
+                                + " ocrSkipped=" + skipped + (maxEdits > 0 ? " matchDistance=" + distance : ""));
                 return this;
             }
 
-            sleep(200);
+            poll.sleep(end);
         }
 
         // Save last crop for debugging
@@ -495,6 +748,11 @@ try {
                 base + ".txt",
                 "expectedContains: " + expected + "\n" +
                 "polls: " + polls + "\n" +
+                "ocrSkipped: " + skipped + "\n" +
+                (maxEdits > 0
+                        ? "maxEdits: " + maxEdits + "\n" +
+                          "bestDistance: " + FuzzyMatch.bestDistance(expNorm, OcrText.normalizeForMatch(raw)) + "\n"
+                        : "") +
                 "region: " + region + "\n" +
                 "raw:\n" + raw + "\n\n" +
                 "normalized:\n" + norm + "\n"
@@ -507,8 +765,76 @@ try {
 }
 
 
+        EngineMetrics.timeout(metrics, "waitForText");
         throw new RuntimeException("Timeout waiting for text. expectedContains='" + expected + "', lastOcr='" + last
-                + "', timeoutMs=" + timeoutMs);
+                + "', timeoutMs=" + timeoutMs + ", polls=" + polls + ", ocrSkipped=" + skipped);
+    }
+
+    /**
+     * Wait until the region's OCR text contains any of the given texts and return the outcome
+     * mapped to the one that appeared. One OCR per poll, all candidates matched in a single pass
+     * ({@link MultiPatternMatcher}); when several appear together, the first in map iteration
+     * order wins, so pass a LinkedHashMap to set priority.
+     */
+    public <T> T waitForAnyText(NormalizedRegion region, Map<String, T> outcomes, long timeoutMs) throws Exception {
+        if (region == null)
+            throw new IllegalArgumentException("region is null");
+        if (outcomes == null || outcomes.isEmpty())
+            throw new IllegalArgumentException("outcomes is empty");
+
+        List<String> texts = List.copyOf(outcomes.keySet());
+        MultiPatternMatcher matcher = new MultiPatternMatcher(texts);
+        long end = System.currentTimeMillis() + timeoutMs;
+
+        String last = "";
+        int polls = 0;
+        int skipped = 0;
+        BufferedImage lastOcrCrop = null;
+        AdaptivePoll poll = AdaptivePoll.around(200, driver.millisSinceLastInput());
+
+        while (System.currentTimeMillis() < end) {
+            polls++;
+
+            OcrCrop crop = cropForOcr(region);
+            if (FrameDiff.identical(lastOcrCrop, crop.cropped())) {
+                skipped++;
+                metrics.counter(EngineMetrics.OCR_POLLS_SKIPPED).inc();
+                poll.onIdle();
+                poll.sleep(end);
+                continue;
+            }
+
+            String text = ocrReadText(preprocessForOcr(crop).preprocessed);
+            lastOcrCrop = crop.cropped();
+            if (polls > 1 && !text.equals(last)) poll.onChange();
+            else poll.onIdle();
+            last = text;
+
+            int hit = matcher.firstMatch(text);
+            if (hit >= 0) {
+                String fired = texts.get(hit);
+                System.out.println("Text matched. anyOf=" + texts + " fired='" + fired + "' actual='" + text
+                        + "' polls=" + polls + " ocrSkipped=" + skipped);
+                return outcomes.get(fired);
+            }
+
+            poll.sleep(end);
+        }
+
+        try {
+            saveStepText("ocr-timeout-anyof.txt",
+                    "expectedAnyOf: " + texts + "\n" +
+                    "normalizedPatterns: " + matcher.patterns() + "\n" +
+                    "polls: " + polls + "\n" +
+                    "ocrSkipped: " + skipped + "\n" +
+                    "region: " + region + "\n" +
+                    "raw:\n" + last + "\n\n" +
+                    "normalized:\n" + OcrText.normalizeForMatch(last) + "\n");
+        } catch (Exception ignore) {
+        }
+        EngineMetrics.timeout(metrics, "waitForText");
+        throw new RuntimeException("Timeout waiting for any text. expectedAnyOf=" + texts + ", lastOcr='" + last
+                + "', timeoutMs=" + timeoutMs + ", polls=" + polls + ", ocrSkipped=" + skipped);
     }
 
     public DeskPilotSession waitForTextContainsWin32Bounds(Rectangle boundsWin32, String expected, long timeoutMs) throws Exception {
@@ -522,6 +848,76 @@ try {
 }
 
 
+    /**
+     * Like {@link #waitForTextContains(NormalizedRegion, String, long)}, but every poll OCRs the same
+     * crop with each preset concurrently and passes as soon as any of them contains the text.
+     */
+    public DeskPilotSession waitForTextContains(NormalizedRegion region, String expected, long timeoutMs,
+                                                Set<OcrConfig.Preset> presets) throws Exception {
+        if (region == null)
+            throw new IllegalArgumentException("region is null");
+        if (expected == null || expected.trim().isEmpty())
+            throw new IllegalArgumentException("expected text is empty");
+        if (presets == null || presets.isEmpty())
+            return waitForTextContains(region, expected, timeoutMs);
+
+        String exp = expected.trim().toLowerCase();
+        List<OcrConfig> configs = presets.stream().map(OcrConfig::preset).toList();
+        long end = System.currentTimeMillis() + timeoutMs;
+
+        PresetRace.Outcome last = null;
+        int polls = 0;
+        AdaptivePoll poll = AdaptivePoll.around(200, driver.millisSinceLastInput());
+
+        while (System.currentTimeMillis() < end) {
+            polls++;
+            PresetRace.Outcome o = readTextRace(region, configs, t -> !t.isEmpty() && t.contains(exp));
+            if (last != null && !o.texts().equals(last.texts())) poll.onChange();
+            else poll.onIdle();
+            last = o;
+
+            if (o.matched()) {
+                System.out.println("Text matched. expectedContains='" + expected + "' actual='" + o.text()
+                        + "' preset=" + o.winner().preset + " polls=" + polls + " cancelled=" + o.cancelled());
+                return this;
+            }
+            poll.sleep(end);
+        }
+
+        String texts = last == null ? "{}" : last.texts().toString();
+        try {
+            saveStepText("ocr-timeout-" + safeFile(expected) + ".txt",
+                    "expectedContains: " + expected + "\n" +
+                    "presets: " + presets + "\n" +
+                    "polls: " + polls + "\n" +
+                    "region: " + region + "\n" +
+                    "lastOcrByPreset: " + texts + "\n");
+        } catch (Exception ignore) {
+        }
+        EngineMetrics.timeout(metrics, "waitForText");
+        throw new RuntimeException("Timeout waiting for text. expectedContains='" + expected + "', presets=" + presets
+                + ", lastOcrByPreset=" + texts + ", timeoutMs=" + timeoutMs);
+    }
+
+    /**
+     * One capture of {@code region}, preprocessed and OCR'd once per config in parallel (pooled
+     * engines); returns the first text accepted by {@code accept} and cancels the other reads.
+     * Each read keeps its inputs as ocr_crop_last_/ocr_pre_last_&lt;preset&gt;.png, like single reads.
+     */
+    public PresetRace.Outcome readTextRace(NormalizedRegion region, List<OcrConfig> configs, Predicate<String> accept)
+            throws Exception {
+        if (region == null)
+            throw new IllegalArgumentException("region is null");
+        BufferedImage cropped = cropForOcr(region).cropped();
+        return PresetRace.race(configs,
+                cfg -> {
+                    BufferedImage pre = OcrPipeline.preprocess(cropped, cfg).preprocessed;
+                    saveLastOcrInputs(cfg, cropped, pre);
+                    return ocrReadText(pre, cfg);
+                },
+                accept, PresetRace.sharedExecutor());
+    }
+
     // -------------------------
     // OCR text IO (Region-based)
     // -------------------------
@@ -530,8 +926,18 @@ try {
     if (region == null)
         throw new IllegalArgumentException("region is null");
 
-    OcrCapture cap = captureForOcr(region);
-    String raw = getOcr().readText(cap.preprocessed);
+    String raw;
+    String binarization;
+    if (runOptions.ocrWordIndex()) {
+        OcrCrop crop = cropForOcr(region);
+        OcrWordIndex idx = wordIndex(crop.clientShot(), crop.local());
+        raw = idx.text(crop.local());
+        binarization = "wordIndex(words=" + idx.size() + ", patches=" + idx.patches() + ", config=" + idx.configKey() + ")";
+    } else {
+        OcrCapture cap = captureForOcr(region);
+        raw = ocrReadText(cap.preprocessed);
+        binarization = cap.binarization;
+    }
     String txt = (raw == null) ? "" : raw;
 
     // Always persist the last OCR text alongside last images.
@@ -544,6 +950,7 @@ try {
         saveStepText(
                 "ocr_text_last_" + preset + ".txt",
                 "preset=" + preset + "\n" +
+                "binarize=" + binarization + "\n" +
                 "region=" + region + "\n\n" +
                 "raw:\n" + txt + "\n\n" +
                 "normalized:\n" + norm + "\n"
@@ -558,6 +965,37 @@ try {
 
 
 
+    /**
+     * Word-level OCR of {@code region} with Tesseract confidence; boxes are WIN32 screen
+     * coordinates, ready for {@link #clickWin32(Point)}.
+     */
+    public List<OcrEngine.OcrWord> readWords(NormalizedRegion region) throws Exception {
+        if (region == null)
+            throw new IllegalArgumentException("region is null");
+
+        OcrCrop crop = cropForOcr(region);
+        OcrConfig cfg = ocrConfig;
+        OcrPipeline.Result pre = OcrPipeline.preprocess(crop.cropped(), cfg);
+        List<OcrEngine.OcrWord> words = ocrCache.computeIfAbsent(OcrResultCache.WORDS, pre.preprocessed, cfg.key(),
+                () -> withOcrEngine(cfg, e -> List.copyOf(e.readWords(pre.preprocessed))));
+
+        // preprocessed px -> crop px -> robot screen -> WIN32 screen
+        double sf = pre.scaleFactor > 0 ? pre.scaleFactor : 1.0;
+        int ox = clientRectRobot.x + crop.local().x;
+        int oy = clientRectRobot.y + crop.local().y;
+        List<OcrEngine.OcrWord> out = new java.util.ArrayList<>(words.size());
+        for (OcrEngine.OcrWord w : words) {
+            Point tl = RobotCoords.toWin32Point(new Point(
+                    ox + (int) Math.floor(w.box.x / sf), oy + (int) Math.floor(w.box.y / sf)), clientRectWin32);
+            Point br = RobotCoords.toWin32Point(new Point(
+                    ox + (int) Math.ceil((w.box.x + w.box.width) / sf),
+                    oy + (int) Math.ceil((w.box.y + w.box.height) / sf)), clientRectWin32);
+            out.add(new OcrEngine.OcrWord(w.text,
+                    new Rectangle(tl.x, tl.y, Math.max(1, br.x - tl.x), Math.max(1, br.y - tl.y)), w.confidence));
+        }
+        return out;
+    }
+
     public BigDecimal readNumber(NormalizedRegion region) throws Exception {
         String t = readTextNormalized(region);
         return parseDecimalOrThrow(t, "readNumber");
@@ -577,6 +1015,50 @@ try {
     }
 
    private OcrCapture captureForOcr(NormalizedRegion region) throws Exception {
+    return preprocessForOcr(cropForOcr(region));
+}
+
+    /** Preprocess a crop with the session OcrConfig and keep the latest OCR inputs as artifacts. */
+    private OcrCapture preprocessForOcr(OcrCrop crop) {
+    BufferedImage cropped = crop.cropped();
+
+    var cfg = getOcrConfig();
+    var res = io.deskpilot.engine.ocr.OcrPipeline.preprocess(cropped, cfg);
+
+    // ✅ preset-tagged artifacts (optional but extremely helpful)
+String preset = saveLastOcrInputs(cfg, cropped, res.preprocessed);
+
+// Verbose per-attempt dumps only when enabled
+if (Boolean.getBoolean("deskpilot.ocr.dump")) {
+    try {
+        String base = "ocr_attempt_" + System.currentTimeMillis() + "_" + preset;
+        saveStepPng(base + "_crop.png", cropped);
+        saveStepPng(base + "_pre.png", res.preprocessed);
+    } catch (Exception ignore) {}
+}
+
+    return new OcrCapture(cropped, res.preprocessed, res.scaleFactor, res.binarization,
+            crop.regionWin32(), crop.regionRobot(), crop.local());
+}
+
+    /**
+     * Always keep the *latest* OCR inputs per preset (overwritten each attempt); never throws.
+     * Returns the preset tag used in the file names.
+     */
+    private String saveLastOcrInputs(OcrConfig cfg, BufferedImage cropped, BufferedImage preprocessed) {
+        String preset = (cfg != null && cfg.preset != null) ? cfg.preset.name().toLowerCase() : "default";
+        try {
+            saveStepPng("ocr_crop_last_" + preset + ".png", cropped);
+            saveStepPng("ocr_pre_last_" + preset + ".png", preprocessed);
+        } catch (Exception ignore) {}
+        return preset;
+    }
+
+    private record OcrCrop(BufferedImage clientShot, BufferedImage cropped,
+                           Rectangle regionWin32, Rectangle regionRobot, Rectangle local) {}
+
+    /** Client screenshot cropped to {@code region}, clamped and size-checked (no preprocessing). */
+    private OcrCrop cropForOcr(NormalizedRegion region) throws Exception {
     Rectangle regionWin32 = region.toScreenRect(clientRectWin32);
     Rectangle regionRobot = RobotCoords.toRobotRect(regionWin32);
 
@@ -613,34 +1095,14 @@ try {
         );
     }
 
-    var cfg = getOcrConfig();
-    var res = io.deskpilot.engine.ocr.OcrPipeline.preprocess(cropped, cfg);
-
-    // ✅ preset-tagged artifacts (optional but extremely helpful)
-String preset = (cfg != null && cfg.preset != null) ? cfg.preset.name().toLowerCase() : "default";
-
-// Always keep the *latest* OCR inputs (overwrite each attempt)
-try {
-    saveStepPng("ocr_crop_last_" + preset + ".png", cropped);
-    saveStepPng("ocr_pre_last_" + preset + ".png", res.preprocessed);
-} catch (Exception ignore) {}
-
-// Verbose per-attempt dumps only when enabled
-if (Boolean.getBoolean("deskpilot.ocr.dump")) {
-    try {
-        String base = "ocr_attempt_" + System.currentTimeMillis() + "_" + preset;
-        saveStepPng(base + "_crop.png", cropped);
-        saveStepPng(base + "_pre.png", res.preprocessed);
-    } catch (Exception ignore) {}
-}
-
-    return new OcrCapture(cropped, res.preprocessed, res.scaleFactor, regionWin32, regionRobot, clamped);
+    return new OcrCrop(clientShot, cropped, regionWin32, regionRobot, clamped);
 }
 
     private static final class OcrCapture {
         final BufferedImage cropped;
         final BufferedImage preprocessed;
         final double scaleFactor;
+        final String binarization;
 
         final Rectangle regionWin32;
         final Rectangle regionRobot;
@@ -650,12 +1112,14 @@ if (Boolean.getBoolean("deskpilot.ocr.dump")) {
                 BufferedImage cropped,
                 BufferedImage preprocessed,
                 double scaleFactor,
+                String binarization,
                 Rectangle regionWin32,
                 Rectangle regionRobot,
                 Rectangle localInClientShot) {
             this.cropped = cropped;
             this.preprocessed = preprocessed;
             this.scaleFactor = scaleFactor;
+            this.binarization = binarization;
             this.regionWin32 = regionWin32;
             this.regionRobot = regionRobot;
             this.localInClientShot = localInClientShot;
@@ -770,6 +1234,12 @@ private void saveStepPng(String fileName, BufferedImage img) throws Exception {
     artifacts.savePng(dir, fileName, img);
 }
 
+/** Full-client screenshots in step order; may be delta-encoded (see {@link Artifacts#saveFrame}). */
+private void saveStepFrame(String fileName, BufferedImage img) throws Exception {
+    Path dir = (currentStepDir != null) ? currentStepDir : artifacts.outDir();
+    artifacts.saveFrame(dir, fileName, img);
+}
+
 
   private void dumpTemplateDiagnostics(String label, BufferedImage clientShot, LocatorResult r) {
     if (currentStepDir == null) return;
@@ -818,32 +1288,8 @@ private void saveStepPng(String fileName, BufferedImage img) throws Exception {
 
 
 
-    private static void sleep(long ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException ignored) {
-        }
-    }
-
-    private static double imageDiff01(BufferedImage a, BufferedImage b) {
-        int w = Math.min(a.getWidth(), b.getWidth());
-        int h = Math.min(a.getHeight(), b.getHeight());
-
-        long total = 0;
-        long changed = 0;
-
-        int stride = 4;
-
-        for (int y = 0; y < h; y += stride) {
-            for (int x = 0; x < w; x += stride) {
-                total++;
-                if (a.getRGB(x, y) != b.getRGB(x, y))
-                    changed++;
-            }
-        }
-
-        return total == 0 ? 0 : (changed / (double) total);
-    }
+    /** Region change check: stride-4 grid, exact equality. */
+    private static final FrameDiff PIXEL_CHANGE_DIFF = FrameDiff.exact().withStride(4);
 
     private static String normalizeOcrText(String s) {
         if (s == null)
@@ -934,13 +1380,20 @@ currentStepDir = stepDir;
         && !stepName.equals("startup")
         && !stepName.equals("teardown");
 
+    String stepLabel = stepName;
+    String stepFolder = stepDir.getFileName().toString();
+    long stepStartMs = System.currentTimeMillis();
+    long shotsAtStart = driver.screenshotCount();
+    Exception stepError = null;
+    events.event("step.start").put("step", stepLabel).put("dir", stepFolder).emit();
+    Span stepSpan = Trace.span("step:" + stepLabel, "step");
 
     try {
         // ✅ optional: always capture a "before" screenshot for this step
         if (stepScreenshots) {
             try {
                 BufferedImage img = driver.screenshot(clientRectRobot);
-                saveStepPng("step_before.png", img);
+                saveStepFrame("step_before.png", img);
             } catch (Exception ignore) {
                 // don't fail the step if screenshot fails
             }
@@ -952,18 +1405,29 @@ currentStepDir = stepDir;
         if (stepScreenshots) {
             try {
                 BufferedImage img = driver.screenshot(clientRectRobot);
-                saveStepPng("step_after.png", img);
+                saveStepFrame("step_after.png", img);
             } catch (Exception ignore) {
                 // don't fail the step if screenshot fails
             }
         }
 
     } catch (Exception e) {
+        stepError = e;
         artifacts.saveText(stepDir, "error.txt", String.valueOf(e));
         System.out.println("STEP FAILED: " + stepName + " err=" + e.getMessage());
         throw e;
     } finally {
         currentStepDir = prev;
+        stepSpan.close();
+        RunEvents.Event end = events.event("step.end")
+                .put("step", stepLabel)
+                .put("dir", stepFolder)
+                .put("status", stepError == null ? "ok" : "failed")
+                .put("durationMs", System.currentTimeMillis() - stepStartMs)
+                .put("captures", driver.screenshotCount() - shotsAtStart);
+        if (stepError != null) end.put("error", String.valueOf(stepError));
+        end.flush().emit();
+        artifacts.finishStep(stepDir);
     }
 }
 
@@ -1105,6 +1569,37 @@ public void close() {
     } catch (Exception e) {
         System.err.println("DeskPilotSession.close() failed: " + e.getMessage());
         e.printStackTrace();
+    } finally {
+        events.close();
+        writeTrace();
+        writeMetrics();
+        // async PNG encodes must reach disk before the run is considered finished
+        artifacts.close();
+    }
+}
+
+
+private void writeTrace() {
+    if (tracer == null) return;
+    Trace.uninstall(tracer);
+    tracer.stop(); // close() may run on another thread than attach: stop recording there too
+    try {
+        Path f = artifacts.outDir().resolve("trace.json");
+        tracer.writeTo(f);
+        System.out.println("Trace written: " + f.toAbsolutePath() + " (" + tracer.size() + " spans, open in chrome://tracing or ui.perfetto.dev)");
+    } catch (Exception e) {
+        System.err.println("[WARN] Failed to write trace.json: " + e.getMessage());
+    }
+}
+
+
+private void writeMetrics() {
+    MetricsRegistry.process().mergeFrom(metrics);
+    if (!runOptions.metricsExport()) return;
+    try {
+        metrics.writeTo(artifacts.outDir());
+    } catch (Exception e) {
+        System.err.println("[WARN] Failed to write metrics: " + e.getMessage());
     }
 }
 
@@ -1113,7 +1608,7 @@ public DeskPilotSession restoreAndBringToFront() throws Exception {
     // If you already have bringToFront(), call it here.
     // Add "restore" behavior (SW_RESTORE) if minimized.
     WindowManager.bringToFront(hwnd); // implement using User32.ShowWindow + SetForegroundWindow
-    Thread.sleep(150);
+    Trace.sleep(150);
     return this;
 }
 
@@ -1146,18 +1641,32 @@ public void stabilizeInStep(String reason) throws Exception {
 
     long start = System.currentTimeMillis();
     long deadline = start + opt.timeoutMs;
+    long waitStartNanos = System.nanoTime();
 
     BufferedImage prev = captureClient();
     saveStepPng("stabilize_before.png", prev);
 
+    StabilityMasker masker = new StabilityMasker(opt, ImageDiff.TOLERANT.tolerance());
+    boolean autoMaskLogged = false;
+    AdaptivePoll poll = AdaptivePoll.around(opt.pollMs, driver.millisSinceLastInput());
+
     long stableSince = -1L;
     int iter = 0;
 
     while (System.currentTimeMillis() < deadline) {
-        driver.delay((int) opt.pollMs);
+        poll.sleep(deadline);
 
         BufferedImage cur = captureClient();
-        double diff = ImageDiff.diffRatio(prev, cur);
+        FrameDiff diffEngine = masker.apply(ImageDiff.TOLERANT.withEarlyExit(opt.diffThreshold), prev, cur,
+                System.currentTimeMillis() - start);
+        double diff = diffEngine.ratio(prev, cur);
+
+        if (!autoMaskLogged && !masker.autoMasked().isEmpty()) {
+            autoMaskLogged = true;
+            saveStepText("stabilize_automask.txt",
+                    "reason=" + reason + System.lineSeparator() +
+                    "autoMasked=" + masker.autoMasked() + System.lineSeparator());
+        }
 
         iter++;
         saveStepText(String.format("stabilize_diff_%02d.txt", iter),
@@ -1165,6 +1674,7 @@ public void stabilizeInStep(String reason) throws Exception {
                 "threshold=" + opt.diffThreshold + System.lineSeparator());
 
         if (diff <= opt.diffThreshold) {
+            poll.onIdle();
             if (stableSince < 0) stableSince = System.currentTimeMillis();
             long stableFor = System.currentTimeMillis() - stableSince;
 
@@ -1173,15 +1683,19 @@ public void stabilizeInStep(String reason) throws Exception {
                 saveStepText("stabilize_timing.txt",
                         "reason=" + reason + System.lineSeparator() +
                         "elapsedMs=" + (System.currentTimeMillis() - start) + System.lineSeparator());
+                metrics.histogram(EngineMetrics.STABILITY_WAIT_SECONDS, "result", "stable").recordSince(waitStartNanos);
                 return;
             }
         } else {
+            poll.onChange();
             stableSince = -1L;
         }
 
         prev = cur;
     }
 
+    metrics.histogram(EngineMetrics.STABILITY_WAIT_SECONDS, "result", "timeout").recordSince(waitStartNanos);
+    EngineMetrics.timeout(metrics, "stabilize");
     saveStepPng("stabilize_timeout_last.png", prev);
     throw new RuntimeException("UI did not stabilize within timeoutMs=" + opt.timeoutMs + " (reason=" + reason + ")");
 }
@@ -1223,6 +1737,7 @@ public DeskPilotSession press(String key) throws Exception {
     java.awt.Robot r = keyRobot();
     r.keyPress(vk);
     r.keyRelease(vk);
+    driver.noteInput();
     driver.delay(80);
     return this;
 }
@@ -1235,6 +1750,7 @@ public DeskPilotSession hotkey(String chord) throws Exception {
     // press modifiers first, then main key, release reverse
     for (int i = 0; i < vks.length; i++) r.keyPress(vks[i]);
     for (int i = vks.length - 1; i >= 0; i--) r.keyRelease(vks[i]);
+    driver.noteInput();
 
     driver.delay(100);
     return this;
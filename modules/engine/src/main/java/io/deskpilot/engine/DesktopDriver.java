@@ -1,5 +1,10 @@
 package io.deskpilot.engine;
 
+import io.deskpilot.engine.metrics.EngineMetrics;
+import io.deskpilot.engine.metrics.MetricsRegistry;
+import io.deskpilot.engine.trace.Span;
+import io.deskpilot.engine.trace.Trace;
+
 import java.awt.*;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
@@ -12,6 +17,14 @@ public class DesktopDriver {
 
     private final Robot robot;
 
+    // epoch millis of the last synthesized input (click/key/paste); 0 = none yet
+    private volatile long lastInputAtMs;
+
+    private final java.util.concurrent.atomic.AtomicLong screenshots = new java.util.concurrent.atomic.AtomicLong();
+
+    // null until a session attaches its registry
+    private volatile MetricsRegistry metrics;
+
     public DesktopDriver() {
         try {
             this.robot = new Robot();
@@ -29,11 +42,51 @@ public class DesktopDriver {
     public BufferedImage screenshotFullScreen() {
         Dimension d = Toolkit.getDefaultToolkit().getScreenSize();
         Rectangle r = new Rectangle(0, 0, d.width, d.height);
-        return robot.createScreenCapture(r);
+        return capture(r);
     }
 
     public BufferedImage screenshot(Rectangle region) {
-        return robot.createScreenCapture(region);
+        return capture(region);
+    }
+
+    private BufferedImage capture(Rectangle region) {
+        screenshots.incrementAndGet();
+        long t0 = System.nanoTime();
+        try (Span s = Trace.span("capture", "capture")) {
+            s.arg("w", region.width).arg("h", region.height);
+            return robot.createScreenCapture(region);
+        } finally {
+            MetricsRegistry m = metrics;
+            if (m != null) {
+                m.counter(EngineMetrics.CAPTURES).inc();
+                m.histogram(EngineMetrics.CAPTURE_SECONDS).recordSince(t0);
+            }
+        }
+    }
+
+    /** Screen captures taken through this driver so far. */
+    public long screenshotCount() {
+        return screenshots.get();
+    }
+
+    /** Feeds capture counts/latency into {@code metrics} (null stops recording). */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    // -------------------------
+    // INPUT TIMING
+    // -------------------------
+
+    /** Record that an input was just sent (used by wait loops to poll fast right after input). */
+    public void noteInput() {
+        lastInputAtMs = System.currentTimeMillis();
+    }
+
+    /** Millis since the last input sent through this driver, or -1 if none yet. */
+    public long millisSinceLastInput() {
+        long t = lastInputAtMs;
+        return t == 0 ? -1 : System.currentTimeMillis() - t;
     }
 
     // -------------------------
@@ -50,6 +103,7 @@ public class DesktopDriver {
         moveMouse(robotPoint);
         robot.mousePress(InputEvent.BUTTON1_DOWN_MASK);
         robot.mouseRelease(InputEvent.BUTTON1_DOWN_MASK);
+        noteInput();
     }
 
     /** Click a WIN32 screen point (converted to Robot internally) */
@@ -121,15 +175,18 @@ public void selectAll() {
 
     public void keyPress(int keyCode) {
         robot.keyPress(keyCode);
+        noteInput();
     }
 
     public void keyRelease(int keyCode) {
         robot.keyRelease(keyCode);
+        noteInput();
     }
 
     public void keyTap(int keyCode) {
         robot.keyPress(keyCode);
         robot.keyRelease(keyCode);
+        noteInput();
     }
 
     public void keyCombo(int modifierKey, int key) {
@@ -137,6 +194,7 @@ public void selectAll() {
         robot.keyPress(key);
         robot.keyRelease(key);
         robot.keyRelease(modifierKey);
+        noteInput();
     }
 
     // -------------------------
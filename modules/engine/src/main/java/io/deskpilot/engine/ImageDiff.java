@@ -1,36 +1,19 @@
 package io.deskpilot.engine;
 
+import io.deskpilot.engine.image.FrameDiff;
+
 import java.awt.image.BufferedImage;
 
 public final class ImageDiff {
     private ImageDiff() {}
 
-    /** Returns [0..1] ratio of pixels differing beyond tolerance. */
+    /** Full scan, per-channel tolerance 10. */
+    static final FrameDiff TOLERANT = FrameDiff.exact().withTolerance(10);
+
+    /** Returns [0..1] ratio of pixels differing beyond tolerance; null or zero-area frames return 1.0. */
     public static double diffRatio(BufferedImage a, BufferedImage b) {
         if (a == null || b == null) return 1.0;
-        int w = Math.min(a.getWidth(), b.getWidth());
-        int h = Math.min(a.getHeight(), b.getHeight());
-        if (w == 0 || h == 0) return 1.0;
-
-        final int tol = 10;
-        long diff = 0;
-        long total = (long) w * (long) h;
-
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                int pa = a.getRGB(x, y);
-                int pb = b.getRGB(x, y);
-
-                int ra = (pa >> 16) & 0xFF, ga = (pa >> 8) & 0xFF, ba = pa & 0xFF;
-                int rb = (pb >> 16) & 0xFF, gb = (pb >> 8) & 0xFF, bb = pb & 0xFF;
-
-                if (Math.abs(ra - rb) > tol ||
-                    Math.abs(ga - gb) > tol ||
-                    Math.abs(ba - bb) > tol) {
-                    diff++;
-                }
-            }
-        }
-        return (double) diff / (double) total;
+        if (Math.min(a.getWidth(), b.getWidth()) == 0 || Math.min(a.getHeight(), b.getHeight()) == 0) return 1.0;
+        return TOLERANT.ratio(a, b);
     }
 }
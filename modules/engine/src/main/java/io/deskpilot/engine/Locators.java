@@ -6,6 +6,8 @@ import io.deskpilot.engine.locators.RegionLocator;
 import io.deskpilot.engine.locators.TemplateLocator;
 import io.deskpilot.engine.targets.TemplateTarget;
 import io.deskpilot.engine.locators.OcrContainsLocator;
+import io.deskpilot.engine.locators.OcrPhraseLocator;
+import io.deskpilot.engine.ocr.OcrConfig;
 import java.util.Objects;
 
 /**
@@ -53,6 +55,37 @@ public static Locator ocrContains(String label, NormalizedRegion region, String
     return new OcrContainsLocator(label, region, expectedContains);
 }
 
+/** OCR-contains that races several presets per read; the first preset whose text matches wins. */
+public static Locator ocrContains(String label, NormalizedRegion region, String expectedContains,
+                                  OcrConfig.Preset first, OcrConfig.Preset... more) {
+    if (label == null || label.isBlank()) throw new IllegalArgumentException("label blank");
+    Objects.requireNonNull(region, "region is null");
+    Objects.requireNonNull(expectedContains, "expectedContains is null");
+    Objects.requireNonNull(first, "preset is null");
+    return new OcrContainsLocator(label, region, expectedContains, java.util.EnumSet.of(first, more));
+}
+
+/** OCR-contains that tolerates up to {@code maxEdits} misread characters ("sav3d" still matches "saved"). */
+public static Locator ocrContainsFuzzy(String label, NormalizedRegion region, String expectedContains, int maxEdits) {
+    if (label == null || label.isBlank()) throw new IllegalArgumentException("label blank");
+    Objects.requireNonNull(region, "region is null");
+    Objects.requireNonNull(expectedContains, "expectedContains is null");
+    return new OcrContainsLocator(label, region, expectedContains, java.util.Set.of(), maxEdits);
+}
+
+/** Click target grounded in text: centre of the words in {@code region} that spell {@code phrase}. */
+public static Locator ocrPhrase(String label, NormalizedRegion region, String phrase) {
+    return ocrPhrase(label, region, phrase, OcrPhraseLocator.DEFAULT_MIN_CONFIDENCE);
+}
+
+/** Like {@link #ocrPhrase(String, NormalizedRegion, String)}, ignoring words below {@code minConfidence} (0..100). */
+public static Locator ocrPhrase(String label, NormalizedRegion region, String phrase, float minConfidence) {
+    if (label == null || label.isBlank()) throw new IllegalArgumentException("label blank");
+    Objects.requireNonNull(region, "region is null");
+    Objects.requireNonNull(phrase, "phrase is null");
+    return new OcrPhraseLocator(label, region, phrase, minConfidence);
+}
+
 public static Locator ocrContains(String label, Locator regionLocator, String expectedContains) {
     Objects.requireNonNull(regionLocator, "regionLocator is null");
     if (regionLocator.kind().name().equals("REGION") == false) {
@@ -59,6 +59,21 @@ public class NormalizedRegion {
         return clampToClient(screenRect, clientRectOnScreen, true);
     }
 
+    /**
+     * Convert this normalized region -> pixel rectangle inside an image of the given size
+     * (e.g. a client screenshot), clipped to the image.
+     */
+    public Rectangle toImageRect(int width, int height) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Invalid image size: " + width + "x" + height);
+
+        int x = (int) Math.round(width * clamp01(xPct));
+        int y = (int) Math.round(height * clamp01(yPct));
+        int w = Math.max(1, (int) Math.round(width * clamp01(wPct)));
+        int h = Math.max(1, (int) Math.round(height * clamp01(hPct)));
+
+        return new Rectangle(x, y, w, h).intersection(new Rectangle(0, 0, width, height));
+    }
+
     /**
      * Create normalized region from a chosen screen pixel rect inside the client rect.
      * We clamp the requested rect into the client bounds so Record Mode can be sloppy
@@ -1,5 +1,10 @@
 package io.deskpilot.engine;
 
+import io.deskpilot.engine.ocr.TessdataCache;
+import io.deskpilot.engine.ocr.TesseractProfile;
+import io.deskpilot.engine.trace.Span;
+import io.deskpilot.engine.trace.Trace;
+
 import net.sourceforge.tess4j.ITessAPI;
 import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
@@ -14,13 +19,30 @@ import java.nio.file.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * One Tesseract instance. NOT thread-safe: share engines through {@link OcrEnginePool}.
+ *
+ * The instance holds only settings (datapath, profile variables); tess4j initializes a native
+ * TessBaseAPI and loads the model inside every {@link #readText}/{@link #readWords} call and
+ * disposes it afterwards.
+ */
 public class OcrEngine {
 
+    // resolved once per process (persistent TessdataCache); every engine reads the same files
+    private static Path sharedTessdataDir;
+
     private final Tesseract tesseract;
+    private final TesseractProfile profile;
 
     public OcrEngine() {
+        this(TesseractProfile.DEFAULT);
+    }
+
+    /** Engine configured once with {@code profile}; pooled per profile by {@link OcrEnginePool}. */
+    public OcrEngine(TesseractProfile profile) {
+        this.profile = java.util.Objects.requireNonNull(profile, "profile is null");
         try {
-            Path tessdataDir = extractTessdataDir(); // .../<temp>/tessdata
+            Path tessdataDir = tessdataDir(); // .../<temp>/tessdata
             Path eng = tessdataDir.resolve("eng.traineddata");
 
             if (!Files.exists(eng) || Files.size(eng) < 1024 * 1024) {
@@ -31,22 +53,45 @@ public class OcrEngine {
 
             // IMPORTANT: datapath must be the folder that directly contains eng.traineddata
             tesseract.setDatapath(tessdataDir.toAbsolutePath().toString());
-            tesseract.setLanguage("eng");
-
-            // ✅ Key fix for UI buttons/labels
-            tesseract.setPageSegMode(ITessAPI.TessPageSegMode.PSM_SINGLE_BLOCK);
+            apply(tesseract, profile);
 
             System.out.println("OCR tessdataDir=" + tessdataDir.toAbsolutePath());
             System.out.println("OCR eng.traineddata=" + eng.toAbsolutePath());
+            System.out.println("OCR profile=" + profile.key());
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize OCR. Ensure resources/tessdata/eng.traineddata exists.", e);
         }
     }
 
+    /** Wraps an already configured instance (tests, custom setups). */
+    OcrEngine(Tesseract tesseract) {
+        this(tesseract, TesseractProfile.DEFAULT);
+    }
+
+    OcrEngine(Tesseract tesseract, TesseractProfile profile) {
+        this.tesseract = java.util.Objects.requireNonNull(tesseract, "tesseract is null");
+        this.profile = java.util.Objects.requireNonNull(profile, "profile is null");
+    }
+
+    public TesseractProfile profile() {
+        return profile;
+    }
+
+    private static void apply(Tesseract t, TesseractProfile p) {
+        t.setLanguage(p.language());
+        // PSM_SINGLE_BLOCK (the default profile) is the key fix for UI buttons/labels
+        t.setPageSegMode(p.psm());
+        t.setOcrEngineMode(p.oem());
+        if (p.whitelist() != null) t.setVariable("tessedit_char_whitelist", p.whitelist());
+        if (p.blacklist() != null) t.setVariable("tessedit_char_blacklist", p.blacklist());
+        if (p.userDpi() > 0) t.setVariable("user_defined_dpi", Integer.toString(p.userDpi()));
+    }
+
     /** Simple OCR: read all text from an image. */
     public String readText(BufferedImage img) {
-        try {
+        try (Span span = Trace.span("ocr.readText", "ocr")) {
+            span.arg("w", img.getWidth()).arg("h", img.getHeight());
             String s = tesseract.doOCR(img);
             return (s == null) ? "" : s.trim().toLowerCase();
         } catch (TesseractException e) {
@@ -59,7 +104,8 @@ public class OcrEngine {
      * Used by OCR-click targets.
      */
     public List<OcrWord> readWords(BufferedImage img) {
-        try {
+        try (Span span = Trace.span("ocr.readWords", "ocr")) {
+            span.arg("w", img.getWidth()).arg("h", img.getHeight());
             List<Word> words = tesseract.getWords(img, ITessAPI.TessPageIteratorLevel.RIL_WORD);
             List<OcrWord> out = new ArrayList<>();
             if (words == null) return out;
@@ -71,9 +117,10 @@ public class OcrEngine {
                 Rectangle box = w.getBoundingBox();
 
                 if (text.isEmpty() || box == null) continue;
-                out.add(new OcrWord(text, box));
+                out.add(new OcrWord(text, box, w.getConfidence()));
             }
 
+            span.arg("words", out.size());
             return out;
         } catch (Exception e) {
             throw new RuntimeException("OCR readWords failed: " + e.getMessage(), e);
@@ -84,11 +131,40 @@ public class OcrEngine {
     public static final class OcrWord {
         public final String text;
         public final Rectangle box;
+        public final float confidence; // Tesseract word confidence 0..100
 
+        /** Word without a known confidence (treated as fully confident). */
         public OcrWord(String text, Rectangle box) {
+            this(text, box, 100f);
+        }
+
+        public OcrWord(String text, Rectangle box, float confidence) {
             this.text = text;
             this.box = box;
+            this.confidence = confidence;
+        }
+
+        @Override
+        public String toString() {
+            return text + "@" + Math.round(confidence);
+        }
+    }
+
+    private static synchronized Path tessdataDir() throws IOException {
+        if (sharedTessdataDir == null || !Files.exists(sharedTessdataDir.resolve("eng.traineddata"))) {
+            long t0 = System.nanoTime();
+            try {
+                TessdataCache.Installed in = TessdataCache.fromSystemProperties().ensureResource("eng.traineddata");
+                sharedTessdataDir = in.datapath();
+                System.out.println("OCR tessdata " + (in.hit() ? "cache hit" : "installed") + " in " + in.millis() + " ms");
+            } catch (Exception e) {
+                // unwritable cache root etc.: fall back to a private copy
+                System.err.println("[WARN] tessdata cache unavailable (" + e.getMessage() + "), extracting to a temp dir");
+                sharedTessdataDir = extractTessdataDir();
+                System.out.println("OCR tessdata extracted in " + (System.nanoTime() - t0) / 1_000_000L + " ms");
+            }
         }
+        return sharedTessdataDir;
     }
 
     private static Path extractTessdataDir() throws IOException {
@@ -0,0 +1,238 @@
+package io.deskpilot.engine;
+
+import io.deskpilot.engine.metrics.EngineMetrics;
+import io.deskpilot.engine.metrics.MetricsRegistry;
+import io.deskpilot.engine.ocr.TesseractProfile;
+import io.deskpilot.engine.trace.Span;
+import io.deskpilot.engine.trace.Trace;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of {@link OcrEngine}s (Tesseract instances are not thread-safe).
+ *
+ * The pool is a concurrency bound, not a model cache: tess4j's {@code Tesseract.doOCR}/{@code getWords}
+ * create, init and dispose a native TessBaseAPI (including the traineddata load) on every call, so a
+ * pooled engine holds no loaded model between calls. What the pool does provide:
+ * - at most {@code size} recognitions run at once, each with its own native handle and model
+ *   memory; more parallel OCR would only thrash the CPU and memory.
+ * - {@link #shared()} is process-wide, so parallel sessions in one JVM share that bound and reuse
+ *   configured engine objects. Size: -Ddeskpilot.ocr.poolSize (default: half the cores, 1..4).
+ * - Engines are created lazily, up to {@code size}; a borrower blocks when all are leased.
+ * - Engines are keyed by {@link TesseractProfile}: a borrower gets an idle engine already
+ *   configured for its profile. If none exists and the pool is full, an idle engine of another
+ *   profile is dropped and replaced (counted in {@link #evicted()}). Settings are never toggled
+ *   on a live engine.
+ * - {@code try (var lease = pool.borrow(cfg.profile, timeoutMs, metrics)) { lease.engine().readText(img); }}
+ *
+ * Wait time per borrow goes to {@code deskpilot_ocr_pool_wait_seconds}; if its p90 is not near
+ * zero, the pool is too small for the workload.
+ */
+public final class OcrEnginePool {
+
+    private static volatile OcrEnginePool shared;
+
+    private final int size;
+    private final Function<TesseractProfile, ? extends OcrEngine> factory;
+    private final Semaphore permits;
+    // idle engines per profile, most recently used first; guarded by 'this'
+    private final Map<TesseractProfile, ArrayDeque<OcrEngine>> idle = new LinkedHashMap<>();
+    private int live; // engines created and not evicted; guarded by 'this'
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong contended = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    public OcrEnginePool(int size) {
+        this(size, (Function<TesseractProfile, OcrEngine>) OcrEngine::new);
+    }
+
+    /** Profile-agnostic factory (tests, custom setups): every profile gets the same kind of engine. */
+    public OcrEnginePool(int size, Supplier<? extends OcrEngine> factory) {
+        this(size, requireFactory(factory));
+    }
+
+    public OcrEnginePool(int size, Function<TesseractProfile, ? extends OcrEngine> factory) {
+        if (size < 1) throw new IllegalArgumentException("size must be >= 1");
+        this.size = size;
+        this.factory = java.util.Objects.requireNonNull(factory, "factory is null");
+        this.permits = new Semaphore(size, true);
+    }
+
+    private static Function<TesseractProfile, OcrEngine> requireFactory(Supplier<? extends OcrEngine> factory) {
+        java.util.Objects.requireNonNull(factory, "factory is null");
+        return p -> factory.get();
+    }
+
+    /** Process-wide pool, created on first use. */
+    public static OcrEnginePool shared() {
+        OcrEnginePool p = shared;
+        if (p == null) {
+            synchronized (OcrEnginePool.class) {
+                p = shared;
+                if (p == null) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    int def = Math.max(1, Math.min(4, cores / 2));
+                    shared = p = new OcrEnginePool(Integer.getInteger("deskpilot.ocr.poolSize", def));
+                }
+            }
+        }
+        return p;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Engines created so far, including evicted ones (never more than {@link #size()} alive). */
+    public long created() {
+        return created.get();
+    }
+
+    /** Idle engines dropped to make room for an engine with another profile. */
+    public long evicted() {
+        return evicted.get();
+    }
+
+    public long borrows() {
+        return borrows.get();
+    }
+
+    /** Borrows that had to wait for another thread to return an engine. */
+    public long contended() {
+        return contended.get();
+    }
+
+    public long totalWaitNanos() {
+        return waitNanos.get();
+    }
+
+    /** Leases currently out. */
+    public int inUse() {
+        return size - permits.availablePermits();
+    }
+
+    /** Leases an engine with the {@link TesseractProfile#DEFAULT default} profile. */
+    public Lease borrow(long timeoutMs, MetricsRegistry metrics) throws InterruptedException {
+        return borrow(TesseractProfile.DEFAULT, timeoutMs, metrics);
+    }
+
+    /**
+     * Leases an engine configured for {@code profile}, waiting up to {@code timeoutMs} for one to be
+     * returned. Records wait time into {@code metrics} when non-null.
+     */
+    public Lease borrow(TesseractProfile profile, long timeoutMs, MetricsRegistry metrics) throws InterruptedException {
+        if (profile == null) throw new IllegalArgumentException("profile is null");
+        if (timeoutMs < 0) throw new IllegalArgumentException("timeoutMs must be >= 0");
+
+        long t0 = System.nanoTime();
+        boolean waited = false;
+        if (!permits.tryAcquire()) {
+            waited = true;
+            try (Span s = Trace.span("ocr.pool.wait", "ocr")) {
+                s.arg("poolSize", size).arg("timeoutMs", timeoutMs);
+                if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    if (metrics != null) EngineMetrics.timeout(metrics, "ocrBorrow");
+                    throw new RuntimeException("Timed out waiting for an OCR engine. poolSize=" + size
+                            + " timeoutMs=" + timeoutMs);
+                }
+            }
+        }
+        long waitedNanos = System.nanoTime() - t0;
+
+        OcrEngine engine;
+        try {
+            engine = takeOrCreate(profile);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        borrows.incrementAndGet();
+        waitNanos.addAndGet(waitedNanos);
+        if (waited) contended.incrementAndGet();
+        if (metrics != null) {
+            metrics.counter(EngineMetrics.OCR_POOL_BORROWS, "waited", Boolean.toString(waited)).inc();
+            metrics.histogram(EngineMetrics.OCR_POOL_WAIT_SECONDS).recordNanos(waitedNanos);
+        }
+        return new Lease(this, engine, profile);
+    }
+
+    /** Caller holds a permit, so while live == size at least one engine is idle. */
+    private OcrEngine takeOrCreate(TesseractProfile profile) {
+        synchronized (this) {
+            ArrayDeque<OcrEngine> same = idle.get(profile);
+            if (same != null && !same.isEmpty()) return same.pollFirst();
+
+            if (live >= size) evictOneIdle();
+            live++;
+        }
+        try {
+            OcrEngine e = factory.apply(profile);
+            created.incrementAndGet();
+            return e;
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                live--;
+            }
+            throw ex;
+        }
+    }
+
+    /** Drops the least recently used idle engine (oldest entry of the first non-empty profile). */
+    private void evictOneIdle() {
+        for (ArrayDeque<OcrEngine> q : idle.values()) {
+            if (q.pollLast() != null) {
+                live--;
+                evicted.incrementAndGet();
+                return;
+            }
+        }
+        throw new IllegalStateException("OCR pool full with no idle engine (size=" + size + ")");
+    }
+
+    private void giveBack(OcrEngine engine, TesseractProfile profile) {
+        synchronized (this) {
+            // most recently used first; re-insert the profile to keep map order LRU
+            ArrayDeque<OcrEngine> q = idle.remove(profile);
+            if (q == null) q = new ArrayDeque<>();
+            q.offerFirst(engine);
+            idle.put(profile, q);
+        }
+        permits.release();
+    }
+
+    /** A borrowed engine; close it to return the engine. Use from one thread at a time. */
+    public static final class Lease implements AutoCloseable {
+        private final OcrEnginePool pool;
+        private final OcrEngine engine;
+        private final TesseractProfile profile;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        private Lease(OcrEnginePool pool, OcrEngine engine, TesseractProfile profile) {
+            this.pool = pool;
+            this.engine = engine;
+            this.profile = profile;
+        }
+
+        public OcrEngine engine() {
+            if (returned.get()) throw new IllegalStateException("lease already returned");
+            return engine;
+        }
+
+        @Override
+        public void close() {
+            if (returned.compareAndSet(false, true)) pool.giveBack(engine, profile);
+        }
+    }
+}
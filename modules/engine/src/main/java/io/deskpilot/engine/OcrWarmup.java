@@ -0,0 +1,94 @@
+package io.deskpilot.engine;
+
+import io.deskpilot.engine.ocr.OcrConfig;
+import io.deskpilot.engine.ocr.OcrPipeline;
+import io.deskpilot.engine.ocr.TesseractProfile;
+import io.deskpilot.engine.trace.Trace;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background OCR warmup started at attach (opt-in: -Ddeskpilot.ocr.warmup=true).
+ *
+ * - Borrows one pooled engine and runs a throwaway recognition, so the once-per-process costs
+ *   (tessdata install, native library load, JIT of the preprocessing and OCR paths) are paid
+ *   while the user is still picking the window instead of inside the first step's timeout.
+ * - Not warmed: tess4j initializes a TessBaseAPI and loads the model inside every recognition
+ *   and disposes it afterwards (see {@link OcrEngine}), so every real call still pays that.
+ * - The first real OCR call {@link #await waits} only for whatever is still running.
+ * - Failures are logged and remembered, never thrown: the real OCR call reports its own error.
+ */
+final class OcrWarmup {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final long startNanos = System.nanoTime();
+    private volatile long finishedNanos;
+    private volatile Throwable error;
+
+    private OcrWarmup() {}
+
+    /** Starts warming one engine of {@code profile} on a daemon thread. */
+    static OcrWarmup start(OcrEnginePool pool, TesseractProfile profile, long borrowTimeoutMs) {
+        if (pool == null) throw new IllegalArgumentException("pool is null");
+        if (profile == null) throw new IllegalArgumentException("profile is null");
+
+        OcrWarmup w = new OcrWarmup();
+        Thread t = new Thread(Trace.wrap(() -> w.run(pool, profile, borrowTimeoutMs)), "deskpilot-ocr-warmup");
+        t.setDaemon(true);
+        t.start();
+        return w;
+    }
+
+    private void run(OcrEnginePool pool, TesseractProfile profile, long borrowTimeoutMs) {
+        try (OcrEnginePool.Lease lease = pool.borrow(profile, borrowTimeoutMs, null)) {
+            BufferedImage img = OcrPipeline.preprocess(sample(), OcrConfig.defaults().withProfile(profile)).preprocessed;
+            lease.engine().readText(img);
+        } catch (Throwable e) {
+            error = e;
+            System.err.println("[WARN] OCR warmup failed (first OCR call will initialize instead): " + e.getMessage());
+        } finally {
+            finishedNanos = System.nanoTime();
+            done.countDown();
+        }
+    }
+
+    /** Small dark-on-light crop: exercises preprocessing and a real recognition pass. */
+    private static BufferedImage sample() {
+        BufferedImage img = new BufferedImage(96, 24, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, img.getWidth(), img.getHeight());
+        g.setColor(Color.BLACK);
+        g.drawString("OK 123", 8, 17);
+        g.dispose();
+        return img;
+    }
+
+    /**
+     * Blocks until the warmup finished or {@code timeoutMs} elapsed.
+     * @return nanoseconds actually spent waiting
+     */
+    long await(long timeoutMs) throws InterruptedException {
+        long t0 = System.nanoTime();
+        done.await(timeoutMs, TimeUnit.MILLISECONDS);
+        return System.nanoTime() - t0;
+    }
+
+    boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /** Warmup duration, or -1 while still running. */
+    long durationNanos() {
+        return isDone() ? finishedNanos - startNanos : -1;
+    }
+
+    /** Failure of the warmup run, null if it succeeded or is still running. */
+    Throwable error() {
+        return error;
+    }
+}
@@ -0,0 +1,231 @@
+package io.deskpilot.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Run folder housekeeping: zip a finished run, prune old runs of the same runName.
+ *
+ * Layout: runs/<runName>/<runId>/  (zipped: runs/<runName>/<runId>.zip)
+ *
+ * A live run holds runs/<runName>/<runId>.lock ({@link #lock}); a finished run contains
+ * {@value #COMPLETE_MARKER} ({@link #markComplete}). Pruning only ever touches finished,
+ * unlocked runs, so runs still in progress in another JVM are left alone.
+ */
+public final class RunArchive {
+
+    /** Written into a run folder once the run has finished (successfully or not). */
+    public static final String COMPLETE_MARKER = "run.complete";
+
+    /** Comment stamped on zips written by {@link #zipAndDelete}; other zips are never pruned. */
+    static final String ZIP_COMMENT = "deskpilot-run";
+
+    private static final String LOCK_EXTENSION = ".lock";
+
+    private RunArchive() {}
+
+    /** Exclusive lock on a live run (OS file lock, so it is released if the JVM dies). */
+    public static final class RunLock implements AutoCloseable {
+        private final Path file;
+        private final FileChannel channel;
+        private final FileLock lock;
+
+        private RunLock(Path file, FileChannel channel, FileLock lock) {
+            this.file = file;
+            this.channel = channel;
+            this.lock = lock;
+        }
+
+        /** Releases the lock and removes the lock file. Idempotent. */
+        @Override
+        public void close() throws IOException {
+            if (!channel.isOpen()) return;
+            try {
+                lock.release();
+            } finally {
+                channel.close();
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /** Locks {@code runDir} for this process; throws if another process or session already holds it. */
+    public static RunLock lock(Path runDir) throws IOException {
+        if (runDir == null) throw new IllegalArgumentException("runDir is null");
+        Path file = lockFile(runDir);
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock l = ch.tryLock();
+            if (l != null) return new RunLock(file, ch, l);
+        } catch (OverlappingFileLockException ignore) {
+            // held by another session of this JVM
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+        ch.close();
+        throw new IOException("Run is locked by another session: " + runDir);
+    }
+
+    /** Marks {@code runDir} as finished, which makes it eligible for {@link #pruneOldRuns}. */
+    public static void markComplete(Path runDir) throws IOException {
+        Files.writeString(runDir.resolve(COMPLETE_MARKER), OffsetDateTime.now() + System.lineSeparator());
+    }
+
+    /**
+     * Streams {@code runDir} into {@code <runId>.zip} next to it and deletes the folder.
+     * Already-compressed images are stored at deflate level 0. Returns the zip path.
+     */
+    public static Path zipAndDelete(Path runDir) throws IOException {
+        if (runDir == null || !Files.isDirectory(runDir)) throw new IllegalArgumentException("Not a run folder: " + runDir);
+
+        Path zip = runDir.resolveSibling(runDir.getFileName() + ".zip");
+        Path tmp = runDir.resolveSibling(runDir.getFileName() + ".zip.tmp");
+
+        List<Path> files;
+        try (var walk = Files.walk(runDir)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+
+        try (OutputStream os = Files.newOutputStream(tmp);
+             ZipOutputStream z = new ZipOutputStream(os)) {
+            z.setComment(ZIP_COMMENT);
+            for (Path f : files) {
+                String name = runDir.relativize(f).toString().replace('\\', '/');
+                z.setLevel(isCompressed(name) ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
+                ZipEntry e = new ZipEntry(name);
+                e.setTime(Files.getLastModifiedTime(f).toMillis());
+                z.putNextEntry(e);
+                Files.copy(f, z);
+                z.closeEntry();
+            }
+        }
+        Files.move(tmp, zip, StandardCopyOption.REPLACE_EXISTING);
+
+        deleteRecursively(runDir);
+        return zip;
+    }
+
+    /**
+     * Keeps the {@code keep} most recent runs (folders or zips) under {@code runNameDir}, deleting older ones.
+     * Only finished runs are counted or deleted: folders with {@value #COMPLETE_MARKER} and zips written by
+     * {@link #zipAndDelete}, in both cases not currently {@link #lock locked}. {@code current} is never
+     * deleted. Returns the deleted paths. {@code keep <= 0} keeps everything.
+     */
+    public static List<Path> pruneOldRuns(Path runNameDir, int keep, Path current) throws IOException {
+        List<Path> deleted = new ArrayList<>();
+        if (keep <= 0 || runNameDir == null || !Files.isDirectory(runNameDir)) return deleted;
+
+        Path cur = current == null ? null : current.toAbsolutePath().normalize();
+        List<Path> runs;
+        try (var list = Files.list(runNameDir)) {
+            runs = list.filter(p -> Files.isDirectory(p) || p.getFileName().toString().endsWith(".zip"))
+                    .filter(p -> cur == null || !p.toAbsolutePath().normalize().equals(cur))
+                    .filter(RunArchive::isFinishedRun)
+                    .sorted(Comparator.comparingLong(RunArchive::modifiedMillis).reversed())
+                    .toList();
+        }
+
+        int keepOthers = (cur == null) ? keep : keep - 1;
+        for (int i = Math.max(0, keepOthers); i < runs.size(); i++) {
+            Path p = runs.get(i);
+            deleteRecursively(p);
+            Files.deleteIfExists(lockFile(p)); // stale: isFinishedRun checked nobody holds it
+            deleted.add(p);
+        }
+        return deleted;
+    }
+
+    /**
+     * A run folder always has 01-startup (see RunOptions.prepareRunFolder) and gets the completion
+     * marker when it finishes; zips must carry our comment. Locked runs are still in use.
+     */
+    private static boolean isFinishedRun(Path p) {
+        if (Files.isDirectory(p)) {
+            if (!Files.isDirectory(p.resolve("01-startup")) || !Files.exists(p.resolve(COMPLETE_MARKER))) return false;
+        } else if (!isOurZip(p)) {
+            return false;
+        }
+        return !isLocked(p);
+    }
+
+    private static boolean isOurZip(Path p) {
+        try (ZipFile z = new ZipFile(p.toFile())) {
+            return ZIP_COMMENT.equals(z.getComment());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isLocked(Path run) {
+        Path file = lockFile(run);
+        if (!Files.exists(file)) return false;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            FileLock l = ch.tryLock();
+            if (l == null) return true;
+            l.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            return true;
+        } catch (IOException e) {
+            return true; // cannot tell: leave it alone
+        }
+    }
+
+    /** runs/<runName>/<runId>.lock for both the folder and the zip of a run. */
+    private static Path lockFile(Path run) {
+        String n = run.getFileName().toString();
+        if (n.endsWith(".zip")) n = n.substring(0, n.length() - ".zip".length());
+        return run.toAbsolutePath().normalize().resolveSibling(n + LOCK_EXTENSION);
+    }
+
+    private static boolean isCompressed(String name) {
+        String n = name.toLowerCase(Locale.ROOT);
+        return n.endsWith(".png") || n.endsWith(ArtifactCodec.RAW_EXTENSION) || n.endsWith(DeltaFrames.EXTENSION);
+    }
+
+    private static long modifiedMillis(Path p) {
+        try {
+            return Files.getLastModifiedTime(p).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) throw exc;
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package io.deskpilot.engine;
+
+import io.deskpilot.engine.util.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Structured run timeline: one JSON object per line in runs/<runName>/<runId>/events.jsonl.
+ *
+ * Every line has "ts" (epoch millis), "seq" and "type"; the rest depends on the type:
+ *   step.start / step.end, action.attempt / action.end, artifact, ...
+ *
+ * Lines go through a buffered appender and hit the disk at every step end, every
+ * {@code flushEvery} events and on close. Like all evidence, failures are logged once and
+ * never thrown: the appender just goes quiet.
+ */
+public final class RunEvents implements AutoCloseable {
+
+    /** Discards everything (events disabled). */
+    public static final RunEvents NOOP = new RunEvents();
+
+    private final Writer out;
+    private final int flushEvery;
+    private long seq;
+    private int pending;
+    private boolean broken;
+
+    private RunEvents() {
+        this.out = null;
+        this.flushEvery = 0;
+        this.broken = true;
+    }
+
+    public RunEvents(Path file, int flushEvery) throws IOException {
+        if (file == null) throw new IllegalArgumentException("file is null");
+        if (flushEvery < 1) throw new IllegalArgumentException("flushEvery must be >= 1");
+        this.out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16);
+        this.flushEvery = flushEvery;
+    }
+
+    public boolean enabled() {
+        return this != NOOP;
+    }
+
+    /** Starts an event; add fields with {@code put} and finish with {@link Event#emit()}. */
+    public Event event(String type) {
+        if (type == null || type.isBlank()) throw new IllegalArgumentException("type is blank");
+        return new Event(this, type);
+    }
+
+    /** Pushes buffered lines to the file. */
+    public synchronized void flush() {
+        if (broken) return;
+        try {
+            out.flush();
+            pending = 0;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (out == null) return;
+        flush();
+        try {
+            out.close();
+        } catch (IOException ignore) {
+        }
+        broken = true;
+    }
+
+    private synchronized void append(StringBuilder fields, String type, boolean flushNow) {
+        if (broken) return;
+        try {
+            out.write("{\"ts\":");
+            out.write(Long.toString(System.currentTimeMillis()));
+            out.write(",\"seq\":");
+            out.write(Long.toString(++seq));
+            out.write(",\"type\":");
+            out.write(Json.quote(type));
+            out.write(fields.toString());
+            out.write("}\n");
+            if (flushNow || ++pending >= flushEvery) {
+                out.flush();
+                pending = 0;
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e) {
+        broken = true;
+        System.err.println("[WARN] events.jsonl disabled after write failure: " + e.getMessage());
+    }
+
+    /** One line under construction. Not thread-safe; emit it from the thread that built it. */
+    public static final class Event {
+        private final RunEvents owner;
+        private final String type;
+        private final StringBuilder fields;
+        private boolean flush;
+
+        private Event(RunEvents owner, String type) {
+            this.owner = owner;
+            this.type = type;
+            this.fields = owner.broken ? null : new StringBuilder(128);
+        }
+
+        public Event put(String key, String value) {
+            if (fields != null) fields.append(',').append(Json.quote(key)).append(':').append(Json.quote(value));
+            return this;
+        }
+
+        public Event put(String key, long value) {
+            if (fields != null) fields.append(',').append(Json.quote(key)).append(':').append(value);
+            return this;
+        }
+
+        public Event put(String key, double value) {
+            if (fields == null) return this;
+            fields.append(',').append(Json.quote(key)).append(':');
+            if (Double.isFinite(value)) fields.append(value);
+            else fields.append("null");
+            return this;
+        }
+
+        public Event put(String key, boolean value) {
+            if (fields != null) fields.append(',').append(Json.quote(key)).append(':').append(value);
+            return this;
+        }
+
+        /** Write this event to disk immediately (plus everything buffered before it). */
+        public Event flush() {
+            this.flush = true;
+            return this;
+        }
+
+        public void emit() {
+            if (fields != null) owner.append(fields, type, flush);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package io.deskpilot.engine;
 
+import io.deskpilot.engine.util.Json;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -28,6 +32,27 @@ public final class RunOptions {
     private final boolean stepScreenshots;
     private final boolean bringToFrontOnAttach;
     private final long attachTimeoutMs;
+    private final int locateCacheSize;
+    private final int ocrCacheSize;
+    private final boolean ocrWordIndex;
+    private final boolean ocrWarmup;
+    private final List<NormalizedRegion> stabilityIgnoreRegions;
+    private final boolean stabilityAutoMask;
+    private final boolean asyncArtifacts;
+    private final int artifactQueueCapacity;
+    private final int artifactWriterThreads;
+    private final ArtifactWriter.Overflow artifactOverflow;
+    private final boolean dedupArtifacts;
+    private final ArtifactCodec artifactCodec;
+    private final int artifactKeyframeInterval;
+    private final long maxRunBytes;
+    private final long maxStepBytes;
+    private final boolean zipRunOnClose;
+    private final int keepRuns;
+    private final boolean runEvents;
+    private final boolean trace;
+    private final int traceMaxSpans;
+    private final boolean metricsExport;
 
     private RunOptions(Builder b) {
         this.runsDir = Objects.requireNonNull(b.runsDir, "runsDir is null");
@@ -43,6 +68,44 @@ public final class RunOptions {
         if (this.attachTimeoutMs <= 0) {
             throw new IllegalArgumentException("attachTimeoutMs must be > 0");
         }
+
+        this.locateCacheSize = b.locateCacheSize;
+        if (this.locateCacheSize < 0) {
+            throw new IllegalArgumentException("locateCacheSize must be >= 0");
+        }
+        this.ocrCacheSize = b.ocrCacheSize;
+        this.ocrWordIndex = b.ocrWordIndex;
+        this.ocrWarmup = b.ocrWarmup;
+        if (this.ocrCacheSize < 0) {
+            throw new IllegalArgumentException("ocrCacheSize must be >= 0");
+        }
+
+        this.stabilityIgnoreRegions = List.copyOf(b.stabilityIgnoreRegions);
+        this.stabilityAutoMask = b.stabilityAutoMask;
+
+        this.asyncArtifacts = b.asyncArtifacts;
+        this.artifactQueueCapacity = b.artifactQueueCapacity;
+        this.artifactWriterThreads = b.artifactWriterThreads;
+        this.artifactOverflow = Objects.requireNonNull(b.artifactOverflow, "artifactOverflow is null");
+        if (this.artifactQueueCapacity <= 0) throw new IllegalArgumentException("artifactQueueCapacity must be > 0");
+        if (this.artifactWriterThreads <= 0) throw new IllegalArgumentException("artifactWriterThreads must be > 0");
+        this.dedupArtifacts = b.dedupArtifacts;
+        this.artifactCodec = Objects.requireNonNull(b.artifactCodec, "artifactCodec is null");
+        this.artifactKeyframeInterval = b.artifactKeyframeInterval;
+        if (this.artifactKeyframeInterval < 0) throw new IllegalArgumentException("artifactKeyframeInterval must be >= 0");
+
+        this.maxRunBytes = b.maxRunBytes;
+        this.maxStepBytes = b.maxStepBytes;
+        this.zipRunOnClose = b.zipRunOnClose;
+        this.keepRuns = b.keepRuns;
+        if (this.maxRunBytes < 0) throw new IllegalArgumentException("maxRunBytes must be >= 0");
+        if (this.maxStepBytes < 0) throw new IllegalArgumentException("maxStepBytes must be >= 0");
+        if (this.keepRuns < 0) throw new IllegalArgumentException("keepRuns must be >= 0");
+        this.runEvents = b.runEvents;
+        this.trace = b.trace;
+        this.traceMaxSpans = b.traceMaxSpans;
+        if (this.traceMaxSpans < 1) throw new IllegalArgumentException("traceMaxSpans must be >= 1");
+        this.metricsExport = b.metricsExport;
     }
 
     /* -------------------- accessors -------------------- */
@@ -78,6 +141,98 @@ public final class RunOptions {
         return attachTimeoutMs;
     }
 
+    /** Max memoized locate results per session (0 = disabled). */
+    public int locateCacheSize() {
+        return locateCacheSize;
+    }
+
+    /** Max memoized OCR results per session, keyed by preprocessed image hash (0 = disabled). */
+    public int ocrCacheSize() {
+        return ocrCacheSize;
+    }
+
+    /** Answer OCR region reads from word-level OCR of the regions read so far, redone per region when its pixels change. */
+    public boolean ocrWordIndex() {
+        return ocrWordIndex;
+    }
+
+    /** Load tessdata and the native OCR library on a background thread during attach instead of inside the first OCR step. */
+    public boolean ocrWarmup() {
+        return ocrWarmup;
+    }
+
+    /** Encode PNG artifacts on background threads instead of the test thread. */
+    public boolean asyncArtifacts() {
+        return asyncArtifacts;
+    }
+
+    public int artifactQueueCapacity() {
+        return artifactQueueCapacity;
+    }
+
+    public int artifactWriterThreads() {
+        return artifactWriterThreads;
+    }
+
+    /** What to do when the async artifact queue is full. */
+    public ArtifactWriter.Overflow artifactOverflow() {
+        return artifactOverflow;
+    }
+
+    /** Store PNG artifacts once per distinct content under blobs/, with per-step manifests. */
+    public boolean dedupArtifacts() {
+        return dedupArtifacts;
+    }
+
+    /** On-disk image format for artifacts (PNG level or raw frame dump). */
+    public ArtifactCodec artifactCodec() {
+        return artifactCodec;
+    }
+
+    /** Step screenshots: one keyframe per N frames, dirty-tile deltas in between (0 = off). */
+    public int artifactKeyframeInterval() {
+        return artifactKeyframeInterval;
+    }
+
+    /** Byte cap for the whole run folder (0 = unlimited); see {@link ArtifactBudget}. */
+    public long maxRunBytes() {
+        return maxRunBytes;
+    }
+
+    /** Byte cap per step folder (0 = unlimited). */
+    public long maxStepBytes() {
+        return maxStepBytes;
+    }
+
+    /** Zip runs/<runName>/<runId>/ into <runId>.zip when the session closes. */
+    public boolean zipRunOnClose() {
+        return zipRunOnClose;
+    }
+
+    /** Runs kept per runName, including the current one (0 = keep all); unfinished or locked runs are never pruned. */
+    public int keepRuns() {
+        return keepRuns;
+    }
+
+    /** Append structured step/action/artifact events to runs/.../events.jsonl (opt-in: -Ddeskpilot.events=true). */
+    public boolean runEvents() {
+        return runEvents;
+    }
+
+    /** Record engine spans and write runs/.../trace.json (Chrome trace format) on close. */
+    public boolean trace() {
+        return trace;
+    }
+
+    public int traceMaxSpans() {
+        return traceMaxSpans;
+    }
+
+    /** Write runs/.../metrics.prom (Prometheus text) and metrics.json on close (opt-in: -Ddeskpilot.metrics=true). */
+    public boolean metricsExport() {
+        return metricsExport;
+    }
+
     public StabilityOptions stability() {
         StabilityOptions d = StabilityOptions.defaults();
         return new StabilityOptions(
@@ -86,7 +241,9 @@ public final class RunOptions {
                 d.pollMs,
                 d.stableForMs,
                 d.timeoutMs,
-                d.diffThreshold
+                d.diffThreshold,
+                this.stabilityIgnoreRegions,
+                this.stabilityAutoMask
         );
     }
 
@@ -105,6 +262,30 @@ public final class RunOptions {
         private boolean bringToFrontOnAttach = true;
         private long attachTimeoutMs =
                 Long.getLong("deskpilot.attachTimeoutMs", 30_000L);
+        private int locateCacheSize =
+                Integer.getInteger("deskpilot.locateCache.size", 64);
+        private int ocrCacheSize =
+                Integer.getInteger("deskpilot.ocrCache.size", 64);
+        private boolean ocrWordIndex = Boolean.getBoolean("deskpilot.ocr.wordIndex");
+        private boolean ocrWarmup = Boolean.getBoolean("deskpilot.ocr.warmup");
+        private final List<NormalizedRegion> stabilityIgnoreRegions = new ArrayList<>();
+        private boolean stabilityAutoMask = Boolean.getBoolean("deskpilot.stability.autoMask");
+        private boolean asyncArtifacts = Boolean.getBoolean("deskpilot.artifacts.async");
+        private int artifactQueueCapacity = Integer.getInteger("deskpilot.artifacts.queueCapacity", 32);
+        private int artifactWriterThreads = Integer.getInteger("deskpilot.artifacts.writerThreads", 2);
+        private ArtifactWriter.Overflow artifactOverflow = ArtifactWriter.Overflow.valueOf(
+                System.getProperty("deskpilot.artifacts.overflow", "BLOCK").trim().toUpperCase(java.util.Locale.ROOT));
+        private boolean dedupArtifacts = Boolean.getBoolean("deskpilot.artifacts.dedup");
+        private ArtifactCodec artifactCodec = ArtifactCodec.parse(System.getProperty("deskpilot.artifacts.codec"));
+        private int artifactKeyframeInterval = Integer.getInteger("deskpilot.artifacts.keyframeInterval", 0);
+        private long maxRunBytes = Long.getLong("deskpilot.artifacts.maxRunBytes", 0L);
+        private long maxStepBytes = Long.getLong("deskpilot.artifacts.maxStepBytes", 0L);
+        private boolean zipRunOnClose = Boolean.getBoolean("deskpilot.artifacts.zip");
+        private int keepRuns = Integer.getInteger("deskpilot.runs.keep", 0);
+        private boolean runEvents = Boolean.getBoolean("deskpilot.events");
+        private boolean trace = Boolean.getBoolean("deskpilot.trace");
+        private int traceMaxSpans = Integer.getInteger("deskpilot.trace.maxSpans", 1_000_000);
+        private boolean metricsExport = Boolean.getBoolean("deskpilot.metrics");
 
         private Builder() {}
 
@@ -140,6 +321,117 @@ public final class RunOptions {
             return this;
         }
 
+        /** Memoize locate results by content hash of the searched pixels (0 disables). */
+        public Builder locateCacheSize(int entries) {
+            this.locateCacheSize = entries;
+            return this;
+        }
+
+        /** Memoize OCR output by hash of the preprocessed image + OcrConfig (0 disables). */
+        public Builder ocrCacheSize(int entries) {
+            this.ocrCacheSize = entries;
+            return this;
+        }
+
+        /** Answer region reads from a word index over the regions read so far, re-read only where pixels change (off by default). */
+        public Builder ocrWordIndex(boolean enabled) {
+            this.ocrWordIndex = enabled;
+            return this;
+        }
+
+        /** Run one throwaway OCR in the background while attaching, paying process-wide OCR setup early (off by default). */
+        public Builder ocrWarmup(boolean enabled) {
+            this.ocrWarmup = enabled;
+            return this;
+        }
+
+        /** Regions ignored by stability waits (clock in the status bar, blinking caret...). */
+        public Builder stabilityIgnore(NormalizedRegion... regions) {
+            Objects.requireNonNull(regions, "regions is null");
+            for (NormalizedRegion r : regions) {
+                this.stabilityIgnoreRegions.add(Objects.requireNonNull(r, "region is null"));
+            }
+            return this;
+        }
+
+        /** Auto-detect and ignore small regions that never stop changing during a stability wait. */
+        public Builder stabilityAutoMask(boolean enabled) {
+            this.stabilityAutoMask = enabled;
+            return this;
+        }
+
+        /** Encode PNG artifacts on background threads (flushed on session close). */
+        public Builder asyncArtifacts(boolean enabled) {
+            this.asyncArtifacts = enabled;
+            return this;
+        }
+
+        /** Bounded queue size and encoder thread count for async artifacts. */
+        public Builder artifactWriter(int queueCapacity, int threads) {
+            this.artifactQueueCapacity = queueCapacity;
+            this.artifactWriterThreads = threads;
+            return this;
+        }
+
+        /** BLOCK the test thread or DROP the new image when the async queue is full. */
+        public Builder artifactOverflow(ArtifactWriter.Overflow overflow) {
+            this.artifactOverflow = Objects.requireNonNull(overflow, "overflow is null");
+            return this;
+        }
+
+        /** Content-addressed PNG artifacts: runs/<run>/blobs/ plus a manifest.txt per step. */
+        public Builder dedupArtifacts(boolean enabled) {
+            this.dedupArtifacts = enabled;
+            return this;
+        }
+
+        /** e.g. {@code ArtifactCodec.png(1)} for fast PNGs, {@code ArtifactCodec.raw()} for lazy conversion. */
+        public Builder artifactCodec(ArtifactCodec codec) {
+            this.artifactCodec = Objects.requireNonNull(codec, "codec is null");
+            return this;
+        }
+
+        /** Delta-encode step screenshots with a keyframe every {@code n} frames (0 = full images). */
+        public Builder artifactKeyframeInterval(int n) {
+            this.artifactKeyframeInterval = n;
+            return this;
+        }
+
+        /** Per-run and per-step byte budgets (0 = unlimited); routine OCR dumps are evicted first. */
+        public Builder artifactBudget(long maxRunBytes, long maxStepBytes) {
+            this.maxRunBytes = maxRunBytes;
+            this.maxStepBytes = maxStepBytes;
+            return this;
+        }
+
+        public Builder zipRunOnClose(boolean enabled) {
+            this.zipRunOnClose = enabled;
+            return this;
+        }
+
+        /** Keep the newest {@code n} runs per runName (including this one); 0 keeps all. */
+        public Builder keepRuns(int n) {
+            this.keepRuns = n;
+            return this;
+        }
+
+        /** Write runs/.../events.jsonl (off by default). */
+        public Builder runEvents(boolean enabled) {
+            this.runEvents = enabled;
+            return this;
+        }
+
+        public Builder trace(boolean enabled) {
+            this.trace = enabled;
+            return this;
+        }
+
+        /** Write runs/.../metrics.prom and metrics.json on close (off by default). */
+        public Builder metricsExport(boolean enabled) {
+            this.metricsExport = enabled;
+            return this;
+        }
+
         public RunOptions build() {
             return new RunOptions(this);
         }
@@ -160,15 +452,25 @@ public final class RunOptions {
         Path runFolder = opts.runDir();
         Files.createDirectories(runFolder);
 
+        if (opts.keepRuns > 0) {
+            try {
+                for (Path old : RunArchive.pruneOldRuns(runFolder.getParent(), opts.keepRuns, runFolder)) {
+                    System.out.println("Pruned old run: " + old.toAbsolutePath());
+                }
+            } catch (Exception e) {
+                System.err.println("[WARN] Run retention failed: " + e.getMessage());
+            }
+        }
+
         // PRD: reserve startup folder
         Path startup = runFolder.resolve("01-startup");
         Files.createDirectories(startup);
 
         String json = "{\n" +
-                "  \"runName\": " + quote(opts.runName) + ",\n" +
-                "  \"runId\": " + quote(opts.runId) + ",\n" +
-                "  \"runsDir\": " + quote(opts.runsDir.toAbsolutePath().toString()) + ",\n" +
-                "  \"createdAt\": " + quote(OffsetDateTime.now().toString()) + "\n" +
+                "  \"runName\": " + Json.quote(opts.runName) + ",\n" +
+                "  \"runId\": " + Json.quote(opts.runId) + ",\n" +
+                "  \"runsDir\": " + Json.quote(opts.runsDir.toAbsolutePath().toString()) + ",\n" +
+                "  \"createdAt\": " + Json.quote(OffsetDateTime.now().toString()) + "\n" +
                 "}\n";
 
         Files.writeString(startup.resolve("metadata.json"), json);
@@ -194,9 +496,4 @@ public final class RunOptions {
     private static String safeName(String s) {
         return s.replaceAll("[^a-zA-Z0-9._/-]+", "_");
     }
-
-    private static String quote(String s) {
-        if (s == null) return "null";
-        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
-    }
 }
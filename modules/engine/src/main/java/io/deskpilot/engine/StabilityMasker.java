@@ -0,0 +1,79 @@
+package io.deskpilot.engine;
+
+import io.deskpilot.engine.image.DiffMask;
+import io.deskpilot.engine.image.FrameDiff;
+import io.deskpilot.engine.image.VolatileRegionDetector;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared masking logic for stability waits (stabilizeInStep, waitForUiStable).
+ *
+ * - Static ignore regions come from {@link StabilityOptions#ignoreRegions}.
+ * - With auto-masking on, tiles that kept changing for a while are added to the mask once,
+ *   after {@code autoAfterMs}; before that the wait behaves exactly like an unmasked one.
+ * - Masks are rebuilt only when the frame size changes.
+ */
+final class StabilityMasker {
+
+    private static final int TILE = 16;
+    private static final int MIN_CHANGES = 3;
+    private static final double MAX_AUTO_AREA = 0.05;
+
+    private final List<NormalizedRegion> ignoreRegions;
+    private final VolatileRegionDetector detector;
+    private final long autoAfterMs;
+
+    private List<Rectangle> autoMasked = List.of();
+    private boolean autoDecided;
+
+    private DiffMask mask;
+
+    StabilityMasker(StabilityOptions opt, int tolerance) {
+        this(opt.ignoreRegions, opt.autoMaskVolatile, tolerance, Math.max(1500, opt.stableForMs * 3));
+    }
+
+    StabilityMasker(List<NormalizedRegion> ignoreRegions, boolean autoMaskVolatile, int tolerance, long autoAfterMs) {
+        this.ignoreRegions = (ignoreRegions == null) ? List.of() : ignoreRegions;
+        this.detector = autoMaskVolatile ? new VolatileRegionDetector(TILE, tolerance) : null;
+        this.autoAfterMs = autoAfterMs;
+    }
+
+    boolean active() {
+        return !ignoreRegions.isEmpty() || detector != null;
+    }
+
+    /** Observe the frame pair and return {@code base} configured with the current mask. */
+    FrameDiff apply(FrameDiff base, BufferedImage prev, BufferedImage cur, long elapsedMs) {
+        if (!active()) return base;
+
+        int w = Math.min(prev.getWidth(), cur.getWidth());
+        int h = Math.min(prev.getHeight(), cur.getHeight());
+
+        if (detector != null && !autoDecided) {
+            detector.observe(prev, cur);
+            if (elapsedMs >= autoAfterMs) {
+                autoMasked = detector.volatileRegions(MIN_CHANGES, MAX_AUTO_AREA);
+                autoDecided = true;
+                mask = null;
+            }
+        }
+
+        if (mask == null || mask.width() != w || mask.height() != h) {
+            List<Rectangle> rects = new ArrayList<>();
+            for (NormalizedRegion r : ignoreRegions) rects.add(r.toImageRect(w, h));
+            rects.addAll(autoMasked);
+            mask = rects.isEmpty() ? null : DiffMask.of(w, h, rects);
+        }
+
+        return base.withMask(mask);
+    }
+
+    /** Tiles added by auto-detection (empty until decided, or when nothing qualified). */
+    List<Rectangle> autoMasked() {
+        return autoMasked;
+    }
+}
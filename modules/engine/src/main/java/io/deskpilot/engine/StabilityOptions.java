@@ -1,5 +1,7 @@
 package io.deskpilot.engine;
 
+import java.util.List;
+
 public final class StabilityOptions {
     public final boolean enabled;
     public final boolean bringToFront;
@@ -8,6 +10,12 @@ public final class StabilityOptions {
     public final long timeoutMs;
     public final double diffThreshold;
 
+    /** Client-relative regions never compared (status-bar clock, caret, ads...). Never null. */
+    public final List<NormalizedRegion> ignoreRegions;
+
+    /** Also ignore small tiles that keep changing for the whole wait (opt-in: spinners look the same). */
+    public final boolean autoMaskVolatile;
+
     public StabilityOptions(
             boolean enabled,
             boolean bringToFront,
@@ -15,6 +23,19 @@ public final class StabilityOptions {
             long stableForMs,
             long timeoutMs,
             double diffThreshold
+    ) {
+        this(enabled, bringToFront, pollMs, stableForMs, timeoutMs, diffThreshold, List.of(), false);
+    }
+
+    public StabilityOptions(
+            boolean enabled,
+            boolean bringToFront,
+            long pollMs,
+            long stableForMs,
+            long timeoutMs,
+            double diffThreshold,
+            List<NormalizedRegion> ignoreRegions,
+            boolean autoMaskVolatile
     ) {
         this.enabled = enabled;
         this.bringToFront = bringToFront;
@@ -22,6 +43,8 @@ public final class StabilityOptions {
         this.stableForMs = stableForMs;
         this.timeoutMs = timeoutMs;
         this.diffThreshold = diffThreshold;
+        this.ignoreRegions = (ignoreRegions == null) ? List.of() : List.copyOf(ignoreRegions);
+        this.autoMaskVolatile = autoMaskVolatile;
     }
 
     public static StabilityOptions defaults() {
@@ -34,4 +57,14 @@ public final class StabilityOptions {
                 0.002
         );
     }
+
+    public StabilityOptions withIgnoreRegions(List<NormalizedRegion> regions) {
+        return new StabilityOptions(enabled, bringToFront, pollMs, stableForMs, timeoutMs, diffThreshold,
+                regions, autoMaskVolatile);
+    }
+
+    public StabilityOptions withAutoMaskVolatile(boolean enabled) {
+        return new StabilityOptions(this.enabled, bringToFront, pollMs, stableForMs, timeoutMs, diffThreshold,
+                ignoreRegions, enabled);
+    }
 }
@@ -1,7 +1,11 @@
 package io.deskpilot.engine;
 
+import io.deskpilot.engine.image.FrameDiff;
+import io.deskpilot.engine.runtime.AdaptivePoll;
+
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.util.List;
 
 public final class UiStabilityWait {
 
@@ -17,7 +21,7 @@ public final class UiStabilityWait {
      * @param timeoutMs total time to wait
      * @param stableMs how long it must remain stable continuously
      * @param diffThreshold01 max allowed diff between frames (0..1)
-     * @param pollMs polling interval
+     * @param pollMs nominal polling interval (adaptive: see {@link AdaptivePoll#around})
      */
     public static void waitForStable(DesktopDriver driver,
                                      Rectangle clientRectRobot,
@@ -25,20 +29,45 @@ public final class UiStabilityWait {
                                      long stableMs,
                                      double diffThreshold01,
                                      long pollMs) throws Exception {
+        waitForStable(driver, clientRectRobot, timeoutMs, stableMs, diffThreshold01, pollMs, List.of(), false);
+    }
+
+    /**
+     * Same as {@link #waitForStable(DesktopDriver, Rectangle, long, long, double, long)}, but pixels inside
+     * {@code ignoreRegions} (client-relative) are never compared, and with {@code autoMaskVolatile}
+     * small tiles that keep changing (clock, caret) are masked once detected.
+     */
+    public static void waitForStable(DesktopDriver driver,
+                                     Rectangle clientRectRobot,
+                                     long timeoutMs,
+                                     long stableMs,
+                                     double diffThreshold01,
+                                     long pollMs,
+                                     List<NormalizedRegion> ignoreRegions,
+                                     boolean autoMaskVolatile) throws Exception {
 
-        long end = System.currentTimeMillis() + timeoutMs;
+        long start = System.currentTimeMillis();
+        long end = start + timeoutMs;
+
+        StabilityMasker masker = new StabilityMasker(
+                ignoreRegions, autoMaskVolatile, GLOBAL.tolerance(), Math.max(1500, stableMs * 3));
+
+        // pollMs is the nominal interval: faster right after input / on change, slower while idle
+        AdaptivePoll poll = AdaptivePoll.around(pollMs, driver.millisSinceLastInput());
 
         BufferedImage prev = driver.screenshot(clientRectRobot);
 
         long stableStart = -1;
 
         while (System.currentTimeMillis() < end) {
-            Thread.sleep(pollMs);
+            poll.sleep(end);
 
             BufferedImage now = driver.screenshot(clientRectRobot);
-            double diff = imageDiff01(prev, now);
+            double diff = masker.apply(GLOBAL.withEarlyExit(diffThreshold01), prev, now,
+                    System.currentTimeMillis() - start).ratio(prev, now);
 
             if (diff <= diffThreshold01) {
+                poll.onIdle();
                 if (stableStart < 0) stableStart = System.currentTimeMillis();
 
                 long stableFor = System.currentTimeMillis() - stableStart;
@@ -48,6 +77,7 @@ public final class UiStabilityWait {
                 }
             } else {
                 // UI changed -> reset stability timer
+                poll.onChange();
                 stableStart = -1;
             }
 
@@ -59,24 +89,11 @@ public final class UiStabilityWait {
 
     /**
      * Lightweight diff metric: samples pixels on a stride grid.
+     * Higher stride = faster. This is a global stability check, not precision comparison.
      */
-    static double imageDiff01(BufferedImage a, BufferedImage b) {
-        int w = Math.min(a.getWidth(), b.getWidth());
-        int h = Math.min(a.getHeight(), b.getHeight());
-
-        long total = 0;
-        long changed = 0;
-
-        // Higher stride = faster. This is a global stability check, not precision comparison.
-        int stride = 8;
+    static final FrameDiff GLOBAL = FrameDiff.exact().withStride(8);
 
-        for (int y = 0; y < h; y += stride) {
-            for (int x = 0; x < w; x += stride) {
-                total++;
-                if (a.getRGB(x, y) != b.getRGB(x, y)) changed++;
-            }
-        }
-
-        return total == 0 ? 0 : (changed / (double) total);
+    static double imageDiff01(BufferedImage a, BufferedImage b) {
+        return GLOBAL.ratio(a, b);
     }
 }
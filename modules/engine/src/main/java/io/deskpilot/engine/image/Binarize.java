@@ -0,0 +1,136 @@
+package io.deskpilot.engine.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * Data-driven binarization of TYPE_BYTE_GRAY images, in place and in linear time.
+ *
+ * - Otsu: one global threshold from the 256-bin histogram (maximizes between-class variance).
+ *   Good when text and background are two clean tones.
+ * - Sauvola: per-pixel threshold {@code mean * (1 + k * (stddev / 128 - 1))} over a square window,
+ *   using integral images of sum and sum of squares. Handles gradients and uneven backgrounds.
+ *
+ * Output convention matches the fixed threshold: background/bright -> 255, ink -> 0.
+ */
+public final class Binarize {
+
+    private Binarize() {}
+
+    /** Otsu's threshold plus its separability (between-class / total variance, 0..1). */
+    public record Otsu(int threshold, double separability) {}
+
+    public static Otsu otsu(BufferedImage gray) {
+        byte[] px = pixels(gray);
+        long[] hist = new long[256];
+        for (byte b : px) hist[b & 0xFF]++;
+
+        long n = px.length;
+        double sumAll = 0;
+        double sqAll = 0;
+        for (int v = 0; v < 256; v++) {
+            sumAll += (double) v * hist[v];
+            sqAll += (double) v * v * hist[v];
+        }
+        double mean = sumAll / n;
+        double total = sqAll / n - mean * mean;
+
+        long w0 = 0;
+        double sum0 = 0;
+        double best = -1;
+        int bestT = 0;
+        for (int t = 0; t < 256; t++) {
+            w0 += hist[t];
+            if (w0 == 0) continue;
+            long w1 = n - w0;
+            if (w1 == 0) break;
+            sum0 += (double) t * hist[t];
+            double m0 = sum0 / w0;
+            double m1 = (sumAll - sum0) / w1;
+            double between = (double) w0 * w1 * (m0 - m1) * (m0 - m1) / ((double) n * n);
+            if (between > best) {
+                best = between;
+                bestT = t;
+            }
+        }
+        // class 0 is "<= bestT"; callers binarize with ">= threshold is white"
+        double sep = total <= 0 ? 0 : Math.min(1.0, best / total);
+        return new Otsu(Math.min(255, bestT + 1), sep);
+    }
+
+    /** Applies a global threshold: {@code v >= t -> 255}, else 0. */
+    public static void threshold(BufferedImage gray, int t) {
+        if (t < 0 || t > 255) throw new IllegalArgumentException("threshold must be 0..255");
+        byte[] px = pixels(gray);
+        for (int i = 0; i < px.length; i++) {
+            px[i] = (px[i] & 0xFF) >= t ? (byte) 255 : 0;
+        }
+    }
+
+    /**
+     * Sauvola local threshold. {@code window} is the side of the square neighbourhood (odd, >= 3),
+     * {@code k} the usual 0.2..0.5 sensitivity (higher = less ink).
+     */
+    public static void sauvola(BufferedImage gray, int window, double k) {
+        if (window < 3) throw new IllegalArgumentException("window must be >= 3");
+        if (k <= 0 || k >= 1) throw new IllegalArgumentException("k must be in (0, 1)");
+
+        byte[] px = pixels(gray);
+        int w = gray.getWidth();
+        int h = gray.getHeight();
+        int stride = w + 1;
+
+        long[] sum = new long[stride * (h + 1)];
+        long[] sq = new long[stride * (h + 1)];
+        for (int y = 0; y < h; y++) {
+            long rowSum = 0;
+            long rowSq = 0;
+            int o = y * w;
+            int up = y * stride;
+            int cur = (y + 1) * stride;
+            for (int x = 0; x < w; x++) {
+                int v = px[o + x] & 0xFF;
+                rowSum += v;
+                rowSq += (long) v * v;
+                sum[cur + x + 1] = sum[up + x + 1] + rowSum;
+                sq[cur + x + 1] = sq[up + x + 1] + rowSq;
+            }
+        }
+
+        int r = window / 2;
+        for (int y = 0; y < h; y++) {
+            int y0 = Math.max(0, y - r);
+            int y1 = Math.min(h, y + r + 1);
+            int o = y * w;
+            for (int x = 0; x < w; x++) {
+                int x0 = Math.max(0, x - r);
+                int x1 = Math.min(w, x + r + 1);
+                long cnt = (long) (x1 - x0) * (y1 - y0);
+                long s = sum[y1 * stride + x1] - sum[y0 * stride + x1] - sum[y1 * stride + x0] + sum[y0 * stride + x0];
+                long q = sq[y1 * stride + x1] - sq[y0 * stride + x1] - sq[y1 * stride + x0] + sq[y0 * stride + x0];
+                double mean = (double) s / cnt;
+                double var = Math.max(0, (double) q / cnt - mean * mean);
+                double t = mean * (1 + k * (Math.sqrt(var) / 128.0 - 1));
+                px[o + x] = (px[o + x] & 0xFF) > t ? (byte) 255 : 0;
+            }
+        }
+    }
+
+    /** Flips a binarized image if most pixels are black, so text ends up dark on light. */
+    public static boolean normalizePolarity(BufferedImage gray) {
+        byte[] px = pixels(gray);
+        int black = 0;
+        for (byte b : px) if (b == 0) black++;
+        if (black * 2 <= px.length) return false;
+        for (int i = 0; i < px.length; i++) px[i] = (byte) ~px[i];
+        return true;
+    }
+
+    private static byte[] pixels(BufferedImage gray) {
+        if (gray == null) throw new IllegalArgumentException("image is null");
+        if (gray.getType() != BufferedImage.TYPE_BYTE_GRAY || gray.getRaster().getParent() != null) {
+            throw new IllegalArgumentException("expected a plain TYPE_BYTE_GRAY image");
+        }
+        return ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+    }
+}
@@ -0,0 +1,119 @@
+package io.deskpilot.engine.image;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precompiled "ignore" mask for {@link FrameDiff}.
+ *
+ * The ignored rectangles are turned into per-row spans of pixels that ARE compared,
+ * so the diff loop just walks those spans: masked pixels cost nothing per pixel.
+ */
+public final class DiffMask {
+
+    private final int width;
+    private final int height;
+    private final List<Rectangle> ignored;
+
+    // rowSpans[y] = {x0, x1, x0, x1, ...} half-open ranges of compared pixels
+    private final int[][] rowSpans;
+
+    private DiffMask(int width, int height, List<Rectangle> ignored) {
+        this.width = width;
+        this.height = height;
+        this.ignored = List.copyOf(ignored);
+        this.rowSpans = compile(width, height, this.ignored);
+    }
+
+    /**
+     * @param width frame width in pixels
+     * @param height frame height in pixels
+     * @param ignored frame-local pixel rectangles to skip (clipped to the frame; may overlap)
+     */
+    public static DiffMask of(int width, int height, List<Rectangle> ignored) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("mask size must be > 0");
+        if (ignored == null) throw new IllegalArgumentException("ignored is null");
+
+        Rectangle frame = new Rectangle(0, 0, width, height);
+        List<Rectangle> clipped = new ArrayList<>();
+        for (Rectangle r : ignored) {
+            if (r == null) continue;
+            Rectangle c = r.intersection(frame);
+            if (!c.isEmpty()) clipped.add(c);
+        }
+        return new DiffMask(width, height, clipped);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /** Ignored rectangles, clipped to the frame. */
+    public List<Rectangle> ignored() {
+        return ignored;
+    }
+
+    public boolean isEmpty() {
+        return ignored.isEmpty();
+    }
+
+    int[] spans(int y) {
+        return rowSpans[y];
+    }
+
+    private static int[][] compile(int width, int height, List<Rectangle> ignored) {
+        int[] full = {0, width};
+        int[][] rows = new int[height][];
+        Arrays.fill(rows, full);
+        if (ignored.isEmpty()) return rows;
+
+        // Rows covered by the same set of rectangles share one span array.
+        int[] cuts = new int[ignored.size() * 2];
+        for (int y = 0; y < height; y++) {
+            int n = 0;
+            for (Rectangle r : ignored) {
+                if (y >= r.y && y < r.y + r.height) {
+                    cuts[n++] = r.x;
+                    cuts[n++] = r.x + r.width;
+                }
+            }
+            if (n == 0) continue;
+            rows[y] = subtract(width, cuts, n);
+        }
+        return rows;
+    }
+
+    private static int[] subtract(int width, int[] cuts, int n) {
+        // sort ignored ranges by start (n is small: one pair per overlapping rectangle)
+        int pairs = n / 2;
+        long[] ranges = new long[pairs];
+        for (int i = 0; i < pairs; i++) {
+            ranges[i] = ((long) cuts[2 * i] << 32) | (cuts[2 * i + 1] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(ranges);
+
+        int[] out = new int[(pairs + 1) * 2];
+        int k = 0;
+        int x = 0;
+        for (long range : ranges) {
+            int s = (int) (range >>> 32);
+            int e = (int) range;
+            if (s > x) {
+                out[k++] = x;
+                out[k++] = s;
+            }
+            if (e > x) x = e;
+        }
+        if (x < width) {
+            out[k++] = x;
+            out[k++] = width;
+        }
+        return Arrays.copyOf(out, k);
+    }
+}
@@ -0,0 +1,223 @@
+package io.deskpilot.engine.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Single diff metric for "did the screen change?" checks.
+ *
+ * Returns the ratio [0..1] of sampled pixels that differ between two frames:
+ * - stride: sample every Nth pixel on both axes (grid anchored at 0,0)
+ * - tolerance: max per-channel (R/G/B) difference still considered equal (0 = exact)
+ * - mask: optional {@link DiffMask} of regions to skip entirely
+ * - early exit: stop as soon as the ratio is known to exceed a threshold
+ *   (the returned value is then a lower bound that is already above the threshold)
+ * - parallel: split large frames into row bands on the common pool
+ *
+ * Alpha is ignored: pixels that differ only in alpha count as equal. The stride-based checks
+ * this replaced compared full ARGB ints; Robot screenshots are opaque, so only ARGB inputs with
+ * varying alpha see a difference. INT-packed rasters (Robot screenshots) are read directly
+ * without allocating; other image types fall back to getRGB.
+ *
+ * Instances are immutable and thread-safe.
+ */
+public final class FrameDiff {
+
+    /** Sampled pixel count above which parallel mode actually forks. */
+    private static final long PARALLEL_MIN_SAMPLES = 1L << 18;
+
+    private final int stride;
+    private final int tolerance;
+    private final DiffMask mask;
+    private final double earlyExitAbove;
+    private final boolean parallel;
+
+    private FrameDiff(int stride, int tolerance, DiffMask mask, double earlyExitAbove, boolean parallel) {
+        this.stride = stride;
+        this.tolerance = tolerance;
+        this.mask = mask;
+        this.earlyExitAbove = earlyExitAbove;
+        this.parallel = parallel;
+    }
+
+    /** Full scan, exact RGB equality, no mask, no early exit. */
+    public static FrameDiff exact() {
+        return new FrameDiff(1, 0, null, -1, false);
+    }
+
+    public FrameDiff withStride(int stride) {
+        if (stride < 1) throw new IllegalArgumentException("stride must be >= 1");
+        return new FrameDiff(stride, tolerance, mask, earlyExitAbove, parallel);
+    }
+
+    public FrameDiff withTolerance(int tolerance) {
+        if (tolerance < 0 || tolerance > 255) throw new IllegalArgumentException("tolerance must be 0..255");
+        return new FrameDiff(stride, tolerance, mask, earlyExitAbove, parallel);
+    }
+
+    /** Mask size must match the compared area (min of both frame sizes); null clears it. */
+    public FrameDiff withMask(DiffMask mask) {
+        return new FrameDiff(stride, tolerance, mask, earlyExitAbove, parallel);
+    }
+
+    /** Stop once the diff ratio exceeds {@code threshold01}; use a negative value to disable. */
+    public FrameDiff withEarlyExit(double threshold01) {
+        return new FrameDiff(stride, tolerance, mask, threshold01, parallel);
+    }
+
+    public FrameDiff withParallel(boolean parallel) {
+        return new FrameDiff(stride, tolerance, mask, earlyExitAbove, parallel);
+    }
+
+    public int stride() {
+        return stride;
+    }
+
+    public int tolerance() {
+        return tolerance;
+    }
+
+    public DiffMask mask() {
+        return mask;
+    }
+
+    /**
+     * Ratio [0..1] of differing sampled pixels. Null frames count as fully different;
+     * a zero-area overlap has nothing to compare and returns 0 (as the stride checks always did).
+     */
+    public double ratio(BufferedImage a, BufferedImage b) {
+        if (a == null || b == null) return 1.0;
+
+        int w = Math.min(a.getWidth(), b.getWidth());
+        int h = Math.min(a.getHeight(), b.getHeight());
+        if (w <= 0 || h <= 0) return 0;
+
+        if (mask != null && (mask.width() != w || mask.height() != h)) {
+            throw new IllegalArgumentException(
+                    "mask size " + mask.width() + "x" + mask.height() + " != compared area " + w + "x" + h);
+        }
+
+        long total = countSamples(w, h);
+        if (total == 0) return 0;
+
+        long limit = earlyExitAbove < 0 ? Long.MAX_VALUE : (long) Math.floor(earlyExitAbove * total);
+
+        IntRaster ra = IntRaster.of(a);
+        IntRaster rb = IntRaster.of(b);
+
+        long changed;
+        int rows = (h + stride - 1) / stride;
+
+        if (parallel && total >= PARALLEL_MIN_SAMPLES && rows > 1) {
+            AtomicLong shared = new AtomicLong();
+            int bands = Math.min(rows, Runtime.getRuntime().availableProcessors() * 2);
+            IntStream.range(0, bands).parallel().forEach(band -> {
+                int r0 = (int) ((long) rows * band / bands);
+                int r1 = (int) ((long) rows * (band + 1) / bands);
+                for (int r = r0; r < r1; r++) {
+                    if (shared.get() > limit) return;
+                    shared.addAndGet(countRow(a, b, ra, rb, r * stride, w));
+                }
+            });
+            changed = shared.get();
+        } else {
+            changed = 0;
+            for (int y = 0; y < h; y += stride) {
+                changed += countRow(a, b, ra, rb, y, w);
+                if (changed > limit) break;
+            }
+        }
+
+        return changed / (double) total;
+    }
+
+    /**
+     * True if any sampled pixel inside {@code area} differs (stride and tolerance apply, mask does not).
+     * Stops at the first difference; intended for tile-level change tracking.
+     */
+    public boolean anyChange(BufferedImage a, BufferedImage b, Rectangle area) {
+        if (a == null || b == null) return true;
+        if (area == null) throw new IllegalArgumentException("area is null");
+
+        Rectangle c = area.intersection(new Rectangle(0, 0,
+                Math.min(a.getWidth(), b.getWidth()),
+                Math.min(a.getHeight(), b.getHeight())));
+        if (c.isEmpty()) return false;
+
+        IntRaster ra = IntRaster.of(a);
+        IntRaster rb = IntRaster.of(b);
+        for (int y = c.y; y < c.y + c.height; y += stride) {
+            if (countSpan(a, b, ra, rb, y, c.x, c.x + c.width) > 0) return true;
+        }
+        return false;
+    }
+
+    /** Exact pixel equality: same size and every pixel equal. Null images are never identical. */
+    public static boolean identical(BufferedImage a, BufferedImage b) {
+        if (a == null || b == null) return false;
+        if (a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight()) return false;
+        return !exact().anyChange(a, b, new Rectangle(0, 0, a.getWidth(), a.getHeight()));
+    }
+
+    private long countSamples(int w, int h) {
+        if (mask == null) {
+            return (long) ((w + stride - 1) / stride) * ((h + stride - 1) / stride);
+        }
+        long n = 0;
+        for (int y = 0; y < h; y += stride) {
+            int[] spans = mask.spans(y);
+            for (int i = 0; i < spans.length; i += 2) {
+                int x0 = firstOnGrid(spans[i]);
+                int x1 = spans[i + 1];
+                if (x0 < x1) n += (x1 - x0 + stride - 1) / stride;
+            }
+        }
+        return n;
+    }
+
+    private long countRow(BufferedImage a, BufferedImage b, IntRaster ra, IntRaster rb, int y, int w) {
+        int[] spans = (mask == null) ? null : mask.spans(y);
+        if (spans == null) return countSpan(a, b, ra, rb, y, 0, w);
+
+        long n = 0;
+        for (int i = 0; i < spans.length; i += 2) {
+            n += countSpan(a, b, ra, rb, y, firstOnGrid(spans[i]), spans[i + 1]);
+        }
+        return n;
+    }
+
+    private long countSpan(BufferedImage a, BufferedImage b, IntRaster ra, IntRaster rb, int y, int x0, int x1) {
+        long n = 0;
+        if (ra != null && rb != null) {
+            int[] da = ra.data;
+            int[] db = rb.data;
+            int ia = ra.index(x0, y);
+            int ib = rb.index(x0, y);
+            for (int x = x0; x < x1; x += stride, ia += stride, ib += stride) {
+                if (differs(da[ia], db[ib])) n++;
+            }
+        } else {
+            for (int x = x0; x < x1; x += stride) {
+                if (differs(a.getRGB(x, y), b.getRGB(x, y))) n++;
+            }
+        }
+        return n;
+    }
+
+    private boolean differs(int pa, int pb) {
+        int x = (pa ^ pb) & 0xFFFFFF;
+        if (x == 0) return false;
+        if (tolerance == 0) return true;
+
+        return Math.abs(((pa >> 16) & 0xFF) - ((pb >> 16) & 0xFF)) > tolerance
+                || Math.abs(((pa >> 8) & 0xFF) - ((pb >> 8) & 0xFF)) > tolerance
+                || Math.abs((pa & 0xFF) - (pb & 0xFF)) > tolerance;
+    }
+
+    private int firstOnGrid(int x) {
+        int r = x % stride;
+        return r == 0 ? x : x + (stride - r);
+    }
+}
@@ -0,0 +1,165 @@
+package io.deskpilot.engine.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * Fused OCR preprocessing: grayscale + bilinear scale + optional binary threshold in one loop.
+ *
+ * - Each source row is converted to gray once, into a two-row window; output pixels are written
+ *   straight into the TYPE_BYTE_GRAY backing array (no intermediate images, no getRGB/setRGB).
+ * - Integer luminance (77R + 150G + 29B) / 256, the same weights Java2D uses for BYTE_GRAY.
+ * - Bilinear sampling at pixel centers with edge clamping, 8-bit fixed-point weights, matching
+ *   Graphics2D drawImage with VALUE_INTERPOLATION_BILINEAR within rounding.
+ * - Alpha is ignored (screen captures are opaque).
+ */
+public final class GrayKernel {
+
+    private GrayKernel() {}
+
+    /**
+     * @param factor    output size = round(src size * factor), at least 1x1
+     * @param threshold 0..255 to binarize (luma >= threshold -> 255, else 0), or -1 to keep gray
+     */
+    public static BufferedImage grayScaleThreshold(BufferedImage src, double factor, int threshold) {
+        if (src == null) throw new IllegalArgumentException("src is null");
+        if (!(factor > 0)) throw new IllegalArgumentException("factor must be > 0");
+        if (threshold < -1 || threshold > 255) throw new IllegalArgumentException("threshold must be -1 or 0..255");
+
+        int sw = src.getWidth();
+        int sh = src.getHeight();
+        int dw = Math.max(1, (int) Math.round(sw * factor));
+        int dh = Math.max(1, (int) Math.round(sh * factor));
+
+        BufferedImage out = new BufferedImage(dw, dh, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] dst = ((DataBufferByte) out.getRaster().getDataBuffer()).getData();
+
+        // binarize via lookup: one table read per output pixel
+        byte[] lut = new byte[256];
+        for (int v = 0; v < 256; v++) {
+            lut[v] = (byte) (threshold < 0 ? v : (v >= threshold ? 255 : 0));
+        }
+
+        RowReader reader = new RowReader(src);
+
+        if (dw == sw && dh == sh) {
+            int[] row = new int[sw];
+            for (int y = 0; y < sh; y++) {
+                reader.gray(y, row);
+                int o = y * dw;
+                for (int x = 0; x < sw; x++) dst[o + x] = lut[row[x]];
+            }
+            return out;
+        }
+
+        // horizontal taps, precomputed once per column
+        int[] x0 = new int[dw];
+        int[] x1 = new int[dw];
+        int[] wx = new int[dw];
+        double rx = (double) sw / dw;
+        for (int x = 0; x < dw; x++) {
+            double fx = (x + 0.5) * rx - 0.5;
+            taps(fx, sw, x, x0, x1, wx);
+        }
+
+        int[] rowA = new int[sw];
+        int[] rowB = new int[sw];
+        int rowAy = -1;
+        int rowBy = -1;
+        int[] ty0 = new int[1];
+        int[] ty1 = new int[1];
+        int[] twy = new int[1];
+        double ry = (double) sh / dh;
+
+        for (int y = 0; y < dh; y++) {
+            taps((y + 0.5) * ry - 0.5, sh, 0, ty0, ty1, twy);
+            int y0 = ty0[0];
+            int y1 = ty1[0];
+            int wy = twy[0];
+
+            // slide the two-row window; rows move forward only, so every source row is read once
+            if (rowAy != y0) {
+                if (rowBy == y0) {
+                    int[] t = rowA; rowA = rowB; rowB = t;
+                    rowAy = y0;
+                    rowBy = -1;
+                } else {
+                    reader.gray(y0, rowA);
+                    rowAy = y0;
+                }
+            }
+            if (rowBy != y1) {
+                if (y1 == y0) {
+                    System.arraycopy(rowA, 0, rowB, 0, sw);
+                } else {
+                    reader.gray(y1, rowB);
+                }
+                rowBy = y1;
+            }
+
+            int iwy = 256 - wy;
+            int o = y * dw;
+            for (int x = 0; x < dw; x++) {
+                int a = x0[x];
+                int b = x1[x];
+                int w = wx[x];
+                int iw = 256 - w;
+                int top = rowA[a] * iw + rowA[b] * w;
+                int bot = rowB[a] * iw + rowB[b] * w;
+                int v = (top * iwy + bot * wy + 32768) >>> 16;
+                dst[o + x] = lut[v];
+            }
+        }
+        return out;
+    }
+
+    private static void taps(double f, int size, int i, int[] lo, int[] hi, int[] weight) {
+        if (f <= 0) {
+            lo[i] = 0;
+            hi[i] = 0;
+            weight[i] = 0;
+            return;
+        }
+        int a = (int) f;
+        if (a >= size - 1) {
+            lo[i] = size - 1;
+            hi[i] = size - 1;
+            weight[i] = 0;
+            return;
+        }
+        lo[i] = a;
+        hi[i] = a + 1;
+        weight[i] = (int) Math.round((f - a) * 256);
+    }
+
+    /** Reads one source row as 0..255 luma, straight from INT rasters when possible. */
+    private static final class RowReader {
+        private final BufferedImage img;
+        private final IntRaster ir;
+        private final int[] argb;
+
+        RowReader(BufferedImage img) {
+            this.img = img;
+            this.ir = IntRaster.of(img);
+            this.argb = (ir == null) ? new int[img.getWidth()] : null;
+        }
+
+        void gray(int y, int[] out) {
+            int w = img.getWidth();
+            int[] data;
+            int i;
+            if (ir != null) {
+                data = ir.data;
+                i = ir.index(0, y);
+            } else {
+                img.getRGB(0, y, w, 1, argb, 0, w);
+                data = argb;
+                i = 0;
+            }
+            for (int x = 0; x < w; x++) {
+                int p = data[i + x];
+                out[x] = (77 * ((p >> 16) & 0xFF) + 150 * ((p >> 8) & 0xFF) + 29 * (p & 0xFF) + 128) >> 8;
+            }
+        }
+    }
+}
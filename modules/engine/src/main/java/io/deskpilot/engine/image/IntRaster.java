@@ -0,0 +1,43 @@
+package io.deskpilot.engine.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Direct view over an INT-packed raster (TYPE_INT_RGB / TYPE_INT_ARGB, including sub-images).
+ * Lets hot loops read pixels without getRGB() color-model conversion.
+ */
+final class IntRaster {
+
+    final int[] data;
+    final int offset;
+    final int scanline;
+
+    private IntRaster(int[] data, int offset, int scanline) {
+        this.data = data;
+        this.offset = offset;
+        this.scanline = scanline;
+    }
+
+    /** Returns null for any other layout so callers can fall back to getRGB. */
+    static IntRaster of(BufferedImage img) {
+        int t = img.getType();
+        if (t != BufferedImage.TYPE_INT_RGB && t != BufferedImage.TYPE_INT_ARGB) return null;
+
+        Raster r = img.getRaster();
+        if (!(r.getDataBuffer() instanceof DataBufferInt db)) return null;
+        if (!(r.getSampleModel() instanceof SinglePixelPackedSampleModel sm)) return null;
+
+        int scan = sm.getScanlineStride();
+        int off = db.getOffset()
+                - r.getSampleModelTranslateY() * scan
+                - r.getSampleModelTranslateX();
+        return new IntRaster(db.getData(), off, scan);
+    }
+
+    int index(int x, int y) {
+        return offset + y * scanline + x;
+    }
+}
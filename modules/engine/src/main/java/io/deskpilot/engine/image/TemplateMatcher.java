@@ -1,5 +1,8 @@
 package io.deskpilot.engine.image;
 
+import io.deskpilot.engine.trace.Span;
+import io.deskpilot.engine.trace.Trace;
+
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
@@ -17,6 +20,14 @@ public class TemplateMatcher {
      * Returns null only when matching is impossible (e.g., needle larger than haystack).
      */
     public static MatchResult findBest(BufferedImage haystack, BufferedImage needle) {
+        try (Span s = Trace.span("template.findBest", "locate")) {
+            MatchResult r = scan(haystack, needle);
+            if (r != null) s.arg("score", r.score());
+            return r;
+        }
+    }
+
+    private static MatchResult scan(BufferedImage haystack, BufferedImage needle) {
         int hw = haystack.getWidth();
         int hh = haystack.getHeight();
         int nw = needle.getWidth();
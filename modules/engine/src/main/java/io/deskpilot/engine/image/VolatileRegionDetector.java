@@ -0,0 +1,98 @@
+package io.deskpilot.engine.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds small screen areas that keep changing (clocks, blinking carets, marquee text)
+ * by counting, per tile, how many consecutive frame pairs changed it.
+ *
+ * Used by stability waits to stop burning the whole timeout on pixels that never settle.
+ * Caveat: a long-running spinner looks exactly like a clock, so auto-masking is opt-in.
+ */
+public final class VolatileRegionDetector {
+
+    private final int tileSize;
+    private final FrameDiff tileDiff;
+
+    private int width = -1;
+    private int height = -1;
+    private int cols;
+    private int rows;
+    private int[] changeCounts;
+    private int frames;
+
+    public VolatileRegionDetector(int tileSize, int tolerance) {
+        if (tileSize < 4) throw new IllegalArgumentException("tileSize must be >= 4");
+        if (tolerance < 0 || tolerance > 255) throw new IllegalArgumentException("tolerance must be 0..255");
+        this.tileSize = tileSize;
+        this.tileDiff = FrameDiff.exact().withTolerance(tolerance);
+    }
+
+    /** Record which tiles changed between two consecutive frames. A size change resets the history. */
+    public void observe(BufferedImage prev, BufferedImage cur) {
+        if (prev == null || cur == null) return;
+
+        int w = Math.min(prev.getWidth(), cur.getWidth());
+        int h = Math.min(prev.getHeight(), cur.getHeight());
+        if (w != width || h != height) reset(w, h);
+
+        for (int ty = 0; ty < rows; ty++) {
+            for (int tx = 0; tx < cols; tx++) {
+                if (tileDiff.anyChange(prev, cur, tile(tx, ty))) changeCounts[ty * cols + tx]++;
+            }
+        }
+        frames++;
+    }
+
+    public int frames() {
+        return frames;
+    }
+
+    /**
+     * Tiles that changed in at least {@code minChanges} observed frame pairs, merged into row runs.
+     * Returns an empty list when the candidates cover more than {@code maxAreaFraction} of the frame
+     * (that is a real UI transition, not a clock).
+     */
+    public List<Rectangle> volatileRegions(int minChanges, double maxAreaFraction) {
+        List<Rectangle> out = new ArrayList<>();
+        if (frames == 0) return out;
+
+        long area = 0;
+        for (int ty = 0; ty < rows; ty++) {
+            int runStart = -1;
+            for (int tx = 0; tx <= cols; tx++) {
+                boolean hot = tx < cols && changeCounts[ty * cols + tx] >= minChanges;
+                if (hot && runStart < 0) runStart = tx;
+                if (!hot && runStart >= 0) {
+                    Rectangle first = tile(runStart, ty);
+                    Rectangle last = tile(tx - 1, ty);
+                    Rectangle run = first.union(last);
+                    out.add(run);
+                    area += (long) run.width * run.height;
+                    runStart = -1;
+                }
+            }
+        }
+
+        if (area > maxAreaFraction * width * (long) height) return List.of();
+        return out;
+    }
+
+    private void reset(int w, int h) {
+        width = w;
+        height = h;
+        cols = (w + tileSize - 1) / tileSize;
+        rows = (h + tileSize - 1) / tileSize;
+        changeCounts = new int[cols * rows];
+        frames = 0;
+    }
+
+    private Rectangle tile(int tx, int ty) {
+        int x = tx * tileSize;
+        int y = ty * tileSize;
+        return new Rectangle(x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y));
+    }
+}
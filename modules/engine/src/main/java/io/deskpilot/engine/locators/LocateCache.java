@@ -0,0 +1,72 @@
+package io.deskpilot.engine.locators;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-session memo of locate results keyed by (locator identity, SHA-256 of the searched pixels).
+ *
+ * Rules:
+ * - Only valid for pure locators: same pixels in, same result out (template scans, OCR reads).
+ * - LRU eviction once maxEntries is reached; maxEntries == 0 disables the cache.
+ * - Cached results are returned with diag "cacheHit=true" so failure reports show memoized answers.
+ */
+public final class LocateCache {
+
+    private record Key(String identity, String contentHash) {}
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, LocatorResult> entries;
+
+    private long hits;
+    private long misses;
+
+    public LocateCache(int maxEntries) {
+        if (maxEntries < 0) throw new IllegalArgumentException("maxEntries must be >= 0");
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, LocatorResult> eldest) {
+                return size() > LocateCache.this.maxEntries;
+            }
+        };
+    }
+
+    public boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    /** Returns the memoized result (tagged cacheHit=true) or null. */
+    public synchronized LocatorResult get(String identity, String contentHash) {
+        if (!enabled()) return null;
+
+        LocatorResult r = entries.get(new Key(identity, contentHash));
+        if (r == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return r.withDiag("cacheHit", "true");
+    }
+
+    public synchronized void put(String identity, String contentHash, LocatorResult result) {
+        if (!enabled() || identity == null || result == null) return;
+        entries.put(new Key(identity, contentHash), result);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+}
@@ -60,6 +60,13 @@ public final class LocatorResult {
 
     public boolean isFound() { return status == LocateStatus.FOUND; }
 
+    /** Copy of this result with one extra/overridden diag entry. */
+    public LocatorResult withDiag(String key, String value) {
+        Map<String, String> d = new LinkedHashMap<>(diag);
+        d.put(key, value);
+        return new LocatorResult(kind, label, status, point, bounds, score, d);
+    }
+
     @Override
     public String toString() {
         return "LocatorResult{" +
@@ -1,11 +1,16 @@
 package io.deskpilot.engine.locators;
 
 import io.deskpilot.engine.DeskPilotSession;
+import io.deskpilot.engine.OcrEngine;
 import io.deskpilot.engine.UiTarget;
 import io.deskpilot.engine.targets.TemplateTarget;
 import io.deskpilot.engine.NormalizedRegion;
+import io.deskpilot.engine.ocr.OcrConfig;
+import io.deskpilot.engine.ocr.PresetRace;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Minimal session surface required for locator resolution.
@@ -28,6 +33,26 @@ String readTextNormalized(io.deskpilot.engine.NormalizedRegion region) throws Ex
      */
     LocatorResult locateTemplate(TemplateTarget target, String label) throws Exception;
 
+    /**
+     * OCR {@code region} once per config and return the first text {@code accept} likes.
+     * Default: unsupported, since a plain {@link #readTextNormalized} read uses the session config and
+     * cannot be reported as any of {@code configs}. DeskPilotSession races the configs concurrently.
+     */
+    default PresetRace.Outcome readTextRace(NormalizedRegion region, List<OcrConfig> configs,
+                                            Predicate<String> accept) throws Exception {
+        throw new UnsupportedOperationException("readTextRace is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Word-level OCR of {@code region}: words with Tesseract confidence and WIN32 screen boxes.
+     * Text is not normalized; callers run {@link io.deskpilot.engine.ocr.OcrText#normalizeForMatch}
+     * before comparing.
+     * Default: unsupported, for sessions without word geometry. DeskPilotSession implements it.
+     */
+    default List<OcrEngine.OcrWord> readWords(NormalizedRegion region) throws Exception {
+        throw new UnsupportedOperationException("readWords is not supported by " + getClass().getSimpleName());
+    }
+
     public static LocatorSession from(DeskPilotSession s) {
     if (s == null) throw new IllegalArgumentException("session is null");
 
@@ -53,6 +78,17 @@ public String readTextNormalized(NormalizedRegion region) throws Exception {
     return s.readTextNormalized(region);
 }
 
+        @Override
+        public PresetRace.Outcome readTextRace(NormalizedRegion region, List<OcrConfig> configs,
+                                               Predicate<String> accept) throws Exception {
+            return s.readTextRace(region, configs, accept);
+        }
+
+        @Override
+        public List<OcrEngine.OcrWord> readWords(NormalizedRegion region) throws Exception {
+            return s.readWords(region);
+        }
+
     };
 }
 
@@ -1,25 +1,45 @@
 package io.deskpilot.engine.locators;
 
 import io.deskpilot.engine.NormalizedRegion;
+import io.deskpilot.engine.ocr.FuzzyMatch;
+import io.deskpilot.engine.ocr.OcrConfig;
+import io.deskpilot.engine.ocr.OcrText;
+import io.deskpilot.engine.ocr.PresetRace;
 
 import java.util.LinkedHashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * OCR polling locator:
  * - ONE OCR read per locate() call
  * - FOUND if normalized OCR text contains expected substring (case-insensitive)
  * - ActionStep handles retries/timeouts (the "wait")
+ * - With several presets, that read is raced across them and the first match wins
+ * - maxEdits > 0 tolerates OCR misreads ("sav3d" for "saved") up to that edit distance,
+ *   at most a third of the normalized expected text ({@link FuzzyMatch#requireMaxEdits})
  */
 public final class OcrContainsLocator implements Locator {
 
     private final String label;
     private final NormalizedRegion region;
     private final String expectedNorm;
+    private final List<OcrConfig> presets; // empty = session's current OcrConfig
+    private final int maxEdits;            // 0 = exact substring
 
     public OcrContainsLocator(String label, NormalizedRegion region, String expected) {
+        this(label, region, expected, Set.of());
+    }
+
+    public OcrContainsLocator(String label, NormalizedRegion region, String expected, Set<OcrConfig.Preset> presets) {
+        this(label, region, expected, presets, 0);
+    }
+
+    public OcrContainsLocator(String label, NormalizedRegion region, String expected, Set<OcrConfig.Preset> presets,
+                              int maxEdits) {
+        this.maxEdits = maxEdits;
         this.label = Objects.requireNonNull(label, "label is null");
         this.region = Objects.requireNonNull(region, "region is null");
 
@@ -28,6 +48,15 @@ public final class OcrContainsLocator implements Locator {
         if (t.isEmpty()) throw new IllegalArgumentException("expected is blank");
 
         this.expectedNorm = normalize(t);
+        FuzzyMatch.requireMaxEdits(expectedNorm, maxEdits);
+        this.presets = (presets == null) ? List.of()
+                : presets.stream().sorted().map(OcrConfig::preset).toList();
+    }
+
+    /** Same locator, accepting matches within {@code maxEdits} insertions/deletions/substitutions. */
+    public OcrContainsLocator withMaxEdits(int maxEdits) {
+        return new OcrContainsLocator(label, region, expectedNorm,
+                presets.stream().map(c -> c.preset).collect(java.util.stream.Collectors.toSet()), maxEdits);
     }
 
     @Override public String label() { return label; }
@@ -36,16 +65,20 @@ public final class OcrContainsLocator implements Locator {
 
     @Override
     public LocatorResult locate(LocatorSession s) throws Exception {
+        if (!presets.isEmpty()) return locateRace(s);
+
         String actual = s.readTextNormalized(region); // already trims/cleans, but we normalize again for punctuation.
         String actualNorm = normalize(actual == null ? "" : actual);
 
-        boolean ok = !actualNorm.isEmpty() && actualNorm.contains(expectedNorm);
+        int distance = matchDistance(actualNorm);
+        boolean ok = distance >= 0;
 
         Map<String, String> diag = new LinkedHashMap<>();
         diag.put("expectedContains", expectedNorm);
         diag.put("actual", actual == null ? "" : actual);
         diag.put("actualNorm", actualNorm);
         diag.put("region", String.valueOf(region));
+        putFuzzyDiag(diag, actualNorm, distance);
 
         if (ok) {
             return LocatorResult.found(kind(), label, null, null, -1, diag);
@@ -53,22 +86,44 @@ public final class OcrContainsLocator implements Locator {
         return LocatorResult.notFound(kind(), label, diag);
     }
 
-    /**
-     * Deterministic normalization for OCR comparisons:
-     * - lowercase
-     * - punctuation -> space
-     * - collapse whitespace
-     */
-    private static String normalize(String s) {
-        if (s == null) return "";
-        String x = s.toLowerCase(Locale.ROOT);
+    private LocatorResult locateRace(LocatorSession s) throws Exception {
+        PresetRace.Outcome o = s.readTextRace(region, presets, t -> matchDistance(normalize(t)) >= 0);
 
-        // replace punctuation-ish with spaces (keep letters/digits)
-        x = x.replaceAll("[^a-z0-9]+", " ");
+        Map<String, String> diag = new LinkedHashMap<>();
+        diag.put("expectedContains", expectedNorm);
+        diag.put("actual", o.text());
+        diag.put("actualNorm", normalize(o.text()));
+        diag.put("region", String.valueOf(region));
+        diag.put("presets", presets.stream().map(c -> c.preset.name()).toList().toString());
+        diag.put("ocrByPreset", String.valueOf(o.texts()));
+        String winnerNorm = normalize(o.text());
+        putFuzzyDiag(diag, winnerNorm, matchDistance(winnerNorm));
+        if (o.matched()) {
+            diag.put("winnerPreset", o.winner().preset.name());
+            diag.put("cancelled", String.valueOf(o.cancelled()));
+            return LocatorResult.found(kind(), label, null, null, -1, diag);
+        }
+        return LocatorResult.notFound(kind(), label, diag);
+    }
 
-        // collapse whitespace
-        x = x.replaceAll("\\s+", " ").trim();
+    /** Edit distance of the best occurrence of the expected text, or -1 if above maxEdits. */
+    private int matchDistance(String actualNorm) {
+        if (actualNorm.isEmpty()) return -1;
+        if (actualNorm.contains(expectedNorm)) return 0;
+        if (maxEdits == 0) return -1;
+        int d = FuzzyMatch.bestDistance(expectedNorm, actualNorm);
+        return d <= maxEdits ? d : -1;
+    }
+
+    private void putFuzzyDiag(Map<String, String> diag, String actualNorm, int distance) {
+        if (maxEdits == 0) return;
+        diag.put("maxEdits", String.valueOf(maxEdits));
+        // report the real distance on a miss too: "2 edits, allowed 1" explains a near miss
+        diag.put("matchDistance", String.valueOf(distance >= 0 ? distance
+                : actualNorm.isEmpty() ? -1 : FuzzyMatch.bestDistance(expectedNorm, actualNorm)));
+    }
 
-        return x;
+    private static String normalize(String s) {
+        return OcrText.normalizeForMatch(s);
     }
 }
@@ -0,0 +1,113 @@
+package io.deskpilot.engine.locators;
+
+import io.deskpilot.engine.NormalizedRegion;
+import io.deskpilot.engine.OcrEngine.OcrWord;
+import io.deskpilot.engine.ocr.OcrText;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * OCR click locator: finds a phrase among the words of a region and returns the centre of the
+ * matched words as the click point.
+ * - ONE word-level OCR read per locate() call (ActionStep handles retries/timeouts)
+ * - words below minConfidence are dropped before matching, so noise cannot satisfy the phrase
+ * - phrase and words are normalized like {@link OcrContainsLocator}; the phrase must match
+ *   consecutive word tokens exactly (first occurrence in reading order wins)
+ * - score = lowest confidence among the matched words, as 0..1
+ */
+public final class OcrPhraseLocator implements Locator {
+
+    public static final float DEFAULT_MIN_CONFIDENCE = 50f;
+
+    private final String label;
+    private final NormalizedRegion region;
+    private final String phraseNorm;
+    private final String[] phraseTokens;
+    private final float minConfidence;
+
+    public OcrPhraseLocator(String label, NormalizedRegion region, String phrase) {
+        this(label, region, phrase, DEFAULT_MIN_CONFIDENCE);
+    }
+
+    public OcrPhraseLocator(String label, NormalizedRegion region, String phrase, float minConfidence) {
+        this.label = Objects.requireNonNull(label, "label is null");
+        this.region = Objects.requireNonNull(region, "region is null");
+        Objects.requireNonNull(phrase, "phrase is null");
+        if (minConfidence < 0 || minConfidence > 100) {
+            throw new IllegalArgumentException("minConfidence must be in [0..100]: " + minConfidence);
+        }
+
+        this.phraseNorm = OcrText.normalizeForMatch(phrase);
+        if (phraseNorm.isEmpty()) throw new IllegalArgumentException("phrase is blank");
+        this.phraseTokens = phraseNorm.split(" ");
+        this.minConfidence = minConfidence;
+    }
+
+    @Override public String label() { return label; }
+
+    @Override public LocatorKind kind() { return LocatorKind.OCR; }
+
+    @Override
+    public LocatorResult locate(LocatorSession s) throws Exception {
+        List<OcrWord> words = s.readWords(region);
+
+        // one entry per normalized token; "file:" -> "file", "save-as" -> "save", "as" (same box)
+        List<String> tokens = new ArrayList<>();
+        List<OcrWord> owners = new ArrayList<>();
+        int dropped = 0;
+        for (OcrWord w : words) {
+            if (w.confidence < minConfidence) {
+                dropped++;
+                continue;
+            }
+            String n = OcrText.normalizeForMatch(w.text);
+            if (n.isEmpty()) continue;
+            for (String t : n.split(" ")) {
+                tokens.add(t);
+                owners.add(w);
+            }
+        }
+
+        Map<String, String> diag = new LinkedHashMap<>();
+        diag.put("phrase", phraseNorm);
+        diag.put("region", String.valueOf(region));
+        diag.put("minConfidence", String.valueOf(minConfidence));
+        diag.put("words", words.toString());
+        diag.put("droppedLowConfidence", String.valueOf(dropped));
+
+        int at = indexOf(tokens);
+        if (at < 0) return LocatorResult.notFound(kind(), label, diag);
+
+        Rectangle bounds = null;
+        float minConf = 100f;
+        List<String> matched = new ArrayList<>();
+        for (int i = at; i < at + phraseTokens.length; i++) {
+            OcrWord w = owners.get(i);
+            if (i > at && w == owners.get(i - 1)) continue; // several tokens from one word
+            bounds = bounds == null ? new Rectangle(w.box) : bounds.union(w.box);
+            minConf = Math.min(minConf, w.confidence);
+            matched.add(w.toString());
+        }
+        Point center = new Point(bounds.x + bounds.width / 2, bounds.y + bounds.height / 2);
+
+        diag.put("matchedWords", matched.toString());
+        return LocatorResult.found(kind(), label, center, bounds, minConf / 100.0, diag);
+    }
+
+    private int indexOf(List<String> tokens) {
+        outer:
+        for (int i = 0; i + phraseTokens.length <= tokens.size(); i++) {
+            for (int j = 0; j < phraseTokens.length; j++) {
+                if (!tokens.get(i + j).equals(phraseTokens[j])) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -3,14 +3,20 @@ package io.deskpilot.engine.locators;
 import io.deskpilot.engine.image.MatchResult;
 import io.deskpilot.engine.image.TemplateMatcher;
 import io.deskpilot.engine.image.ImageUtil;
+import io.deskpilot.engine.ocr.OcrResultCache;
 import io.deskpilot.engine.targets.TemplateTarget;
 
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.jar.JarEntry;
 
 /**
  * Pure template location logic (unit-testable).
@@ -37,28 +43,17 @@ public final class TemplateLocatorEngine {
         int offsetX = 0;
         int offsetY = 0;
 
-        Rectangle a = null;
-        if (target.searchAreaPct != null) {
-            a = target.searchAreaPct.toClientPixels(clientShot.getWidth(), clientShot.getHeight());
-        } else if (target.searchArea != null) {
-            a = target.searchArea;
-        }
+        Rectangle a = requestedSearchArea(clientShot, target);
 
         if (a != null) {
-            Rectangle bounds = new Rectangle(0, 0, clientShot.getWidth(), clientShot.getHeight());
-            Rectangle clipped = a.intersection(bounds);
-            if (clipped.isEmpty() || clipped.width <= 0 || clipped.height <= 0) {
-                throw new RuntimeException("Template searchArea outside client bounds: " + a);
-            }
+            Rectangle clipped = searchAreaPixels(clientShot, target);
             haystack = ImageUtil.crop(clientShot, clipped);
             offsetX = clipped.x;
             offsetY = clipped.y;
         }
 
         // 2) Try all template variants (best score wins)
-        String[] paths = (target.imagePaths != null && target.imagePaths.length > 0)
-                ? target.imagePaths
-                : new String[]{ target.imagePath };
+        String[] paths = templatePaths(target);
 
         MatchResult bestMatch = null;
         BufferedImage bestTemplate = null;
@@ -150,4 +145,91 @@ public final class TemplateLocatorEngine {
 
         return LocatorResult.found(LocatorKind.TEMPLATE, label, win32, boundsWin32, bestMatch.score(), baseDiag);
     }
+
+    /**
+     * SHA-256 of the pixels the template scan will look at ({@link #searchAreaPixels}): the
+     * {@link LocateCache} content key, so a hash collision cannot replay another frame's click point.
+     */
+    public static String searchAreaDigest(BufferedImage clientShot, TemplateTarget target) {
+        Rectangle a = searchAreaPixels(clientShot, target);
+        return OcrResultCache.imageHash(clientShot.getSubimage(a.x, a.y, a.width, a.height));
+    }
+
+    /**
+     * Client-local pixels the template scan will actually look at (search area clipped to the shot,
+     * or the full shot). Callers use this to hash exactly the scanned content.
+     */
+    public static Rectangle searchAreaPixels(BufferedImage clientShot, TemplateTarget target) {
+        if (clientShot == null) throw new IllegalArgumentException("clientShot is null");
+        if (target == null) throw new IllegalArgumentException("target is null");
+
+        Rectangle bounds = new Rectangle(0, 0, clientShot.getWidth(), clientShot.getHeight());
+        Rectangle a = requestedSearchArea(clientShot, target);
+        if (a == null) return bounds;
+
+        Rectangle clipped = a.intersection(bounds);
+        if (clipped.isEmpty() || clipped.width <= 0 || clipped.height <= 0) {
+            throw new RuntimeException("Template searchArea outside client bounds: " + a);
+        }
+        return clipped;
+    }
+
+    /**
+     * Stable identity of a template lookup (used as the locate-cache key, together with a content hash).
+     * Includes the client rect (results carry WIN32 coordinates) and a fingerprint of every template
+     * resource, so a moved window or a re-captured template never serves a stale answer.
+     */
+    public static String identity(TemplateTarget target, String label, Rectangle clientRectWin32) {
+        if (target == null) throw new IllegalArgumentException("target is null");
+        if (clientRectWin32 == null) throw new IllegalArgumentException("clientRectWin32 is null");
+
+        StringBuilder templates = new StringBuilder();
+        for (String path : templatePaths(target)) {
+            if (path == null || path.isBlank()) continue;
+            templates.append(path).append('@').append(resourceFingerprint(path)).append(';');
+        }
+        return "TEMPLATE|" + label
+                + "|" + templates
+                + "|" + target.minScore
+                + "|" + target.searchArea
+                + "|" + (target.searchAreaPct == null ? "null" : target.searchAreaPct.xPct + "," + target.searchAreaPct.yPct
+                        + "," + target.searchAreaPct.wPct + "," + target.searchAreaPct.hPct)
+                + "|client=" + clientRectWin32.x + "," + clientRectWin32.y + "," + clientRectWin32.width + "," + clientRectWin32.height;
+    }
+
+    private static String[] templatePaths(TemplateTarget target) {
+        return (target.imagePaths != null && target.imagePaths.length > 0)
+                ? target.imagePaths
+                : new String[]{ target.imagePath };
+    }
+
+    /** mtime + length of a classpath resource (file or jar entry); "missing" when it cannot be resolved. */
+    static String resourceFingerprint(String path) {
+        URL url = TemplateLocatorEngine.class.getClassLoader().getResource(path);
+        if (url == null) return "missing";
+        try {
+            URLConnection c = url.openConnection();
+            c.setUseCaches(false);
+            long modified = c.getLastModified();
+            long length = c.getContentLengthLong();
+            if (c instanceof JarURLConnection j) {
+                JarEntry e = j.getJarEntry();
+                if (e != null) {
+                    modified = e.getTime();
+                    length = e.getSize();
+                }
+                j.getJarFile().close();
+            }
+            return modified + ":" + length;
+        } catch (IOException e) {
+            return "unreadable";
+        }
+    }
+
+    private static Rectangle requestedSearchArea(BufferedImage clientShot, TemplateTarget target) {
+        if (target.searchAreaPct != null) {
+            return target.searchAreaPct.toClientPixels(clientShot.getWidth(), clientShot.getHeight());
+        }
+        return target.searchArea;
+    }
 }
@@ -0,0 +1,24 @@
+package io.deskpilot.engine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Monotonic count (Prometheus counter). Thread-safe. */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {}
+
+    public void inc() {
+        value.increment();
+    }
+
+    public void add(long n) {
+        if (n < 0) throw new IllegalArgumentException("counter increments must be >= 0");
+        value.add(n);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,73 @@
+package io.deskpilot.engine.metrics;
+
+/**
+ * Metric names recorded by the engine, so call sites and dashboards agree on spelling.
+ *
+ *   deskpilot_captures_total / deskpilot_capture_duration_seconds
+ *   deskpilot_locate_attempts_total{kind,status} / deskpilot_locate_duration_seconds{kind}
+ *   deskpilot_ocr_calls_total / deskpilot_ocr_duration_seconds
+ *   deskpilot_ocr_cache_lookups_total{result="hit|miss"}
+ *   deskpilot_ocr_pool_borrows_total{waited} / deskpilot_ocr_pool_wait_seconds
+ *   deskpilot_stability_wait_seconds{result="stable|timeout"}
+ *   deskpilot_action_retries_total
+ *   deskpilot_timeouts_total{op}
+ */
+public final class EngineMetrics {
+
+    public static final String CAPTURES = "deskpilot_captures_total";
+    public static final String CAPTURE_SECONDS = "deskpilot_capture_duration_seconds";
+    public static final String LOCATE_ATTEMPTS = "deskpilot_locate_attempts_total";
+    public static final String LOCATE_SECONDS = "deskpilot_locate_duration_seconds";
+    public static final String OCR_CALLS = "deskpilot_ocr_calls_total";
+    public static final String OCR_SECONDS = "deskpilot_ocr_duration_seconds";
+    public static final String OCR_CACHE_LOOKUPS = "deskpilot_ocr_cache_lookups_total";
+    public static final String OCR_WARMUP_SECONDS = "deskpilot_ocr_warmup_seconds";
+    public static final String OCR_WARMUP_WAIT_SECONDS = "deskpilot_ocr_warmup_wait_seconds";
+    public static final String OCR_FIRST_CALL_SECONDS = "deskpilot_ocr_first_call_after_attach_seconds";
+    public static final String OCR_POLLS_SKIPPED = "deskpilot_ocr_polls_skipped_total";
+    public static final String OCR_WORD_INDEX = "deskpilot_ocr_word_index_total";
+    public static final String OCR_POOL_BORROWS = "deskpilot_ocr_pool_borrows_total";
+    public static final String OCR_POOL_WAIT_SECONDS = "deskpilot_ocr_pool_wait_seconds";
+    public static final String STABILITY_WAIT_SECONDS = "deskpilot_stability_wait_seconds";
+    public static final String ACTION_RETRIES = "deskpilot_action_retries_total";
+    public static final String TIMEOUTS = "deskpilot_timeouts_total";
+
+    private EngineMetrics() {}
+
+    /** Registry with # HELP text for every engine metric. */
+    public static MetricsRegistry newRegistry() {
+        return new MetricsRegistry()
+                .describe(CAPTURES, "Screen captures taken.")
+                .describe(CAPTURE_SECONDS, "Screen capture latency.")
+                .describe(LOCATE_ATTEMPTS, "Locator attempts by kind and result status.")
+                .describe(LOCATE_SECONDS, "Locator attempt latency by kind.")
+                .describe(OCR_CALLS, "OCR engine calls.")
+                .describe(OCR_SECONDS, "OCR engine call latency.")
+                .describe(OCR_CACHE_LOOKUPS, "OCR result cache lookups by result (hit|miss).")
+                .describe(OCR_WARMUP_SECONDS, "Background OCR warmup (tessdata, native library, one throwaway recognition) duration at attach.")
+                .describe(OCR_WARMUP_WAIT_SECONDS, "Time the first OCR call blocked on the attach warmup.")
+                .describe(OCR_FIRST_CALL_SECONDS, "Time from attach to the first completed OCR call.")
+                .describe(OCR_POLLS_SKIPPED, "Text-wait polls that skipped OCR because the region pixels were unchanged.")
+                .describe(OCR_WORD_INDEX, "Region reads answered from the frame word index, by result (hit|build).")
+                .describe(OCR_POOL_BORROWS, "OCR engine leases, by whether the caller had to wait.")
+                .describe(OCR_POOL_WAIT_SECONDS, "Time spent waiting for a pooled OCR engine.")
+                .describe(STABILITY_WAIT_SECONDS, "Time spent waiting for the UI to stabilize.")
+                .describe(ACTION_RETRIES, "Action attempts after the first one.")
+                .describe(TIMEOUTS, "Operations that gave up after their timeout.");
+    }
+
+    public static void locate(MetricsRegistry m, Object kind, Object status, long startNanos) {
+        String k = String.valueOf(kind);
+        m.counter(LOCATE_ATTEMPTS, "kind", k, "status", String.valueOf(status)).inc();
+        m.histogram(LOCATE_SECONDS, "kind", k).recordSince(startNanos);
+    }
+
+    public static void ocr(MetricsRegistry m, long startNanos) {
+        m.counter(OCR_CALLS).inc();
+        m.histogram(OCR_SECONDS).recordSince(startNanos);
+    }
+
+    public static void timeout(MetricsRegistry m, String op) {
+        m.counter(TIMEOUTS, "op", op).inc();
+    }
+}
@@ -0,0 +1,243 @@
+package io.deskpilot.engine.metrics;
+
+import io.deskpilot.engine.util.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Dependency-free counters and latency histograms.
+ *
+ * - Metrics are identified by name + label pairs: {@code counter("deskpilot_locate_attempts_total", "kind", "TEMPLATE")}.
+ * - Each session owns a registry ({@code DeskPilotSession.metrics()}); on close it is merged into
+ *   {@link #process()}, which accumulates across all sessions of the JVM (useful for suites).
+ * - Export: Prometheus text exposition format ({@link #toPrometheus()}) or JSON ({@link #toJson()}).
+ *
+ * Histograms record nanoseconds and are exported in seconds, per Prometheus conventions.
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry PROCESS = new MetricsRegistry();
+
+    /** Prometheus "le" bounds: powers of two from ~1us to ~1100s. */
+    private static final int LE_MIN_POW2 = 10;
+    private static final int LE_MAX_POW2 = 40;
+
+    private static final Pattern METRIC_NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_NAME = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    /** Names that already passed validation; metric calls sit on hot paths, so each is matched once. */
+    private static final Set<String> VALID_METRIC_NAMES = ConcurrentHashMap.newKeySet();
+    private static final Set<String> VALID_LABEL_NAMES = ConcurrentHashMap.newKeySet();
+
+    private record Key(String name, Map<String, String> labels) {}
+
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Key, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, String> help = new ConcurrentHashMap<>();
+
+    /** JVM-wide registry that every closed session is merged into. */
+    public static MetricsRegistry process() {
+        return PROCESS;
+    }
+
+    public Counter counter(String name, String... labels) {
+        return counters.computeIfAbsent(key(name, labels), k -> new Counter());
+    }
+
+    public Histogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(key(name, labels), k -> new Histogram());
+    }
+
+    /** Optional # HELP text for a metric name. */
+    public MetricsRegistry describe(String name, String text) {
+        help.put(name, text);
+        return this;
+    }
+
+    /** Current value of a counter, 0 if it was never touched. */
+    public long counterValue(String name, String... labels) {
+        Counter c = counters.get(key(name, labels));
+        return c == null ? 0 : c.get();
+    }
+
+    /** Existing histogram or null. */
+    public Histogram findHistogram(String name, String... labels) {
+        return histograms.get(key(name, labels));
+    }
+
+    /** Adds all values of {@code other} into this registry. */
+    public void mergeFrom(MetricsRegistry other) {
+        if (other == null || other == this) return;
+        other.counters.forEach((k, c) -> counters.computeIfAbsent(k, x -> new Counter()).add(c.get()));
+        other.histograms.forEach((k, h) -> histograms.computeIfAbsent(k, x -> new Histogram()).mergeFrom(h));
+        help.putAll(other.help);
+    }
+
+    // ---------------- export ----------------
+
+    public String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+
+        Map<String, List<Map.Entry<Key, Counter>>> cs = new TreeMap<>();
+        for (var e : counters.entrySet()) cs.computeIfAbsent(e.getKey().name, n -> new ArrayList<>()).add(e);
+        for (var byName : cs.entrySet()) {
+            header(sb, byName.getKey(), "counter");
+            byName.getValue().sort((a, b) -> labelText(a.getKey().labels, null).compareTo(labelText(b.getKey().labels, null)));
+            for (var e : byName.getValue()) {
+                sb.append(byName.getKey()).append(labelText(e.getKey().labels, null))
+                        .append(' ').append(e.getValue().get()).append('\n');
+            }
+        }
+
+        Map<String, List<Map.Entry<Key, Histogram>>> hs = new TreeMap<>();
+        for (var e : histograms.entrySet()) hs.computeIfAbsent(e.getKey().name, n -> new ArrayList<>()).add(e);
+        for (var byName : hs.entrySet()) {
+            String n = byName.getKey();
+            header(sb, n, "histogram");
+            byName.getValue().sort((a, b) -> labelText(a.getKey().labels, null).compareTo(labelText(b.getKey().labels, null)));
+            for (var e : byName.getValue()) {
+                Map<String, String> l = e.getKey().labels;
+                Histogram h = e.getValue();
+                for (int p = LE_MIN_POW2; p <= LE_MAX_POW2; p++) {
+                    long bound = (1L << p) - 1;
+                    sb.append(n).append("_bucket").append(labelText(l, seconds(bound + 1)))
+                            .append(' ').append(h.countAtOrBelow(bound)).append('\n');
+                }
+                sb.append(n).append("_bucket").append(labelText(l, "+Inf")).append(' ').append(h.count()).append('\n');
+                sb.append(n).append("_sum").append(labelText(l, null)).append(' ').append(seconds(h.sumNanos())).append('\n');
+                sb.append(n).append("_count").append(labelText(l, null)).append(' ').append(h.count()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\n  \"counters\": [");
+        boolean first = true;
+        for (var e : sorted(counters)) {
+            sb.append(first ? "\n" : ",\n");
+            first = false;
+            sb.append("    {\"name\": ").append(Json.quote(e.getKey().name))
+                    .append(", \"labels\": ").append(labelsJson(e.getKey().labels))
+                    .append(", \"value\": ").append(e.getValue().get()).append('}');
+        }
+        sb.append(first ? "],\n" : "\n  ],\n");
+
+        sb.append("  \"histograms\": [");
+        first = true;
+        for (var e : sorted(histograms)) {
+            Histogram h = e.getValue();
+            sb.append(first ? "\n" : ",\n");
+            first = false;
+            sb.append("    {\"name\": ").append(Json.quote(e.getKey().name))
+                    .append(", \"labels\": ").append(labelsJson(e.getKey().labels))
+                    .append(", \"count\": ").append(h.count())
+                    .append(", \"sumSeconds\": ").append(seconds(h.sumNanos()))
+                    .append(", \"maxSeconds\": ").append(seconds(h.maxNanos()))
+                    .append(", \"p50Seconds\": ").append(seconds(h.percentileNanos(0.50)))
+                    .append(", \"p90Seconds\": ").append(seconds(h.percentileNanos(0.90)))
+                    .append(", \"p99Seconds\": ").append(seconds(h.percentileNanos(0.99)))
+                    .append('}');
+        }
+        sb.append(first ? "]\n" : "\n  ]\n");
+        return sb.append("}\n").toString();
+    }
+
+    /** Writes metrics.prom and metrics.json into {@code dir}. */
+    public void writeTo(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("metrics.prom"), toPrometheus(), StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve("metrics.json"), toJson(), StandardCharsets.UTF_8);
+    }
+
+    // ---------------- helpers ----------------
+
+    private static Key key(String name, String... labels) {
+        if (!isValid(name, METRIC_NAME, VALID_METRIC_NAMES)) {
+            throw new IllegalArgumentException("Bad metric name: " + name);
+        }
+        if (labels == null || labels.length == 0) return new Key(name, Collections.emptyMap());
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("labels must be key/value pairs");
+
+        Map<String, String> m = new TreeMap<>();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!isValid(labels[i], LABEL_NAME, VALID_LABEL_NAMES)) {
+                throw new IllegalArgumentException("Bad label name: " + labels[i]);
+            }
+            m.put(labels[i], labels[i + 1] == null ? "" : labels[i + 1]);
+        }
+        return new Key(name, Collections.unmodifiableMap(m));
+    }
+
+    private static boolean isValid(String name, Pattern pattern, Set<String> known) {
+        if (name == null) return false;
+        if (known.contains(name)) return true;
+        if (!pattern.matcher(name).matches()) return false;
+        known.add(name);
+        return true;
+    }
+
+    private void header(StringBuilder sb, String name, String type) {
+        String h = help.get(name);
+        if (h != null) sb.append("# HELP ").append(name).append(' ').append(h.replace("\n", " ")).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String labelText(Map<String, String> labels, String le) {
+        if (labels.isEmpty() && le == null) return "";
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (var e : labels.entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append(e.getKey()).append("=\"").append(escapeLabel(e.getValue())).append('"');
+        }
+        if (le != null) {
+            if (!first) sb.append(',');
+            sb.append("le=\"").append(le).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String escapeLabel(String v) {
+        return v.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9).replaceAll("0+$", "").replaceAll("\\.$", ".0");
+    }
+
+    private static <T> List<Map.Entry<Key, T>> sorted(Map<Key, T> m) {
+        List<Map.Entry<Key, T>> out = new ArrayList<>(m.entrySet());
+        out.sort((a, b) -> {
+            int c = a.getKey().name.compareTo(b.getKey().name);
+            return c != 0 ? c : labelText(a.getKey().labels, null).compareTo(labelText(b.getKey().labels, null));
+        });
+        return out;
+    }
+
+    private static String labelsJson(Map<String, String> labels) {
+        Map<String, String> m = new LinkedHashMap<>(labels);
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (var e : m.entrySet()) {
+            if (!first) sb.append(", ");
+            first = false;
+            sb.append(Json.quote(e.getKey())).append(": ").append(Json.quote(e.getValue()));
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,117 @@
+package io.deskpilot.engine.ocr;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Approximate substring matching for OCR text: the smallest edit distance (insert, delete,
+ * substitute) between a pattern and any substring of the text.
+ *
+ * - Patterns up to 64 chars use Myers' bit-parallel algorithm: O(n) word operations per text,
+ *   one long per column instead of a DP row.
+ * - Longer patterns fall back to the classic O(n*m) Sellers DP (same result, slower).
+ * - Inputs are compared as given; normalize both sides first (see {@link OcrText#normalizeForMatch}).
+ * - An edit budget is capped at a third of the pattern length ({@link #requireMaxEdits}): with
+ *   maxEdits >= length every text matches, even an empty one.
+ */
+public final class FuzzyMatch {
+
+    private FuzzyMatch() {}
+
+    /** Smallest edit distance of {@code pattern} to any substring of {@code text} (0 = exact occurrence). */
+    public static int bestDistance(String pattern, String text) {
+        if (pattern == null) throw new IllegalArgumentException("pattern is null");
+        if (text == null) text = "";
+        int m = pattern.length();
+        if (m == 0) return 0;
+        return m <= 64 ? myers(pattern, text) : sellers(pattern, text);
+    }
+
+    /** True if {@code pattern} occurs in {@code text} with at most {@code maxEdits} edits. */
+    public static boolean contains(String pattern, String text, int maxEdits) {
+        requireMaxEdits(pattern, maxEdits);
+        if (text != null && text.contains(pattern)) return true;
+        return maxEdits > 0 && bestDistance(pattern, text) <= maxEdits;
+    }
+
+    /** Largest edit budget accepted for {@code pattern}: a third of its length (0 below 3 chars). */
+    public static int maxEditsFor(String pattern) {
+        if (pattern == null) throw new IllegalArgumentException("pattern is null");
+        return pattern.length() / 3;
+    }
+
+    /** Rejects a negative edit budget or one above {@link #maxEditsFor} the pattern. */
+    public static void requireMaxEdits(String pattern, int maxEdits) {
+        if (maxEdits < 0) throw new IllegalArgumentException("maxEdits must be >= 0");
+        int limit = maxEditsFor(pattern);
+        if (maxEdits > limit)
+            throw new IllegalArgumentException("maxEdits must be <= " + limit + " for \"" + pattern
+                    + "\" (a third of its length): " + maxEdits);
+    }
+
+    private static int myers(String pattern, String text) {
+        int m = pattern.length();
+        long[] peq = new long[128];
+        Map<Character, Long> peqWide = null; // rare non-ASCII pattern chars
+        for (int i = 0; i < m; i++) {
+            char c = pattern.charAt(i);
+            if (c < 128) {
+                peq[c] |= 1L << i;
+            } else {
+                if (peqWide == null) peqWide = new HashMap<>();
+                peqWide.merge(c, 1L << i, (a, b) -> a | b);
+            }
+        }
+
+        long high = 1L << (m - 1);
+        long pv = -1L; // vertical deltas of column 0 are all +1
+        long mv = 0L;
+        int score = m;
+        int best = m;
+
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+            long eq = c < 128 ? peq[c] : (peqWide == null ? 0L : peqWide.getOrDefault(c, 0L));
+
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if ((ph & high) != 0) score++;
+            else if ((mh & high) != 0) score--;
+
+            // search variant: row 0 stays 0 (a match may start anywhere), so no carry-in bit
+            ph <<= 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+
+            if (score < best) {
+                best = score;
+                if (best == 0) break;
+            }
+        }
+        return best;
+    }
+
+    private static int sellers(String pattern, String text) {
+        int m = pattern.length();
+        int[] col = new int[m + 1];
+        for (int i = 0; i <= m; i++) col[i] = i;
+        int best = m;
+
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+            int diag = 0; // row 0 is always 0
+            for (int i = 1; i <= m; i++) {
+                int up = col[i];
+                int v = Math.min(Math.min(col[i] + 1, col[i - 1] + 1), diag + (pattern.charAt(i - 1) == c ? 0 : 1));
+                diag = up;
+                col[i] = v;
+            }
+            if (col[m] < best) best = col[m];
+        }
+        return best;
+    }
+}
@@ -0,0 +1,140 @@
+package io.deskpilot.engine.ocr;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho–Corasick automaton over {@link OcrText#normalizeForMatch normalized} text: finds which of N
+ * patterns occur in one left-to-right pass, regardless of N.
+ *
+ * Rules:
+ * - Patterns and text are normalized with {@link OcrText#normalizeForMatch}; the alphabet is
+ *   therefore a-z, 0-9 and space, and the automaton is a dense DFA over those 37 symbols.
+ * - Pattern indices follow construction order; callers use it as priority when several match.
+ * - Immutable and thread-safe once built.
+ */
+public final class MultiPatternMatcher {
+
+    private static final int ALPHABET = 37;
+
+    private final List<String> patterns;
+    private final int[][] next;   // state x symbol -> state (failure links folded in)
+    private final int[][] output; // state -> pattern indices ending here (via failure chain)
+
+    public MultiPatternMatcher(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) throw new IllegalArgumentException("patterns is empty");
+
+        List<String> norm = new ArrayList<>(patterns.size());
+        for (String p : patterns) {
+            String n = OcrText.normalizeForMatch(p);
+            if (n.isEmpty()) throw new IllegalArgumentException("pattern is blank after normalization: '" + p + "'");
+            norm.add(n);
+        }
+        this.patterns = List.copyOf(norm);
+
+        // 1) trie
+        List<int[]> go = new ArrayList<>();
+        List<int[]> out = new ArrayList<>();
+        go.add(newRow());
+        out.add(new int[0]);
+        for (int pi = 0; pi < norm.size(); pi++) {
+            int s = 0;
+            for (char c : norm.get(pi).toCharArray()) {
+                int a = symbol(c);
+                if (go.get(s)[a] < 0) {
+                    go.get(s)[a] = go.size();
+                    go.add(newRow());
+                    out.add(new int[0]);
+                }
+                s = go.get(s)[a];
+            }
+            out.set(s, append(out.get(s), pi));
+        }
+
+        // 2) failure links, BFS; missing edges point where the failure state would go
+        int[] fail = new int[go.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int a = 0; a < ALPHABET; a++) {
+            int t = go.get(0)[a];
+            if (t < 0) {
+                go.get(0)[a] = 0;
+            } else {
+                fail[t] = 0;
+                queue.add(t);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int a = 0; a < ALPHABET; a++) {
+                int t = go.get(s)[a];
+                if (t < 0) {
+                    go.get(s)[a] = go.get(fail[s])[a];
+                } else {
+                    fail[t] = go.get(fail[s])[a];
+                    out.set(t, merge(out.get(t), out.get(fail[t])));
+                    queue.add(t);
+                }
+            }
+        }
+
+        this.next = go.toArray(new int[0][]);
+        this.output = out.toArray(new int[0][]);
+    }
+
+    /** Normalized patterns, in priority order. */
+    public List<String> patterns() {
+        return patterns;
+    }
+
+    /** Indices of all patterns occurring in {@code text}, ascending. */
+    public int[] matches(String text) {
+        boolean[] seen = new boolean[patterns.size()];
+        int found = 0;
+        int s = 0;
+        for (char c : OcrText.normalizeForMatch(text).toCharArray()) {
+            s = next[s][symbol(c)];
+            for (int pi : output[s]) {
+                if (!seen[pi]) {
+                    seen[pi] = true;
+                    if (++found == seen.length) break;
+                }
+            }
+        }
+        int[] res = new int[found];
+        for (int i = 0, k = 0; i < seen.length; i++) if (seen[i]) res[k++] = i;
+        return res;
+    }
+
+    /** Lowest-index (highest-priority) pattern occurring in {@code text}, or -1. */
+    public int firstMatch(String text) {
+        int[] m = matches(text);
+        return m.length == 0 ? -1 : m[0];
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= '0' && c <= '9') return 26 + (c - '0');
+        return 36; // space: the only other character left by normalization
+    }
+
+    private static int[] newRow() {
+        int[] r = new int[ALPHABET];
+        Arrays.fill(r, -1);
+        return r;
+    }
+
+    private static int[] append(int[] a, int v) {
+        int[] r = Arrays.copyOf(a, a.length + 1);
+        r[a.length] = v;
+        return r;
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        if (b.length == 0) return a;
+        int[] r = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, r, a.length, b.length);
+        return r;
+    }
+}
@@ -5,7 +5,17 @@ public final class OcrConfig {
     public enum Preset {
         DEFAULT,
         TEXT_UI,
-        LIGHT_BG
+        LIGHT_BG,
+        /** Threshold derived from the crop itself (Otsu, or Sauvola on uneven backgrounds). */
+        AUTO
+    }
+
+    /** Data-driven binarization; overrides {@link #threshold01_255} when set. */
+    public enum Adaptive {
+        /** Otsu when the histogram is clearly two-toned, Sauvola otherwise. */
+        AUTO,
+        OTSU,
+        SAUVOLA
     }
 
     public final Preset preset;
@@ -15,12 +25,19 @@ public final class OcrConfig {
 
     // optional future knobs
     public final Integer threshold01_255; // null = no threshold
+    public final Adaptive adaptive;        // null = fixed threshold01_255 (or none)
+
+    /** Tesseract settings (PSM, OEM, white/blacklist, DPI hint); never null. */
+    public final TesseractProfile profile;
 
-    private OcrConfig(Preset preset, boolean grayscale, double scaleFactor, Integer threshold01_255) {
+    private OcrConfig(Preset preset, boolean grayscale, double scaleFactor, Integer threshold01_255, Adaptive adaptive,
+                      TesseractProfile profile) {
         this.preset = preset;
         this.grayscale = grayscale;
         this.scaleFactor = scaleFactor;
         this.threshold01_255 = threshold01_255;
+        this.adaptive = adaptive;
+        this.profile = profile;
     }
 
     public static OcrConfig defaults() {
@@ -31,19 +48,61 @@ public final class OcrConfig {
         if (p == null) throw new IllegalArgumentException("preset is null");
 
         return switch (p) {
-            case DEFAULT  -> new OcrConfig(p, true, 2.0, null);
-            case TEXT_UI  -> new OcrConfig(p, true, 3.0, 165);
-            case LIGHT_BG -> new OcrConfig(p, true, 2.5, 200);
+            case DEFAULT  -> new OcrConfig(p, true, 2.0, null, null, TesseractProfile.DEFAULT);
+            case TEXT_UI  -> new OcrConfig(p, true, 3.0, 165, null, TesseractProfile.DEFAULT);
+            case LIGHT_BG -> new OcrConfig(p, true, 2.5, 200, null, TesseractProfile.DEFAULT);
+            case AUTO     -> new OcrConfig(p, true, 3.0, null, Adaptive.AUTO, TesseractProfile.DEFAULT);
         };
     }
 
+    /** Stable identity of every setting that changes OCR output (cache keys). */
+    public String key() {
+        return preset + "|gray=" + grayscale + "|scale=" + scaleFactor + "|thr=" + threshold01_255
+                + "|adaptive=" + adaptive + "|" + profile.key();
+    }
+
     public OcrConfig withScale(double factor) {
         if (factor <= 0) throw new IllegalArgumentException("scaleFactor must be > 0");
-        return new OcrConfig(this.preset, this.grayscale, factor, this.threshold01_255);
+        return new OcrConfig(this.preset, this.grayscale, factor, this.threshold01_255, this.adaptive, this.profile);
     }
 
+    /** Fixed threshold; clears any adaptive mode. */
     public OcrConfig withThreshold(int t) {
         if (t < 0 || t > 255) throw new IllegalArgumentException("threshold must be 0..255");
-        return new OcrConfig(this.preset, this.grayscale, this.scaleFactor, t);
+        return new OcrConfig(this.preset, this.grayscale, this.scaleFactor, t, null, this.profile);
+    }
+
+    /** Adaptive threshold computed per crop (forces grayscale); null goes back to the fixed threshold. */
+    public OcrConfig withAdaptive(Adaptive mode) {
+        return new OcrConfig(this.preset, mode != null || this.grayscale, this.scaleFactor, this.threshold01_255, mode,
+                this.profile);
+    }
+
+    public OcrConfig withProfile(TesseractProfile profile) {
+        if (profile == null) throw new IllegalArgumentException("profile is null");
+        return new OcrConfig(this.preset, this.grayscale, this.scaleFactor, this.threshold01_255, this.adaptive, profile);
+    }
+
+    /** Page segmentation mode, e.g. {@link TesseractProfile#PSM_SINGLE_LINE} for one-line fields. */
+    public OcrConfig withPsm(int psm) {
+        return withProfile(profile.withPsm(psm));
+    }
+
+    public OcrConfig withOem(int oem) {
+        return withProfile(profile.withOem(oem));
+    }
+
+    /** Only these characters may be recognized (e.g. "0123456789.,-" for numeric cells). */
+    public OcrConfig withWhitelist(String chars) {
+        return withProfile(profile.withWhitelist(chars));
+    }
+
+    public OcrConfig withBlacklist(String chars) {
+        return withProfile(profile.withBlacklist(chars));
+    }
+
+    /** DPI hint for Tesseract (crops carry no DPI metadata); 0 = let Tesseract guess. */
+    public OcrConfig withUserDpi(int dpi) {
+        return withProfile(profile.withUserDpi(dpi));
     }
 }
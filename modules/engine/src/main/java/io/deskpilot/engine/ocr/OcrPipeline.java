@@ -1,16 +1,77 @@
 package io.deskpilot.engine.ocr;
 
 import io.deskpilot.engine.ImagePreprocess;
+import io.deskpilot.engine.image.Binarize;
+import io.deskpilot.engine.image.GrayKernel;
+import io.deskpilot.engine.trace.Span;
+import io.deskpilot.engine.trace.Trace;
 
 import java.awt.image.BufferedImage;
 
 public final class OcrPipeline {
 
+    // Otsu's separability for rendered UI text is typically > 0.85; gradients pull it down
+    private static final double OTSU_MIN_SEPARABILITY = 0.75;
+    private static final double SAUVOLA_K = 0.34;
+
     private OcrPipeline() {}
 
 public static Result preprocess(BufferedImage cropped, OcrConfig cfg) {
     if (cropped == null) throw new IllegalArgumentException("cropped is null");
-    if (cfg == null) cfg = OcrConfig.defaults();
+    try (Span s = Trace.span("ocr.preprocess", "ocr")) {
+        s.arg("w", cropped.getWidth()).arg("h", cropped.getHeight());
+        return preprocessImpl(cropped, cfg == null ? OcrConfig.defaults() : cfg);
+    }
+}
+
+private static Result preprocessImpl(BufferedImage cropped, OcrConfig cfg) {
+
+    if (cfg.adaptive != null) {
+        return adaptive(cropped, cfg);
+    }
+
+    // One fused pass (gray + bilinear scale + threshold) straight into TYPE_BYTE_GRAY.
+    // -Ddeskpilot.ocr.legacyPreprocess=true keeps the three-pass Graphics2D pipeline below.
+    if (cfg.grayscale && !Boolean.getBoolean("deskpilot.ocr.legacyPreprocess")) {
+        int t = cfg.threshold01_255 == null ? -1 : cfg.threshold01_255;
+        return new Result(GrayKernel.grayScaleThreshold(cropped, cfg.scaleFactor, t), cfg.scaleFactor,
+                t < 0 ? "none" : "fixed:" + t);
+    }
+
+    return preprocessLegacy(cropped, cfg);
+}
+
+/**
+ * Gray + scale in one pass, then a threshold computed from the crop:
+ * Otsu when its separability is high (two clean tones), otherwise Sauvola (gradients, uneven
+ * backgrounds). Light-on-dark results are inverted so Tesseract always sees dark text.
+ */
+private static Result adaptive(BufferedImage cropped, OcrConfig cfg) {
+    BufferedImage img = GrayKernel.grayScaleThreshold(cropped, cfg.scaleFactor, -1);
+
+    String how;
+    Binarize.Otsu otsu = cfg.adaptive == OcrConfig.Adaptive.SAUVOLA ? null : Binarize.otsu(img);
+    if (otsu != null && (cfg.adaptive == OcrConfig.Adaptive.OTSU || otsu.separability() >= OTSU_MIN_SEPARABILITY)) {
+        Binarize.threshold(img, otsu.threshold());
+        how = "otsu:" + otsu.threshold();
+    } else {
+        int window = sauvolaWindow(img);
+        Binarize.sauvola(img, window, SAUVOLA_K);
+        how = "sauvola:" + window;
+    }
+    if (Binarize.normalizePolarity(img)) how += ":inverted";
+
+    return new Result(img, cfg.scaleFactor, how);
+}
+
+/** Odd window about a quarter of the short side (roughly one text line), 15..61 px. */
+private static int sauvolaWindow(BufferedImage img) {
+    int w = Math.max(15, Math.min(61, Math.min(img.getWidth(), img.getHeight()) / 4));
+    return w | 1;
+}
+
+/** Original three-pass pipeline; also the reference the fused kernel is tested against. */
+static Result preprocessLegacy(BufferedImage cropped, OcrConfig cfg) {
 
     BufferedImage img = cropped;
 
@@ -27,7 +88,8 @@ public static Result preprocess(BufferedImage cropped, OcrConfig cfg) {
         img = ImagePreprocess.threshold(img, cfg.threshold01_255);
     }
 
-    return new Result(img, cfg.scaleFactor);
+    return new Result(img, cfg.scaleFactor,
+            cfg.threshold01_255 == null ? "none" : "fixed:" + cfg.threshold01_255);
 }
 
 
@@ -35,10 +97,17 @@ public static Result preprocess(BufferedImage cropped, OcrConfig cfg) {
     public static final class Result {
         public final BufferedImage preprocessed;
         public final double scaleFactor;
+        /** How the image was binarized: none, fixed:165, otsu:142, sauvola:31[:inverted]. */
+        public final String binarization;
 
         public Result(BufferedImage preprocessed, double scaleFactor) {
+            this(preprocessed, scaleFactor, "none");
+        }
+
+        public Result(BufferedImage preprocessed, double scaleFactor, String binarization) {
             this.preprocessed = preprocessed;
             this.scaleFactor = scaleFactor;
+            this.binarization = binarization;
         }
     }
 }
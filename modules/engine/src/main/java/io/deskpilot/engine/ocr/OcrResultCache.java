@@ -0,0 +1,180 @@
+package io.deskpilot.engine.ocr;
+
+import io.deskpilot.engine.metrics.EngineMetrics;
+import io.deskpilot.engine.metrics.MetricsRegistry;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Per-session memo of OCR output keyed by (kind, SHA-256 of the preprocessed pixels, OCR config).
+ *
+ * Rules:
+ * - Tesseract is deterministic for identical input, so an unchanged region is answered from memory
+ *   instead of a 100-400 ms OCR call.
+ * - The hash is cryptographic on purpose: a collision would silently return another region's text.
+ * - LRU eviction once maxEntries is reached; maxEntries == 0 disables the cache.
+ * - Values must be immutable (String, List.copyOf(...)).
+ */
+public final class OcrResultCache {
+
+    public static final String TEXT = "text";
+    public static final String WORDS = "words";
+
+    private record Key(String kind, String imageSha256, String configKey) {}
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Object> entries;
+    private volatile MetricsRegistry metrics;
+
+    private long hits;
+    private long misses;
+
+    public OcrResultCache(int maxEntries) {
+        if (maxEntries < 0) throw new IllegalArgumentException("maxEntries must be >= 0");
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > OcrResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    public boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    /** Also count lookups as {@code deskpilot_ocr_cache_lookups_total{result="hit|miss"}}. */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the memoized value for this image/config, or runs {@code ocr} and remembers its result.
+     * The OCR call runs outside the lock, so two threads may compute the same key once each.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T computeIfAbsent(String kind, BufferedImage preprocessed, String configKey, Callable<T> ocr)
+            throws Exception {
+        if (!enabled()) return ocr.call();
+
+        Key key = new Key(kind, imageHash(preprocessed), configKey == null ? "" : configKey);
+        Object cached;
+        synchronized (this) {
+            cached = entries.get(key);
+            if (cached != null) hits++;
+            else misses++;
+        }
+        record(cached != null);
+        if (cached != null) return (T) cached;
+
+        T value = ocr.call();
+        if (value != null) {
+            synchronized (this) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /** Hits / lookups, 0 before the first lookup. */
+    public synchronized double hitRate() {
+        long n = hits + misses;
+        return n == 0 ? 0.0 : (double) hits / n;
+    }
+
+    private void record(boolean hit) {
+        MetricsRegistry m = metrics;
+        if (m != null) m.counter(EngineMetrics.OCR_CACHE_LOOKUPS, "result", hit ? "hit" : "miss").inc();
+    }
+
+    /**
+     * Hex SHA-256 over size, type and pixels. Plain byte rasters are digested in place and INT RGB
+     * rasters without per-pixel calls; everything else goes through getRGB. Two layouts of the same
+     * pixels may hash differently (a cache miss), never the other way round.
+     */
+    public static String imageHash(BufferedImage img) {
+        if (img == null) throw new IllegalArgumentException("img is null");
+
+        MessageDigest md = sha256();
+        int w = img.getWidth();
+        int h = img.getHeight();
+        md.update(new byte[]{
+                (byte) (w >>> 24), (byte) (w >>> 16), (byte) (w >>> 8), (byte) w,
+                (byte) (h >>> 24), (byte) (h >>> 16), (byte) (h >>> 8), (byte) h,
+                (byte) img.getType()});
+
+        Raster r = img.getRaster();
+        boolean plain = r.getParent() == null && r.getSampleModelTranslateX() == 0 && r.getSampleModelTranslateY() == 0;
+        if (plain && r.getDataBuffer() instanceof DataBufferByte db && db.getNumBanks() == 1) {
+            md.update(db.getData());
+        } else if (plain && r.getDataBuffer() instanceof DataBufferInt di && di.getNumBanks() == 1
+                && (img.getType() == BufferedImage.TYPE_INT_RGB || img.getType() == BufferedImage.TYPE_INT_ARGB)) {
+            int[] data = di.getData();
+            int alpha = img.getType() == BufferedImage.TYPE_INT_RGB ? 0xFF000000 : 0; // same bytes as getRGB
+            byte[] buf = new byte[Math.min(data.length, 4096) * 4];
+            for (int off = 0; off < data.length; ) {
+                int n = Math.min(data.length - off, buf.length / 4);
+                for (int i = 0; i < n; i++) {
+                    int v = data[off + i] | alpha;
+                    int j = i * 4;
+                    buf[j] = (byte) (v >>> 24);
+                    buf[j + 1] = (byte) (v >>> 16);
+                    buf[j + 2] = (byte) (v >>> 8);
+                    buf[j + 3] = (byte) v;
+                }
+                md.update(buf, 0, n * 4);
+                off += n;
+            }
+        } else {
+            int[] row = new int[w];
+            byte[] buf = new byte[w * 4];
+            for (int y = 0; y < h; y++) {
+                img.getRGB(0, y, w, 1, row, 0, w);
+                for (int x = 0; x < w; x++) {
+                    int v = row[x];
+                    int j = x * 4;
+                    buf[j] = (byte) (v >>> 24);
+                    buf[j + 1] = (byte) (v >>> 16);
+                    buf[j + 2] = (byte) (v >>> 8);
+                    buf[j + 3] = (byte) v;
+                }
+                md.update(buf);
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
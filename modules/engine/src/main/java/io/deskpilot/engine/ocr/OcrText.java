@@ -0,0 +1,30 @@
+package io.deskpilot.engine.ocr;
+
+import java.util.Locale;
+
+/**
+ * Text normalization shared by OCR comparisons (contains-locators, multi-pattern waits).
+ */
+public final class OcrText {
+
+    private OcrText() {}
+
+    /**
+     * Deterministic normalization for OCR comparisons:
+     * - lowercase
+     * - punctuation -> space (keeps ASCII letters/digits only)
+     * - collapse whitespace
+     */
+    public static String normalizeForMatch(String s) {
+        if (s == null) return "";
+        String x = s.toLowerCase(Locale.ROOT);
+
+        // replace punctuation-ish with spaces (keep letters/digits)
+        x = x.replaceAll("[^a-z0-9]+", " ");
+
+        // collapse whitespace
+        x = x.replaceAll("\\s+", " ").trim();
+
+        return x;
+    }
+}
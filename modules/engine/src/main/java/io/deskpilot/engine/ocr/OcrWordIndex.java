@@ -0,0 +1,215 @@
+package io.deskpilot.engine.ocr;
+
+import io.deskpilot.engine.OcrEngine.OcrWord;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Words of the OCR'd parts of a frame ("patches"), bucketed in a uniform grid for region queries.
+ *
+ * Rules:
+ * - A patch is one word-level OCR pass over a queried area (merged with the patches it overlaps),
+ *   never the whole client: a read outside every patch, or of a patch whose pixels changed,
+ *   re-reads only that patch ({@link #patchFor}, {@link #with}).
+ * - Each patch keeps the SHA-256 of its pixels (same digest as {@link OcrResultCache#imageHash}):
+ *   a change elsewhere in the frame (a clock, a spinner) does not invalidate other patches, and a
+ *   hash collision cannot hand back stale text.
+ * - Box coordinates are in frame pixels (unscaled); a word belongs to a region when its box centre
+ *   lies inside the region, so words cut by a region edge are counted once, not twice.
+ * - Immutable and thread-safe; {@link #with} returns a new index.
+ */
+public final class OcrWordIndex {
+
+    private static final int CELL = 64;
+
+    /** One OCR pass: the frame area read, the digest of its pixels then, and the words found in it. */
+    private record Patch(Rectangle area, String digest, List<OcrWord> words) {}
+
+    private final int frameWidth;
+    private final int frameHeight;
+    private final String configKey;
+    private final List<Patch> patches;
+    private final List<OcrWord> words;
+    private final Map<Long, List<Integer>> cells = new HashMap<>();
+
+    private OcrWordIndex(int frameWidth, int frameHeight, String configKey, List<Patch> patches) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.configKey = configKey;
+        this.patches = List.copyOf(patches);
+
+        List<OcrWord> all = new ArrayList<>();
+        for (Patch p : this.patches) all.addAll(p.words());
+        this.words = List.copyOf(all);
+
+        for (int i = 0; i < this.words.size(); i++) {
+            OcrWord w = this.words.get(i);
+            cells.computeIfAbsent(cell(Math.floorDiv(cx(w), CELL), Math.floorDiv(cy(w), CELL)), k -> new ArrayList<>()).add(i);
+        }
+    }
+
+    /** Index with nothing read yet, for frames of {@code frame}'s size read with {@code configKey}. */
+    public static OcrWordIndex empty(BufferedImage frame, String configKey) {
+        if (frame == null) throw new IllegalArgumentException("frame is null");
+        return new OcrWordIndex(frame.getWidth(), frame.getHeight(), configKey == null ? "" : configKey, List.of());
+    }
+
+    /**
+     * New index where the patches overlapping {@code area} are replaced by one patch: the words
+     * read from {@code frame}'s pixels in {@code area} (boxes in frame pixels).
+     */
+    public OcrWordIndex with(BufferedImage frame, Rectangle area, List<OcrWord> areaWords) {
+        if (frame == null) throw new IllegalArgumentException("frame is null");
+        if (area == null || area.isEmpty()) throw new IllegalArgumentException("area is empty");
+        if (areaWords == null) throw new IllegalArgumentException("words is null");
+        if (!sameSize(frame)) throw new IllegalArgumentException("frame size changed: start from empty()");
+
+        Rectangle a = clip(area);
+        if (a.isEmpty()) throw new IllegalArgumentException("area is outside the frame: " + area);
+        List<Patch> next = new ArrayList<>(patches.size() + 1);
+        for (Patch p : patches) {
+            if (!p.area().intersects(a)) next.add(p);
+        }
+        next.add(new Patch(a, digest(frame, a), List.copyOf(areaWords)));
+        return new OcrWordIndex(frameWidth, frameHeight, configKey, next);
+    }
+
+    /**
+     * Frame area to OCR so a read of {@code area} can be answered: {@code area} grown by
+     * {@code pad} (words cut by the region edge), merged with every patch it overlaps.
+     */
+    public Rectangle patchFor(Rectangle area, int pad) {
+        if (area == null) throw new IllegalArgumentException("area is null");
+        Rectangle out = clip(new Rectangle(area.x - pad, area.y - pad, area.width + 2 * pad, area.height + 2 * pad));
+        boolean grew = true;
+        while (grew) {
+            grew = false;
+            for (Patch p : patches) {
+                if (p.area().intersects(out) && !out.contains(p.area())) {
+                    out.add(p.area());
+                    grew = true;
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * True when a read of {@code area} on {@code frame} can be answered from this index: same
+     * OcrConfig and frame size, {@code area} inside one patch, and that patch's pixels unchanged.
+     */
+    public boolean matches(BufferedImage frame, Rectangle area, String configKey) {
+        if (frame == null || area == null) return false;
+        if (!this.configKey.equals(configKey) || !sameSize(frame)) return false;
+
+        Rectangle a = clip(area);
+        for (Patch p : patches) {
+            if (p.area().contains(a)) return p.digest().equals(digest(frame, p.area()));
+        }
+        return false;
+    }
+
+    public boolean sameSize(BufferedImage frame) {
+        return frame != null && frame.getWidth() == frameWidth && frame.getHeight() == frameHeight;
+    }
+
+    public String configKey() {
+        return configKey;
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    public int patches() {
+        return patches.size();
+    }
+
+    /** Words whose box centre lies inside {@code area}, in reading order. */
+    public List<OcrWord> words(Rectangle area) {
+        if (area == null) throw new IllegalArgumentException("area is null");
+        List<OcrWord> out = new ArrayList<>();
+        if (area.isEmpty()) return out;
+
+        int gx0 = Math.floorDiv(area.x, CELL);
+        int gy0 = Math.floorDiv(area.y, CELL);
+        int gx1 = Math.floorDiv(area.x + area.width - 1, CELL);
+        int gy1 = Math.floorDiv(area.y + area.height - 1, CELL);
+
+        for (int gy = gy0; gy <= gy1; gy++) {
+            for (int gx = gx0; gx <= gx1; gx++) {
+                List<Integer> bucket = cells.get(cell(gx, gy));
+                if (bucket == null) continue;
+                for (int i : bucket) {
+                    OcrWord w = words.get(i);
+                    if (area.contains(cx(w), cy(w))) out.add(w);
+                }
+            }
+        }
+        List<OcrWord> ordered = new ArrayList<>(out.size());
+        for (List<OcrWord> line : lines(out)) ordered.addAll(line);
+        return ordered;
+    }
+
+    /**
+     * Text inside {@code area}: words on the same line joined by a space, lines by '\n'
+     * (the shape {@link io.deskpilot.engine.OcrEngine#readText} returns for a crop of that area).
+     */
+    public String text(Rectangle area) {
+        StringBuilder sb = new StringBuilder();
+        for (List<OcrWord> line : lines(words(area))) {
+            if (sb.length() > 0) sb.append('\n');
+            for (int i = 0; i < line.size(); i++) {
+                if (i > 0) sb.append(' ');
+                sb.append(line.get(i).text);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Top-to-bottom lines (a word whose centre is below the current line's first box starts a new one), left-to-right within a line. */
+    private static List<List<OcrWord>> lines(List<OcrWord> in) {
+        List<OcrWord> byTop = new ArrayList<>(in);
+        byTop.sort(Comparator.comparingInt(OcrWordIndex::cy));
+
+        List<List<OcrWord>> out = new ArrayList<>();
+        List<OcrWord> line = null;
+        int lineBottom = Integer.MIN_VALUE;
+        for (OcrWord w : byTop) {
+            if (line == null || cy(w) > lineBottom) {
+                line = new ArrayList<>();
+                out.add(line);
+                lineBottom = w.box.y + w.box.height;
+            }
+            line.add(w);
+        }
+        for (List<OcrWord> l : out) l.sort(Comparator.comparingInt(x -> x.box.x));
+        return out;
+    }
+
+    private Rectangle clip(Rectangle r) {
+        return r.intersection(new Rectangle(0, 0, frameWidth, frameHeight));
+    }
+
+    private static String digest(BufferedImage frame, Rectangle area) {
+        return OcrResultCache.imageHash(frame.getSubimage(area.x, area.y, area.width, area.height));
+    }
+
+    private static int cx(OcrWord w) {
+        return w.box.x + w.box.width / 2;
+    }
+
+    private static int cy(OcrWord w) {
+        return w.box.y + w.box.height / 2;
+    }
+
+    private static long cell(int gx, int gy) {
+        return ((long) gx << 32) | (gy & 0xFFFFFFFFL);
+    }
+}
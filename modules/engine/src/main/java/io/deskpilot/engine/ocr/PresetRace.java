@@ -0,0 +1,113 @@
+package io.deskpilot.engine.ocr;
+
+import io.deskpilot.engine.trace.Trace;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs one OCR read per config concurrently and returns the first text that satisfies a predicate.
+ *
+ * - Reads go through {@link Reader} (preprocess + pooled OCR), so concurrency is bounded by the
+ *   OCR engine pool, not by this class.
+ * - As soon as a winner is found the remaining futures are cancelled: queued reads never start and
+ *   reads still waiting for an engine are interrupted. A Tesseract call already in progress cannot
+ *   be interrupted; it finishes in the background and its result is dropped.
+ * - Without a winner every read completes and all texts are reported for diagnostics.
+ */
+public final class PresetRace {
+
+    /** Preprocess {@code cfg} and OCR the result. */
+    @FunctionalInterface
+    public interface Reader {
+        String read(OcrConfig cfg) throws Exception;
+    }
+
+    /**
+     * @param winner  config that satisfied the predicate, null if none did
+     * @param texts   text per preset name for every read that completed, in completion order
+     */
+    public record Outcome(OcrConfig winner, String text, Map<String, String> texts, int cancelled) {
+        public boolean matched() {
+            return winner != null;
+        }
+    }
+
+    private record Read(OcrConfig cfg, String text) {}
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService SHARED = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "deskpilot-ocr-race-" + THREADS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private PresetRace() {}
+
+    /** Daemon executor used by the session; idle threads exit after a minute. */
+    public static ExecutorService sharedExecutor() {
+        return SHARED;
+    }
+
+    public static Outcome race(Collection<OcrConfig> configs, Reader reader, Predicate<String> accept,
+                               ExecutorService executor) throws Exception {
+        if (configs == null || configs.isEmpty()) throw new IllegalArgumentException("configs is empty");
+        if (reader == null) throw new IllegalArgumentException("reader is null");
+        if (accept == null) throw new IllegalArgumentException("accept is null");
+        if (executor == null) throw new IllegalArgumentException("executor is null");
+
+        ExecutorCompletionService<Read> ecs = new ExecutorCompletionService<>(executor);
+        List<Future<Read>> futures = new ArrayList<>(configs.size());
+        for (OcrConfig cfg : configs) {
+            futures.add(ecs.submit(Trace.wrap(() -> new Read(cfg, reader.read(cfg)))));
+        }
+
+        Map<String, String> texts = new LinkedHashMap<>();
+        Exception firstError = null;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Read r;
+                try {
+                    r = ecs.take().get();
+                } catch (ExecutionException e) {
+                    if (firstError == null) {
+                        firstError = e.getCause() instanceof Exception ex ? ex : new RuntimeException(e.getCause());
+                    }
+                    continue;
+                } catch (CancellationException e) {
+                    continue;
+                }
+
+                String text = r.text == null ? "" : r.text;
+                texts.put(r.cfg.preset.name(), text);
+                if (accept.test(text)) {
+                    return new Outcome(r.cfg, text, texts, cancelRest(futures));
+                }
+            }
+        } finally {
+            cancelRest(futures); // no-op after normal completion; stops work if we were interrupted
+        }
+
+        if (texts.isEmpty() && firstError != null) throw firstError;
+        return new Outcome(null, texts.isEmpty() ? "" : texts.values().iterator().next(), texts, 0);
+    }
+
+    private static int cancelRest(List<Future<Read>> futures) {
+        int n = 0;
+        for (Future<?> f : futures) {
+            if (!f.isDone() && f.cancel(true)) n++;
+        }
+        return n;
+    }
+}
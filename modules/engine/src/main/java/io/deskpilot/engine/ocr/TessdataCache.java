@@ -0,0 +1,174 @@
+package io.deskpilot.engine.ocr;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Persistent, versioned tessdata folder shared by every session and JVM on the machine.
+ *
+ * Layout: {@code <root>/<first 16 hex of sha256>/eng.traineddata} (+ {@code eng.traineddata.sha256}).
+ * The folder name is the content version, so a new traineddata never collides with an old one.
+ *
+ * - Root: -Ddeskpilot.tessdata.cache, default ~/.deskpilot/tessdata-cache
+ * - Expected checksum: classpath {@code /tessdata/<name>.sha256}, else computed from the resource
+ * - Install: copy to a unique temp file while hashing, verify, then rename into place; the .sha256
+ *   marker is renamed in last, so its presence means the data file is complete.
+ *   Concurrent JVMs race harmlessly: both write identical bytes, the last rename wins.
+ * - Hit: marker matches and size is plausible. -Ddeskpilot.tessdata.verify=true re-hashes the file.
+ */
+public final class TessdataCache {
+
+    /** Outcome of {@link #ensure}: the datapath to give Tesseract, and whether it was already there. */
+    public record Installed(Path datapath, boolean hit, long nanos) {
+        public long millis() {
+            return nanos / 1_000_000L;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Source {
+        InputStream open() throws IOException;
+    }
+
+    private final Path root;
+    private final boolean verify;
+
+    public TessdataCache(Path root, boolean verify) {
+        if (root == null) throw new IllegalArgumentException("root is null");
+        this.root = root;
+        this.verify = verify;
+    }
+
+    public static TessdataCache fromSystemProperties() {
+        String dir = System.getProperty("deskpilot.tessdata.cache");
+        Path root = (dir == null || dir.isBlank())
+                ? Paths.get(System.getProperty("user.home"), ".deskpilot", "tessdata-cache")
+                : Paths.get(dir.trim());
+        return new TessdataCache(root, Boolean.getBoolean("deskpilot.tessdata.verify"));
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /** Ensures classpath {@code /tessdata/<fileName>} is installed and returns its datapath. */
+    public Installed ensureResource(String fileName) throws IOException {
+        String res = "/tessdata/" + fileName;
+        String expected = readChecksumResource(res + ".sha256");
+        return ensure(fileName, () -> {
+            InputStream in = TessdataCache.class.getResourceAsStream(res);
+            if (in == null) throw new FileNotFoundException("Classpath resource not found: " + res);
+            return in;
+        }, expected);
+    }
+
+    /**
+     * Ensures {@code fileName} with the given content is installed.
+     * {@code expectedSha256} may be null: the source is then read once to compute it.
+     */
+    public Installed ensure(String fileName, Source source, String expectedSha256) throws IOException {
+        long t0 = System.nanoTime();
+        String expected = expectedSha256 != null ? expectedSha256.trim().toLowerCase() : sha256(source);
+
+        Path dir = root.resolve(expected.substring(0, 16));
+        Path file = dir.resolve(fileName);
+        Path marker = dir.resolve(fileName + ".sha256");
+
+        if (isValid(file, marker, expected)) {
+            return new Installed(dir, true, System.nanoTime() - t0);
+        }
+
+        Files.createDirectories(dir);
+        Path tmp = dir.resolve(fileName + ".tmp-" + UUID.randomUUID());
+        try {
+            String actual;
+            try (InputStream in = source.open(); OutputStream out = Files.newOutputStream(tmp)) {
+                MessageDigest md = sha256Digest();
+                new DigestInputStream(in, md).transferTo(out);
+                actual = HexFormat.of().formatHex(md.digest());
+            }
+            if (!actual.equals(expected)) {
+                throw new IOException("tessdata checksum mismatch for " + fileName + ": expected=" + expected + " actual=" + actual);
+            }
+            if (!moveIntoPlace(tmp, file) && !Files.isRegularFile(file)) {
+                throw new IOException("Could not install " + file);
+            }
+
+            Path markerTmp = dir.resolve(fileName + ".sha256.tmp-" + UUID.randomUUID());
+            Files.writeString(markerTmp, expected + "\n", StandardCharsets.US_ASCII);
+            moveIntoPlace(markerTmp, marker);
+            Files.deleteIfExists(markerTmp);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return new Installed(dir, false, System.nanoTime() - t0);
+    }
+
+    private boolean isValid(Path file, Path marker, String expected) {
+        try {
+            if (!Files.isRegularFile(file) || !Files.isRegularFile(marker)) return false;
+            if (!Files.readString(marker, StandardCharsets.US_ASCII).trim().equals(expected)) return false;
+            if (Files.size(file) == 0) return false;
+            return !verify || sha256(() -> Files.newInputStream(file)).equals(expected);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Atomic rename, replacing any previous file. Returns false if the target is held open by
+     * another process (Windows) — it was then installed by someone else and is left alone.
+     */
+    private static boolean moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (FileSystemException e) {
+            if (Files.isRegularFile(target)) return false;
+            throw e;
+        }
+    }
+
+    private static String readChecksumResource(String res) throws IOException {
+        try (InputStream in = TessdataCache.class.getResourceAsStream(res)) {
+            if (in == null) return null;
+            String s = new String(in.readAllBytes(), StandardCharsets.US_ASCII).trim();
+            return s.matches("[0-9a-fA-F]{64}") ? s : null;
+        }
+    }
+
+    static String sha256(Source source) throws IOException {
+        MessageDigest md = sha256Digest();
+        try (InputStream in = source.open()) {
+            byte[] buf = new byte[1 << 16];
+            int n;
+            while ((n = in.read(buf)) > 0) md.update(buf, 0, n);
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
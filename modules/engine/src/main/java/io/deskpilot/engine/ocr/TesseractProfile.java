@@ -0,0 +1,72 @@
+package io.deskpilot.engine.ocr;
+
+/**
+ * Tesseract engine settings carried by {@link OcrConfig}: page segmentation, engine mode,
+ * language, character white/blacklists and a DPI hint.
+ *
+ * - Applied once when an engine is created; {@link io.deskpilot.engine.OcrEnginePool} keeps idle
+ *   engines per profile, so switching profiles never reconfigures an engine in place.
+ * - A numeric cell read with {@code PSM_SINGLE_LINE} and a digit whitelist is both faster and far
+ *   less likely to come back as "O" or "l" than a full-block read.
+ * - Records compare by value: equal settings share engines.
+ *
+ * @param psm       Tesseract page segmentation mode (PSM_* constants below)
+ * @param oem       OCR engine mode (OEM_* constants below)
+ * @param language  traineddata name(s), e.g. "eng"
+ * @param whitelist tessedit_char_whitelist, null = all characters
+ * @param blacklist tessedit_char_blacklist, null = none
+ * @param userDpi   user_defined_dpi hint for crops without DPI metadata, 0 = let Tesseract guess
+ */
+public record TesseractProfile(int psm, int oem, String language, String whitelist, String blacklist, int userDpi) {
+
+    public static final int PSM_SINGLE_BLOCK = 6;
+    public static final int PSM_SINGLE_LINE = 7;
+    public static final int PSM_SINGLE_WORD = 8;
+    public static final int PSM_SPARSE_TEXT = 11;
+
+    public static final int OEM_LSTM_ONLY = 1;
+    public static final int OEM_DEFAULT = 3;
+
+    /** What every engine used before profiles existed: single block, English, no lists. */
+    public static final TesseractProfile DEFAULT =
+            new TesseractProfile(PSM_SINGLE_BLOCK, OEM_DEFAULT, "eng", null, null, 0);
+
+    public TesseractProfile {
+        if (psm < 0 || psm > 13) throw new IllegalArgumentException("psm must be 0..13: " + psm);
+        if (oem < 0 || oem > 3) throw new IllegalArgumentException("oem must be 0..3: " + oem);
+        if (language == null || language.isBlank()) throw new IllegalArgumentException("language is blank");
+        if (userDpi < 0) throw new IllegalArgumentException("userDpi must be >= 0");
+        whitelist = (whitelist == null || whitelist.isEmpty()) ? null : whitelist;
+        blacklist = (blacklist == null || blacklist.isEmpty()) ? null : blacklist;
+    }
+
+    public TesseractProfile withPsm(int psm) {
+        return new TesseractProfile(psm, oem, language, whitelist, blacklist, userDpi);
+    }
+
+    public TesseractProfile withOem(int oem) {
+        return new TesseractProfile(psm, oem, language, whitelist, blacklist, userDpi);
+    }
+
+    public TesseractProfile withLanguage(String language) {
+        return new TesseractProfile(psm, oem, language, whitelist, blacklist, userDpi);
+    }
+
+    public TesseractProfile withWhitelist(String chars) {
+        return new TesseractProfile(psm, oem, language, chars, blacklist, userDpi);
+    }
+
+    public TesseractProfile withBlacklist(String chars) {
+        return new TesseractProfile(psm, oem, language, whitelist, chars, userDpi);
+    }
+
+    public TesseractProfile withUserDpi(int dpi) {
+        return new TesseractProfile(psm, oem, language, whitelist, blacklist, dpi);
+    }
+
+    /** Stable identity for cache keys and logs. */
+    public String key() {
+        return "psm=" + psm + "|oem=" + oem + "|lang=" + language + "|wl=" + whitelist + "|bl=" + blacklist
+                + "|dpi=" + userDpi;
+    }
+}
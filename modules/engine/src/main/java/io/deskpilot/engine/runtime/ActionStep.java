@@ -1,12 +1,13 @@
 package io.deskpilot.engine.runtime;
 
 import io.deskpilot.engine.DeskPilotSession;
+import io.deskpilot.engine.RunEvents;
 import io.deskpilot.engine.actions.ActionExpectation;
 import io.deskpilot.engine.locators.Locator;
 import io.deskpilot.engine.locators.LocatorResult;
 import io.deskpilot.engine.locators.LocatorSession;
+import io.deskpilot.engine.metrics.EngineMetrics;
 
-import java.time.Duration;
 import java.time.Instant;
 
 public final class ActionStep {
@@ -56,9 +57,16 @@ LocatorResult last = null;
 Exception lastErr = null;
 String lastExpectationFailure = null;
 
+// pollInterval is the nominal interval: fast right after input, backing off while nothing is found
+AdaptivePoll poll = AdaptivePoll.around(
+        opt.pollInterval() == null ? 0 : opt.pollInterval().toMillis(),
+        s.getDriver().millisSinceLastInput());
+long deadlineMs = deadline.toEpochMilli();
+
 
             while (Instant.now().isBefore(deadline)) {
                 attempts++;
+                if (attempts > 1) s.metrics().counter(EngineMetrics.ACTION_RETRIES).inc();
 
                 try {
 // Stabilize per locate attempt (lightweight). No default heavy stabilize here.
@@ -71,22 +79,39 @@ if (stabilize != null) stabilize.stabilize(s);
                     LocatorSession ls = LocatorSession.from(s);
 
                     // ✅ locate (must return NOT_FOUND rather than throw for not found)
+                    long t0 = System.nanoTime();
                     LocatorResult r = locator.locate(ls);
+                    EngineMetrics.locate(s.metrics(), locator.kind(), r == null ? null : r.status, t0);
+
+                    // the first attempt has nothing to compare with: keep the post-input interval
+                    if (last != null) {
+                        if (r != null && last.status != r.status) poll.onChange();
+                        else poll.onIdle();
+                    }
 
                     last = r;
                     lastExpectationFailure = ActionAssertions.check(expectations, r);
+                    attemptEvent(s.events(), stepName, attempts, start, r, lastExpectationFailure);
 
                     if (lastExpectationFailure == null) {
                         if (act != null) act.act(s, r);
                         if (verify != null) verify.verify(s, r);
+                        endEvent(s.events(), stepName, locator, "ok", attempts, errorCount, start, r);
                         return;
                     }
 
-                    sleep(opt.pollInterval());
+                    sleep(poll, deadlineMs);
                 } catch (Exception e) {
     lastErr = e;
     errorCount++;
-    sleep(opt.pollInterval());
+    s.events().event("action.attempt")
+            .put("step", stepName)
+            .put("attempt", attempts)
+            .put("elapsedMs", java.time.Duration.between(start, Instant.now()).toMillis())
+            .put("error", String.valueOf(e))
+            .emit();
+    if (attempts > 1) poll.onIdle();
+    sleep(poll, deadlineMs);
 }
 
             }
@@ -112,6 +137,8 @@ String msg = buildFailureMessage(
 } catch (Exception ignore) {
     // don’t mask the real failure
 }
+endEvent(s.events(), stepName, locator, "failed", attempts, errorCount, start, last);
+EngineMetrics.timeout(s.metrics(), "action");
 
          throw new ActionFailedException(stepName, locator, expectations, attempts, last, msg, lastErr);
 
@@ -137,11 +164,46 @@ public static void run(
     );
 }
 
-    private static void sleep(Duration d) {
-        if (d == null) return;
-        long ms = d.toMillis();
-        if (ms <= 0) return;
-        try { Thread.sleep(ms); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+    private static void attemptEvent(RunEvents ev, String stepName, int attempt, Instant start,
+                                     LocatorResult r, String expectationFailure) {
+        if (!ev.enabled()) return;
+        RunEvents.Event e = ev.event("action.attempt")
+                .put("step", stepName)
+                .put("attempt", attempt)
+                .put("elapsedMs", java.time.Duration.between(start, Instant.now()).toMillis());
+        putResult(e, r);
+        if (expectationFailure != null) e.put("reason", expectationFailure);
+        e.emit();
+    }
+
+    private static void endEvent(RunEvents ev, String stepName, Locator locator, String status,
+                                 int attempts, int errorCount, Instant start, LocatorResult r) {
+        if (!ev.enabled()) return;
+        RunEvents.Event e = ev.event("action.end")
+                .put("step", stepName)
+                .put("locator", locator.label())
+                .put("locatorKind", String.valueOf(locator.kind()))
+                .put("status", status)
+                .put("attempts", attempts)
+                .put("errors", errorCount)
+                .put("elapsedMs", java.time.Duration.between(start, Instant.now()).toMillis());
+        putResult(e, r);
+        e.emit();
+    }
+
+    private static void putResult(RunEvents.Event e, LocatorResult r) {
+        if (r == null) return;
+        e.put("result", String.valueOf(r.status));
+        if (r.score >= 0) e.put("score", r.score);
+        if (r.bounds != null) {
+            e.put("x", r.bounds.x).put("y", r.bounds.y).put("w", r.bounds.width).put("h", r.bounds.height);
+        }
+        String hit = r.diag.get("cacheHit");
+        if (hit != null) e.put("cacheHit", Boolean.parseBoolean(hit));
+    }
+
+    private static void sleep(AdaptivePoll poll, long deadlineMs) {
+        try { poll.sleep(deadlineMs); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
     }
 
 private static String buildFailureMessage(
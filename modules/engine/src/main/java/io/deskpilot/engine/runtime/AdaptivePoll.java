@@ -0,0 +1,75 @@
+package io.deskpilot.engine.runtime;
+
+import io.deskpilot.engine.trace.Trace;
+
+/**
+ * Poll interval scheduler shared by wait loops (stability, locate retries, OCR waits).
+ *
+ * - Right after an input action the UI is most likely to change: start at the fast interval.
+ * - Every idle poll (nothing changed / not found yet) backs off exponentially up to the max.
+ * - An observed change snaps back to the fast interval.
+ * - A sleep never runs past the caller's deadline.
+ *
+ * Not thread-safe: one instance per wait loop.
+ */
+public final class AdaptivePoll {
+
+    /** Input younger than this counts as "just happened". */
+    public static final long HOT_INPUT_WINDOW_MS = 750;
+
+    private final long minMs;
+    private final long maxMs;
+    private final double factor;
+
+    private long currentMs;
+
+    public AdaptivePoll(long minMs, long startMs, long maxMs, double factor) {
+        if (minMs < 0) throw new IllegalArgumentException("minMs must be >= 0");
+        if (maxMs < minMs) throw new IllegalArgumentException("maxMs must be >= minMs");
+        if (factor < 1.0) throw new IllegalArgumentException("factor must be >= 1");
+        this.minMs = minMs;
+        this.maxMs = maxMs;
+        this.factor = factor;
+        this.currentMs = Math.max(minMs, Math.min(maxMs, startMs));
+    }
+
+    /**
+     * Standard schedule around a nominal interval: fast = base/4 (>= 15ms), max = 2 * base.
+     * Starts fast when the last input is younger than {@link #HOT_INPUT_WINDOW_MS}, else at base.
+     */
+    public static AdaptivePoll around(long baseMs, long millisSinceInput) {
+        if (baseMs <= 0) return new AdaptivePoll(0, 0, 0, 1.0); // explicit "no sleep"
+
+        long base = baseMs;
+        long min = Math.max(15, base / 4);
+        long max = Math.max(min, base * 2);
+        long start = (millisSinceInput >= 0 && millisSinceInput < HOT_INPUT_WINDOW_MS) ? min : base;
+        return new AdaptivePoll(min, start, max, 1.5);
+    }
+
+    public long currentMs() {
+        return currentMs;
+    }
+
+    /** Something changed (pixels, OCR text, locate status): poll fast again. */
+    public void onChange() {
+        currentMs = minMs;
+    }
+
+    /** Nothing happened on this poll: back off. */
+    public void onIdle() {
+        currentMs = Math.min(maxMs, Math.max(minMs + 1, (long) Math.ceil(currentMs * factor)));
+    }
+
+    /** Next delay clamped to the time left until {@code deadlineMs} (epoch millis). */
+    public long nextDelayMs(long deadlineMs) {
+        long left = deadlineMs - System.currentTimeMillis();
+        return Math.max(0, Math.min(currentMs, left));
+    }
+
+    /** Sleep for the next delay (clamped to the deadline). */
+    public void sleep(long deadlineMs) throws InterruptedException {
+        long ms = nextDelayMs(deadlineMs);
+        Trace.sleep(ms);
+    }
+}
@@ -1,6 +1,7 @@
 package io.deskpilot.engine.runtime;
 
 import io.deskpilot.engine.DeskPilotSession;
+import io.deskpilot.engine.trace.Trace;
 
 public final class Stabilizers {
 
@@ -11,15 +12,13 @@ public final class Stabilizers {
     }
 
     public static ActionStep.Stabilizer sleep(long ms) {
-        return s -> {
-            if (ms > 0) Thread.sleep(ms);
-        };
+        return s -> Trace.sleep(ms);
     }
 
     public static ActionStep.Stabilizer refreshThenSleep(long ms) {
         return s -> {
             s.before();
-            if (ms > 0) Thread.sleep(ms);
+            Trace.sleep(ms);
         };
     }
 
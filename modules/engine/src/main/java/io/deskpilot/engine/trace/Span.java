@@ -0,0 +1,58 @@
+package io.deskpilot.engine.trace;
+
+import io.deskpilot.engine.util.Json;
+
+/**
+ * A timed region; close it (try-with-resources) to record it.
+ * The shared {@link #NOOP} instance is returned while tracing is off, so a disabled span
+ * costs one thread-local read and no allocation.
+ */
+public class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span();
+
+    private Span() {}
+
+    /** Attach a key/value shown in the trace viewer's detail pane. */
+    public Span arg(String key, Object value) {
+        return this;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /** Recording span (package-private; created by {@link TraceRecorder}). */
+    static final class Live extends Span {
+        private final TraceRecorder recorder;
+        private final String name;
+        private final String category;
+        private final long startNanos;
+        private final Thread thread;
+        private StringBuilder args;
+        private boolean closed;
+
+        Live(TraceRecorder recorder, String name, String category) {
+            this.recorder = recorder;
+            this.name = name;
+            this.category = category;
+            this.thread = Thread.currentThread();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public Span arg(String key, Object value) {
+            if (args == null) args = new StringBuilder();
+            else args.append(',');
+            args.append(Json.quote(key)).append(':').append(TraceRecorder.jsonValue(value));
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            recorder.complete(name, category, thread, startNanos, System.nanoTime(), args == null ? null : args.toString());
+        }
+    }
+}
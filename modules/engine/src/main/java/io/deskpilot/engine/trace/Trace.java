@@ -0,0 +1,112 @@
+package io.deskpilot.engine.trace;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Span entry point used by the engine hot paths (capture, template scan, OCR,
+ * wait-loop sleeps, artifact writes).
+ *
+ * <pre>
+ * try (Span s = Trace.span("ocr.readText", "ocr")) { ... }
+ * </pre>
+ *
+ * Off unless a {@link TraceRecorder} is bound to the calling thread (-Ddeskpilot.trace=true: each
+ * session {@link #install installs} its own recorder on the thread that attached it). Work handed
+ * to another thread carries the submitter's recorder along ({@link #wrap}, {@link #bind}), so
+ * parallel sessions in one JVM each record only their own spans.
+ */
+public final class Trace {
+
+    private static final ThreadLocal<TraceRecorder> CURRENT = new ThreadLocal<>();
+
+    private Trace() {}
+
+    public static Span span(String name, String category) {
+        TraceRecorder r = CURRENT.get();
+        return r == null ? Span.NOOP : r.begin(name, category);
+    }
+
+    public static boolean enabled() {
+        TraceRecorder r = CURRENT.get();
+        return r != null && !r.isStopped();
+    }
+
+    /** Recorder bound to the calling thread, null when tracing is off for it. */
+    public static TraceRecorder current() {
+        return CURRENT.get();
+    }
+
+    /** Binds {@code recorder} to the calling thread until {@link #uninstall}; a session does this at attach. */
+    public static void install(TraceRecorder recorder) {
+        if (recorder == null) throw new IllegalArgumentException("recorder is null");
+        CURRENT.set(recorder);
+    }
+
+    /** Unbinds {@code recorder} from the calling thread if it is the one bound there. */
+    public static void uninstall(TraceRecorder recorder) {
+        if (CURRENT.get() == recorder) CURRENT.remove();
+    }
+
+    /**
+     * Binds {@code recorder} (null = off) to the calling thread until the returned scope is closed,
+     * which restores the previous binding. Used by worker threads running a submitter's task.
+     */
+    public static Scope bind(TraceRecorder recorder) {
+        TraceRecorder prev = CURRENT.get();
+        if (recorder == null) CURRENT.remove();
+        else CURRENT.set(recorder);
+        return new Scope(prev);
+    }
+
+    /** {@code task} running under the calling thread's recorder, wherever it is executed. */
+    public static Runnable wrap(Runnable task) {
+        TraceRecorder r = CURRENT.get();
+        if (r == null) return task;
+        return () -> {
+            Scope scope = bind(r);
+            try {
+                task.run();
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
+    /** {@code task} running under the calling thread's recorder, wherever it is executed. */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        TraceRecorder r = CURRENT.get();
+        if (r == null) return task;
+        return () -> {
+            Scope scope = bind(r);
+            try {
+                return task.call();
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
+    /** Restores the thread's previous recorder on close. */
+    public static final class Scope implements AutoCloseable {
+        private final TraceRecorder prev;
+
+        private Scope(TraceRecorder prev) {
+            this.prev = prev;
+        }
+
+        @Override
+        public void close() {
+            if (prev == null) CURRENT.remove();
+            else CURRENT.set(prev);
+        }
+    }
+
+    /** Sleep recorded as a "sleep" span (wait-loop back-off shows up in the timeline). */
+    public static void sleep(long ms) throws InterruptedException {
+        if (ms <= 0) return;
+        try (Span s = span("sleep", "wait")) {
+            s.arg("ms", ms);
+            Thread.sleep(ms);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package io.deskpilot.engine.trace;
+
+import io.deskpilot.engine.util.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects completed spans in memory and writes them as a Chrome trace-event file
+ * (open in chrome://tracing or ui.perfetto.dev).
+ *
+ * Bounded: past {@code maxEvents} new spans are counted as dropped, not stored.
+ * After {@link #stop} it records nothing, even on threads that still have it bound.
+ */
+public final class TraceRecorder {
+
+    private record Complete(String name, String cat, long tid, long startUs, long durUs, String args) {}
+
+    private final long originNanos = System.nanoTime();
+    private final int maxEvents;
+    private final List<Complete> events = new ArrayList<>();
+    private final Map<Long, String> threadNames = new LinkedHashMap<>();
+    private long dropped;
+    private volatile boolean stopped;
+
+    public TraceRecorder(int maxEvents) {
+        if (maxEvents < 1) throw new IllegalArgumentException("maxEvents must be >= 1");
+        this.maxEvents = maxEvents;
+    }
+
+    Span begin(String name, String category) {
+        return stopped ? Span.NOOP : new Span.Live(this, name, category);
+    }
+
+    /** Stops recording; spans begun or ending afterwards are ignored. */
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    synchronized void complete(String name, String cat, Thread thread, long startNanos, long endNanos, String args) {
+        if (stopped) return;
+        if (events.size() >= maxEvents) {
+            dropped++;
+            return;
+        }
+        long tid = thread.getId();
+        threadNames.putIfAbsent(tid, thread.getName());
+        events.add(new Complete(name, cat, tid,
+                (startNanos - originNanos) / 1000, Math.max(0, (endNanos - startNanos) / 1000), args));
+    }
+
+    public synchronized int size() {
+        return events.size();
+    }
+
+    public synchronized long dropped() {
+        return dropped;
+    }
+
+    /** Writes {"traceEvents":[...]} to {@code file}. */
+    public synchronized void writeTo(Path file) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("{\"displayTimeUnit\":\"ms\",\"otherData\":{\"droppedSpans\":");
+            w.write(Long.toString(dropped));
+            w.write("},\"traceEvents\":[\n");
+
+            boolean first = true;
+            for (Map.Entry<Long, String> t : threadNames.entrySet()) {
+                if (!first) w.write(",\n");
+                first = false;
+                w.write("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":" + t.getKey()
+                        + ",\"args\":{\"name\":" + Json.quote(t.getValue()) + "}}");
+            }
+            for (Complete e : events) {
+                if (!first) w.write(",\n");
+                first = false;
+                w.write("{\"ph\":\"X\",\"pid\":1,\"tid\":");
+                w.write(Long.toString(e.tid));
+                w.write(",\"ts\":");
+                w.write(Long.toString(e.startUs));
+                w.write(",\"dur\":");
+                w.write(Long.toString(e.durUs));
+                w.write(",\"name\":");
+                w.write(Json.quote(e.name));
+                w.write(",\"cat\":");
+                w.write(Json.quote(e.cat == null ? "engine" : e.cat));
+                if (e.args != null) {
+                    w.write(",\"args\":{");
+                    w.write(e.args);
+                    w.write('}');
+                }
+                w.write('}');
+            }
+            w.write("\n]}\n");
+        }
+    }
+
+    static String jsonValue(Object v) {
+        if (v == null) return "null";
+        if (v instanceof Number n) {
+            double d = n.doubleValue();
+            return Double.isFinite(d) ? n.toString() : "null";
+        }
+        if (v instanceof Boolean) return v.toString();
+        return Json.quote(String.valueOf(v));
+    }
+}
@@ -0,0 +1,33 @@
+package io.deskpilot.engine.util;
+
+import java.util.Locale;
+
+/**
+ * Minimal JSON text helpers for the hand-written writers (events.jsonl, trace.json, metrics,
+ * run metadata). No parser, no object model.
+ */
+public final class Json {
+
+    private Json() {}
+
+    /** JSON string literal for {@code s} (quotes, backslashes and control characters escaped); null -> {@code null}. */
+    public static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
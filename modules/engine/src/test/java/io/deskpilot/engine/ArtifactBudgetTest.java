@@ -0,0 +1,80 @@
+package io.deskpilot.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactBudgetTest {
+
+    private static void file(Path dir, String name, int bytes) throws Exception {
+        Files.write(dir.resolve(name), new byte[bytes]);
+    }
+
+    @Test
+    void priorityOf_classifiesByName() {
+        assertEquals(ArtifactBudget.Priority.POLL_DUMP, ArtifactBudget.priorityOf("ocr_crop_last_DEFAULT.png"));
+        assertEquals(ArtifactBudget.Priority.POLL_DUMP, ArtifactBudget.priorityOf("stabilize_before.png"));
+        assertEquals(ArtifactBudget.Priority.FRAME, ArtifactBudget.priorityOf("step_after.png"));
+        assertEquals(ArtifactBudget.Priority.KEEP, ArtifactBudget.priorityOf("stabilize_timeout_last.png"));
+        assertEquals(ArtifactBudget.Priority.KEEP, ArtifactBudget.priorityOf("diag.txt"));
+    }
+
+    @Test
+    void stepBudget_evictsPollDumpsBeforeFrames() throws Exception {
+        Path run = Files.createTempDirectory("deskpilot-budget");
+        Path step = Files.createDirectories(run.resolve("02-wait"));
+        file(step, "step_before.png", 400);
+        file(step, "ocr_crop_last_DEFAULT.png", 300);
+        file(step, "ocr_pre_last_DEFAULT.png", 300);
+        file(step, "diag.txt", 50);
+
+        ArtifactBudget b = new ArtifactBudget(0, 600);
+        b.onStepFinished(run, step, false);
+
+        assertTrue(Files.exists(step.resolve("step_before.png")));
+        assertTrue(Files.exists(step.resolve("diag.txt")));
+        assertFalse(Files.exists(step.resolve("ocr_crop_last_DEFAULT.png")));
+        assertFalse(Files.exists(step.resolve("ocr_pre_last_DEFAULT.png")));
+        assertEquals(600, b.evictedBytes());
+        assertTrue(Files.readString(run.resolve("evicted.txt")).contains("02-wait/ocr_crop_last_DEFAULT.png"));
+    }
+
+    @Test
+    void runBudget_keepsFailedStepsAndEvictsOldestFirst() throws Exception {
+        Path run = Files.createTempDirectory("deskpilot-budget");
+        ArtifactBudget b = new ArtifactBudget(1000, 0);
+
+        Path s2 = Files.createDirectories(run.resolve("02-failed"));
+        file(s2, "ocr_crop_last_DEFAULT.png", 400);
+        file(s2, "error.txt", 10);
+        b.onStepFinished(run, s2, false);
+
+        Path s3 = Files.createDirectories(run.resolve("03-ok"));
+        file(s3, "step_after.png", 400);
+        b.onStepFinished(run, s3, false);
+
+        Path s4 = Files.createDirectories(run.resolve("04-ok"));
+        file(s4, "step_after.png", 400);
+        b.onStepFinished(run, s4, false);
+
+        assertTrue(Files.exists(s2.resolve("ocr_crop_last_DEFAULT.png")), "failure evidence is kept");
+        assertFalse(Files.exists(s3.resolve("step_after.png")), "oldest routine frame goes first");
+        assertTrue(Files.exists(s4.resolve("step_after.png")));
+    }
+
+    @Test
+    void protectFrames_keepsDeltaChainsIntact() throws Exception {
+        Path run = Files.createTempDirectory("deskpilot-budget");
+        Path step = Files.createDirectories(run.resolve("02-x"));
+        file(step, "step_after.png", 500);
+
+        ArtifactBudget b = new ArtifactBudget(100, 100);
+        b.onStepFinished(run, step, true);
+
+        assertTrue(Files.exists(step.resolve("step_after.png")));
+        assertEquals(0, b.evictedFiles());
+    }
+}
@@ -0,0 +1,97 @@
+package io.deskpilot.engine;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactCodecTest {
+
+    private static BufferedImage sample(int type) {
+        BufferedImage img = new BufferedImage(64, 40, type);
+        Random r = new Random(7);
+        for (int y = 0; y < img.getHeight(); y++) {
+            for (int x = 0; x < img.getWidth(); x++) {
+                // smooth gradient plus some noise, so deflate levels actually differ
+                int v = (x * 4 + y * 2) & 0xFF;
+                img.setRGB(x, y, 0xFF000000 | (v << 16) | ((v ^ r.nextInt(4)) << 8) | (255 - v));
+            }
+        }
+        return img;
+    }
+
+    private static void assertSamePixels(BufferedImage a, BufferedImage b) {
+        assertEquals(a.getWidth(), b.getWidth());
+        assertEquals(a.getHeight(), b.getHeight());
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                assertEquals(a.getRGB(x, y), b.getRGB(x, y), "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void parse_acceptsKnownSpecs() {
+        assertEquals("png", ArtifactCodec.parse(null).toString());
+        assertEquals("png:1", ArtifactCodec.parse("PNG:1").toString());
+        assertEquals(ArtifactCodec.Kind.RAW, ArtifactCodec.parse("raw").kind());
+        assertThrows(IllegalArgumentException.class, () -> ArtifactCodec.parse("png:12"));
+        assertThrows(IllegalArgumentException.class, () -> ArtifactCodec.parse("jpeg"));
+    }
+
+    @Test
+    void pngLevels_roundTripAndLowerLevelIsNotSmaller() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-codec");
+        BufferedImage img = sample(BufferedImage.TYPE_INT_RGB);
+
+        Path fast = tmp.resolve("fast.png");
+        Path small = tmp.resolve("small.png");
+        ArtifactCodec.png(0).write(img, fast);
+        ArtifactCodec.png(9).write(img, small);
+
+        assertSamePixels(img, ImageIO.read(fast.toFile()));
+        assertSamePixels(img, ImageIO.read(small.toFile()));
+        assertTrue(Files.size(fast) > Files.size(small), Files.size(fast) + " vs " + Files.size(small));
+    }
+
+    @Test
+    void raw_roundTripsRgbAndArgb() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-codec");
+
+        BufferedImage rgb = sample(BufferedImage.TYPE_INT_RGB);
+        Path f1 = tmp.resolve("a.dpraw");
+        ArtifactCodec.raw().write(rgb, f1);
+        assertSamePixels(rgb, ArtifactCodec.readRaw(f1));
+
+        BufferedImage argb = sample(BufferedImage.TYPE_INT_ARGB);
+        argb.setRGB(1, 1, 0x40112233);
+        Path f2 = tmp.resolve("b.dpraw");
+        ArtifactCodec.raw().write(argb, f2);
+        assertSamePixels(argb, ArtifactCodec.readRaw(f2));
+    }
+
+    @Test
+    void artifactsInRawMode_convertLazilyToPng() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-codec");
+        Artifacts a = new Artifacts(tmp, null, true, ArtifactCodec.raw());
+        Path step = a.stepDir("raw");
+
+        BufferedImage img = sample(BufferedImage.TYPE_INT_RGB);
+        Path blob = a.savePng(step, "client.png", img);
+        assertTrue(blob.getFileName().toString().endsWith(ArtifactCodec.RAW_EXTENSION));
+
+        var written = ArtifactCodec.convertRawToPng(tmp, ArtifactCodec.png(1));
+        assertEquals(1, written.size());
+        assertFalse(Files.exists(blob));
+
+        String entry = Files.readString(step.resolve("manifest.txt")).trim();
+        assertTrue(entry.startsWith("client.png=") && entry.endsWith(".png"), entry);
+        Path png = step.resolve(entry.substring(entry.indexOf('=') + 1));
+        assertSamePixels(img, ImageIO.read(png.toFile()));
+    }
+}
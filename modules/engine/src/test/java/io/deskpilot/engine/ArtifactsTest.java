@@ -3,9 +3,12 @@ package io.deskpilot.engine;
 
 import org.junit.jupiter.api.Test;
 
+import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,4 +41,167 @@ void stepDir_isStableAndCreatesDirectory() throws Exception {
         assertTrue(Files.exists(f));
         assertTrue(f.getFileName().toString().endsWith(".png"));
     }
+
+    @Test
+    void asyncSavePng_allFilesOnDiskAfterClose() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-artifacts");
+        ArtifactWriter w = new ArtifactWriter(4, 2, ArtifactWriter.Overflow.BLOCK, Artifacts::writePng);
+        Artifacts a = new Artifacts(tmp, w);
+        Path step = a.stepDir("async");
+
+        for (int i = 0; i < 20; i++) {
+            a.savePng(step, "frame-" + i + ".png", new BufferedImage(32, 16, BufferedImage.TYPE_INT_RGB));
+        }
+        a.close();
+
+        for (int i = 0; i < 20; i++) {
+            Path f = step.resolve("frame-" + i + ".png");
+            assertTrue(Files.exists(f), f.toString());
+            assertNotNull(ImageIO.read(f.toFile()));
+        }
+        try (var files = Files.list(step)) {
+            assertTrue(files.noneMatch(p -> p.getFileName().toString().contains(".tmp-")));
+        }
+        assertEquals(20, w.written());
+        assertEquals(0, w.dropped());
+    }
+
+    @Test
+    void asyncWriter_coalescesQueuedRewritesOfSameFile() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-artifacts");
+        CountDownLatch release = new CountDownLatch(1);
+        ArtifactWriter w = new ArtifactWriter(8, 1, ArtifactWriter.Overflow.BLOCK, (img, file) -> {
+            release.await();
+            Artifacts.writePng(img, file);
+        });
+
+        // first job occupies the single worker; the next three saves target one queued entry
+        w.submit(tmp.resolve("busy.png"), new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB));
+        Thread.sleep(100);
+        for (int i = 1; i <= 3; i++) {
+            BufferedImage img = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+            img.setRGB(0, 0, i);
+            w.submit(tmp.resolve("same.png"), img);
+        }
+        release.countDown();
+        assertTrue(w.flush(5_000));
+        w.close();
+
+        assertEquals(2, w.written());
+        assertEquals(2, w.coalesced());
+        assertEquals(3, ImageIO.read(tmp.resolve("same.png").toFile()).getRGB(0, 0) & 0xFFFFFF);
+    }
+
+    @Test
+    void asyncWriter_dropPolicyNeverBlocks() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-artifacts");
+        CountDownLatch release = new CountDownLatch(1);
+        ArtifactWriter w = new ArtifactWriter(1, 1, ArtifactWriter.Overflow.DROP, (img, file) -> {
+            release.await();
+            Artifacts.writePng(img, file);
+        });
+
+        for (int i = 0; i < 10; i++) {
+            w.submit(tmp.resolve("f" + i + ".png"), new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB));
+        }
+        release.countDown();
+        assertTrue(w.flush(5_000));
+        w.close();
+
+        assertTrue(w.dropped() > 0);
+        assertEquals(10, w.written() + w.dropped());
+    }
+
+    @Test
+    void droppedImage_savePngReturnsNullAndCountsTheDrop() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-artifacts");
+        ArtifactWriter w = new ArtifactWriter(1, 1, ArtifactWriter.Overflow.DROP, Artifacts::writePng);
+        Artifacts a = new Artifacts(tmp, w);
+        Path step = a.stepDir("drop");
+        w.close(); // a closed writer drops everything
+
+        assertNull(a.savePng(step, "client.png", new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB)));
+        assertEquals(1, a.droppedImages());
+        assertEquals(1, w.dropped());
+        assertFalse(Files.exists(step.resolve("client.png")));
+    }
+
+    @Test
+    void dedup_identicalFramesShareOneBlobAndStepsGetManifests() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-artifacts");
+        Artifacts a = new Artifacts(tmp, null, true);
+
+        BufferedImage same = new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB);
+        same.setRGB(3, 3, 0x123456);
+        BufferedImage copy = new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB);
+        copy.setRGB(3, 3, 0x123456);
+
+        Path s1 = a.stepDir("one");
+        Path s2 = a.stepDir("two");
+        Path after = a.savePng(s1, "step_after.png", same);
+        Path before = a.savePng(s2, "step_before.png", copy);
+
+        assertEquals(after, before);
+        assertTrue(Files.exists(after));
+        assertTrue(after.getFileName().toString().matches("[0-9a-f]{64}-20x10\\.png"), after.toString());
+        assertEquals(1, a.dedupHits());
+        try (var files = Files.list(tmp.resolve("blobs"))) {
+            assertEquals(1, files.count());
+        }
+
+        String m2 = Files.readString(s2.resolve("manifest.txt"));
+        assertEquals("step_before.png=../blobs/" + after.getFileName() + "\n", m2);
+        assertFalse(Files.exists(s2.resolve("step_before.png")));
+    }
+
+    @Test
+    void dedup_rewritingSameNameAppendsAndLastEntryWins() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-artifacts");
+        Artifacts a = new Artifacts(tmp, null, true);
+        Path step = a.stepDir("ocr");
+
+        for (int i = 0; i < 3; i++) {
+            BufferedImage img = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+            img.setRGB(0, 0, i);
+            a.savePng(step, "ocr_crop_last_DEFAULT.png", img);
+        }
+
+        var lines = Files.readAllLines(step.resolve("manifest.txt"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.stream().allMatch(l -> l.startsWith("ocr_crop_last_DEFAULT.png=")));
+        String last = lines.get(lines.size() - 1);
+        BufferedImage img = ImageIO.read(step.resolve(last.substring(last.indexOf('=') + 1)).toFile());
+        assertEquals(2, img.getRGB(0, 0) & 0xFFFFFF);
+    }
+
+    @Test
+    void dedup_failedOrDroppedBlobIsNotReused() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-artifacts");
+        AtomicInteger attempts = new AtomicInteger();
+        ArtifactWriter w = new ArtifactWriter(4, 1, ArtifactWriter.Overflow.BLOCK, (img, file) -> {
+            if (attempts.incrementAndGet() == 1) throw new java.io.IOException("disk full");
+            Artifacts.writePng(img, file);
+        });
+        Artifacts a = new Artifacts(tmp, w, true);
+        Path step = a.stepDir("blobs");
+        BufferedImage img = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+
+        Path first = a.savePng(step, "a.png", img);
+        assertTrue(a.flush(5_000));
+        assertFalse(Files.exists(first));
+
+        Path second = a.savePng(step, "b.png", img);
+        assertTrue(a.flush(5_000));
+        assertEquals(first, second);
+        assertTrue(Files.exists(second), "failed blob must be encoded again, not deduplicated");
+        assertEquals(0, a.dedupHits());
+        a.close();
+
+        ArtifactWriter closed = new ArtifactWriter(1, 1, ArtifactWriter.Overflow.DROP, Artifacts::writePng);
+        Artifacts d = new Artifacts(Files.createTempDirectory("deskpilot-artifacts"), closed, true);
+        Path s = d.stepDir("drop");
+        closed.close();
+        assertNull(d.savePng(s, "a.png", img));
+        assertFalse(Files.exists(s.resolve("manifest.txt")));
+    }
 }
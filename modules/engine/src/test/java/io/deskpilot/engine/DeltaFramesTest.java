@@ -0,0 +1,127 @@
+package io.deskpilot.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaFramesTest {
+
+    private static BufferedImage frame(int i) {
+        BufferedImage img = new BufferedImage(200, 120, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 200, 120);
+        g.setColor(new Color(10 * i, 0, 255 - 10 * i));
+        g.fillRect(5 + i * 3, 40, 20, 10); // small moving box
+        g.dispose();
+        return img;
+    }
+
+    private static void assertSamePixels(BufferedImage a, BufferedImage b) {
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                assertEquals(a.getRGB(x, y) & 0xFFFFFF, b.getRGB(x, y) & 0xFFFFFF, "pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void keyframePerIntervalAndEveryFrameReconstructs() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-delta");
+        Artifacts a = new Artifacts(tmp);
+        a.setDeltaFrames(4);
+
+        List<BufferedImage> frames = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Path step = a.stepDir("s" + i);
+            BufferedImage img = frame(i);
+            frames.add(img);
+            files.add(a.saveFrame(step, "step_after.png", img));
+        }
+
+        assertEquals(3, a.deltaFrames().keyframes()); // frames 0, 4, 8
+        assertEquals(7, a.deltaFrames().deltas());
+        assertTrue(files.get(0).toString().endsWith(".png"));
+        assertTrue(files.get(1).toString().endsWith(DeltaFrames.EXTENSION));
+        assertTrue(Files.size(files.get(1)) < Files.size(files.get(0)));
+
+        for (int i = 0; i < frames.size(); i++) {
+            assertSamePixels(frames.get(i), DeltaFrames.reconstruct(files.get(i)));
+        }
+    }
+
+    @Test
+    void largeChangeFallsBackToKeyframe() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-delta");
+        Artifacts a = new Artifacts(tmp);
+        a.setDeltaFrames(10);
+
+        a.saveFrame(a.stepDir("one"), "step_after.png", frame(0));
+        BufferedImage black = new BufferedImage(200, 120, BufferedImage.TYPE_INT_RGB);
+        Path second = a.saveFrame(a.stepDir("two"), "step_after.png", black);
+
+        assertTrue(second.toString().endsWith(".png"));
+        assertEquals(2, a.deltaFrames().keyframes());
+    }
+
+    @Test
+    void materializeWritesPngsNextToDeltas() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-delta");
+        Artifacts a = new Artifacts(tmp, null, false, ArtifactCodec.raw());
+        a.setDeltaFrames(5);
+
+        Path s1 = a.stepDir("one");
+        Path s2 = a.stepDir("two");
+        a.saveFrame(s1, "step_before.png", frame(0));
+        a.saveFrame(s2, "step_before.png", frame(1));
+
+        var pngs = DeltaFrames.materialize(tmp);
+        assertEquals(1, pngs.size());
+        assertEquals(s2.resolve("step_before.png"), pngs.get(0));
+        assertSamePixels(frame(1), javax.imageio.ImageIO.read(pngs.get(0).toFile()));
+    }
+
+    @Test
+    void reusedNameNeverOverwritesAChainFile() throws Exception {
+        Path tmp = Files.createTempDirectory("deskpilot-delta");
+        Artifacts a = new Artifacts(tmp);
+        a.setDeltaFrames(10);
+        Path step = a.stepDir("poll");
+
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) files.add(a.saveFrame(step, "after.png", frame(i)));
+
+        assertEquals(step.resolve("after.png"), files.get(0));
+        assertEquals(step.resolve("after-2" + DeltaFrames.EXTENSION), files.get(1));
+        assertEquals(step.resolve("after-3" + DeltaFrames.EXTENSION), files.get(2));
+        for (int i = 0; i < files.size(); i++) {
+            assertSamePixels(frame(i), DeltaFrames.reconstruct(files.get(i)));
+        }
+    }
+
+    @Test
+    void materializeNeverOverwritesAKeyframe() throws Exception {
+        Path step = Files.createTempDirectory("deskpilot-delta");
+        DeltaFrames d = new DeltaFrames(10, 32);
+        DeltaFrames.KeyframeSink sink = (f, img) -> ArtifactCodec.png().write(img, f);
+
+        // legacy layout: keyframe x.png and a delta x.dpdelta (built on it) in one folder
+        Path key = d.save(step.resolve("x.png"), step.resolve("y" + DeltaFrames.EXTENSION), frame(0), sink);
+        Path delta = d.save(step.resolve("z.png"), step.resolve("x" + DeltaFrames.EXTENSION), frame(1), sink);
+        assertEquals(step.resolve("x.png"), key);
+        assertEquals(step.resolve("x" + DeltaFrames.EXTENSION), delta);
+
+        assertTrue(DeltaFrames.materialize(step).isEmpty());
+        assertSamePixels(frame(0), javax.imageio.ImageIO.read(key.toFile()));
+        assertSamePixels(frame(1), DeltaFrames.reconstruct(delta));
+    }
+}
@@ -0,0 +1,176 @@
+package io.deskpilot.engine;
+
+import io.deskpilot.engine.metrics.EngineMetrics;
+import io.deskpilot.engine.metrics.MetricsRegistry;
+import io.deskpilot.engine.ocr.OcrConfig;
+import io.deskpilot.engine.ocr.TesseractProfile;
+import net.sourceforge.tess4j.Tesseract;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrEnginePoolTest {
+
+    private static OcrEnginePool pool(int size) {
+        return new OcrEnginePool(size, () -> new OcrEngine(new Tesseract()));
+    }
+
+    @Test
+    void createsLazilyAndReusesReturnedEngines() throws Exception {
+        OcrEnginePool p = pool(2);
+        assertEquals(0, p.created());
+
+        OcrEngine first;
+        try (OcrEnginePool.Lease lease = p.borrow(1000, null)) {
+            first = lease.engine();
+            assertEquals(1, p.inUse());
+        }
+        assertEquals(0, p.inUse());
+
+        try (OcrEnginePool.Lease lease = p.borrow(1000, null)) {
+            assertSame(first, lease.engine());
+        }
+        assertEquals(1, p.created());
+        assertEquals(2, p.borrows());
+    }
+
+    @Test
+    void concurrentBorrowersNeverShareAnEngine() throws Exception {
+        OcrEnginePool p = pool(2);
+        MetricsRegistry metrics = new MetricsRegistry();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        List<OcrEngine> held = java.util.Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService ex = Executors.newFixedThreadPool(6);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<?>> fs = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                fs.add(ex.submit(() -> {
+                    go.await();
+                    try (OcrEnginePool.Lease lease = p.borrow(5000, metrics)) {
+                        OcrEngine e = lease.engine();
+                        synchronized (held) {
+                            assertFalse(held.contains(e), "engine leased twice");
+                            held.add(e);
+                        }
+                        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                        Thread.sleep(10);
+                        concurrent.decrementAndGet();
+                        held.remove(e);
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> f : fs) f.get(10, TimeUnit.SECONDS);
+        } finally {
+            ex.shutdownNow();
+        }
+
+        assertTrue(maxConcurrent.get() <= 2, "max concurrent leases " + maxConcurrent.get());
+        assertTrue(p.created() <= 2);
+        assertEquals(12, p.borrows());
+        assertEquals(12, metrics.findHistogram(EngineMetrics.OCR_POOL_WAIT_SECONDS).count());
+        assertEquals(p.contended(), metrics.counterValue(EngineMetrics.OCR_POOL_BORROWS, "waited", "true"));
+        assertTrue(p.contended() > 0);
+    }
+
+    @Test
+    void borrowTimesOutWhenExhausted() throws Exception {
+        OcrEnginePool p = pool(1);
+        MetricsRegistry metrics = new MetricsRegistry();
+        try (OcrEnginePool.Lease held = p.borrow(1000, metrics)) {
+            RuntimeException e = assertThrows(RuntimeException.class, () -> p.borrow(30, metrics));
+            assertTrue(e.getMessage().contains("poolSize=1"), e.getMessage());
+        }
+        assertEquals(1, metrics.counterValue(EngineMetrics.TIMEOUTS, "op", "ocrBorrow"));
+        assertEquals(0, p.inUse());
+    }
+
+    @Test
+    void failedCreationDoesNotLeakAPermit() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        OcrEnginePool p = new OcrEnginePool(1, () -> {
+            if (calls.incrementAndGet() == 1) throw new IllegalStateException("no tessdata");
+            return new OcrEngine(new Tesseract());
+        });
+
+        assertThrows(IllegalStateException.class, () -> p.borrow(100, null));
+        try (OcrEnginePool.Lease lease = p.borrow(100, null)) {
+            assertNotNull(lease.engine());
+        }
+        assertEquals(1, p.created());
+    }
+
+    @Test
+    void closedLeaseRejectsUseAndDoubleClose() throws Exception {
+        OcrEnginePool p = pool(1);
+        OcrEnginePool.Lease lease = p.borrow(100, null);
+        lease.close();
+        lease.close(); // no second release
+        assertThrows(IllegalStateException.class, lease::engine);
+        assertEquals(0, p.inUse());
+        assertThrows(IllegalArgumentException.class, () -> new OcrEnginePool(0));
+    }
+
+    @Test
+    void enginesAreKeyedByProfileAndEvictedWhenFull() throws Exception {
+        OcrEnginePool p = new OcrEnginePool(2, prof -> new OcrEngine(new Tesseract(), prof));
+        TesseractProfile digits = TesseractProfile.DEFAULT
+                .withPsm(TesseractProfile.PSM_SINGLE_LINE).withWhitelist("0123456789.,-");
+        TesseractProfile word = TesseractProfile.DEFAULT.withPsm(TesseractProfile.PSM_SINGLE_WORD);
+
+        OcrEngine def;
+        OcrEngine num;
+        try (OcrEnginePool.Lease a = p.borrow(100, null);
+             OcrEnginePool.Lease b = p.borrow(digits, 100, null)) {
+            def = a.engine();
+            num = b.engine();
+            assertEquals(TesseractProfile.DEFAULT, def.profile());
+            assertEquals(digits, num.profile());
+        }
+
+        // equal settings share the configured engine
+        try (OcrEnginePool.Lease again = p.borrow(TesseractProfile.DEFAULT.withPsm(7).withWhitelist("0123456789.,-"), 100, null)) {
+            assertSame(num, again.engine());
+        }
+        assertEquals(2, p.created());
+        assertEquals(0, p.evicted());
+
+        // full pool, third profile: the least recently returned idle engine (default) makes room
+        try (OcrEnginePool.Lease w = p.borrow(word, 100, null)) {
+            assertEquals(word, w.engine().profile());
+        }
+        assertEquals(3, p.created());
+        assertEquals(1, p.evicted());
+        try (OcrEnginePool.Lease n = p.borrow(digits, 100, null)) {
+            assertSame(num, n.engine());
+        }
+    }
+
+    @Test
+    void profileSettingsAreValidatedAndPartOfTheConfigKey() {
+        assertThrows(IllegalArgumentException.class, () -> TesseractProfile.DEFAULT.withPsm(14));
+        assertThrows(IllegalArgumentException.class, () -> TesseractProfile.DEFAULT.withOem(4));
+        assertThrows(IllegalArgumentException.class, () -> TesseractProfile.DEFAULT.withUserDpi(-1));
+        assertNull(TesseractProfile.DEFAULT.withWhitelist("").whitelist());
+
+        OcrConfig cfg = OcrConfig.defaults();
+        assertSame(TesseractProfile.DEFAULT, cfg.profile);
+        assertNotEquals(cfg.key(), cfg.withWhitelist("0123456789").key());
+        assertNotEquals(cfg.key(), cfg.withUserDpi(300).key());
+        assertEquals(cfg.withScale(3.0).withPsm(7).profile, cfg.withPsm(7).withScale(3.0).profile);
+        assertEquals(TesseractProfile.PSM_SINGLE_LINE, cfg.withPsm(7).withThreshold(150).withAdaptive(OcrConfig.Adaptive.OTSU).profile.psm());
+    }
+}
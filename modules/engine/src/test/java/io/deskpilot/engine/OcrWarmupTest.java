@@ -0,0 +1,76 @@
+package io.deskpilot.engine;
+
+import io.deskpilot.engine.ocr.TesseractProfile;
+import net.sourceforge.tess4j.Tesseract;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrWarmupTest {
+
+    /** Engine whose first recognition blocks until released (model load stand-in). */
+    private static final class SlowEngine extends OcrEngine {
+        final CountDownLatch release;
+        final AtomicInteger reads = new AtomicInteger();
+
+        SlowEngine(CountDownLatch release, TesseractProfile profile) {
+            super(new Tesseract(), profile);
+            this.release = release;
+        }
+
+        @Override
+        public String readText(BufferedImage img) {
+            reads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "ok 123";
+        }
+    }
+
+    @Test
+    void firstCallerWaitsOnlyForTheRemainingWarmupAndReusesTheEngine() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        OcrEnginePool pool = new OcrEnginePool(2, p -> new SlowEngine(release, p));
+
+        OcrWarmup w = OcrWarmup.start(pool, TesseractProfile.DEFAULT, 1000);
+        assertTrue(w.await(50) >= TimeUnit.MILLISECONDS.toNanos(40), "await returned before its timeout");
+        assertFalse(w.isDone());
+        assertEquals(-1, w.durationNanos());
+
+        release.countDown();
+        w.await(5000);
+        assertTrue(w.isDone());
+        assertNull(w.error());
+        assertTrue(w.durationNanos() > 0);
+
+        // the borrowed engine (settings only; tess4j holds no native handle between calls) is back in the pool
+        try (OcrEnginePool.Lease lease = pool.borrow(TesseractProfile.DEFAULT, 100, null)) {
+            assertEquals(1, ((SlowEngine) lease.engine()).reads.get());
+        }
+        assertEquals(1, pool.created());
+        assertEquals(0, pool.inUse());
+    }
+
+    @Test
+    void failuresAreRecordedNotThrown() throws Exception {
+        OcrEnginePool pool = new OcrEnginePool(1, () -> {
+            throw new IllegalStateException("tessdata missing");
+        });
+
+        OcrWarmup w = OcrWarmup.start(pool, TesseractProfile.DEFAULT, 100);
+        w.await(5000);
+
+        assertTrue(w.isDone());
+        assertInstanceOf(IllegalStateException.class, w.error());
+        assertEquals(0, pool.inUse());
+        assertThrows(IllegalArgumentException.class, () -> OcrWarmup.start(null, TesseractProfile.DEFAULT, 100));
+    }
+}
@@ -0,0 +1,97 @@
+package io.deskpilot.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunArchiveTest {
+
+    private static Path run(Path runNameDir, String id, long modified) throws Exception {
+        Path r = unfinishedRun(runNameDir, id, modified);
+        RunArchive.markComplete(r);
+        Files.setLastModifiedTime(r, FileTime.fromMillis(modified));
+        return r;
+    }
+
+    private static Path unfinishedRun(Path runNameDir, String id, long modified) throws Exception {
+        Path r = Files.createDirectories(runNameDir.resolve(id).resolve("01-startup"));
+        Files.writeString(r.resolve("metadata.json"), "{}");
+        Files.setLastModifiedTime(r.getParent(), FileTime.fromMillis(modified));
+        return r.getParent();
+    }
+
+    @Test
+    void zipAndDelete_replacesFolderWithZip() throws Exception {
+        Path runs = Files.createTempDirectory("deskpilot-archive");
+        Path r = run(runs, "run-1", System.currentTimeMillis());
+        Path step = Files.createDirectories(r.resolve("02-click"));
+        Files.writeString(step.resolve("diag.txt"), "ok=true");
+        Files.write(step.resolve("step_after.png"), new byte[]{1, 2, 3});
+
+        Path zip = RunArchive.zipAndDelete(r);
+
+        assertFalse(Files.exists(r));
+        assertEquals(runs.resolve("run-1.zip"), zip);
+        try (ZipFile z = new ZipFile(zip.toFile())) {
+            assertNotNull(z.getEntry("01-startup/metadata.json"));
+            assertNotNull(z.getEntry("02-click/step_after.png"));
+            assertEquals("ok=true", new String(z.getInputStream(z.getEntry("02-click/diag.txt")).readAllBytes()));
+        }
+    }
+
+    @Test
+    void pruneOldRuns_keepsNewestIncludingCurrent() throws Exception {
+        Path runs = Files.createTempDirectory("deskpilot-archive");
+        long now = System.currentTimeMillis();
+        Path a = run(runs, "run-a", now - 40_000);
+        Path b = run(runs, "run-b", now - 30_000);
+        Path c = run(runs, "run-c", now - 20_000);
+        Path zipped = RunArchive.zipAndDelete(run(runs, "run-z", now - 10_000));
+        Files.setLastModifiedTime(zipped, FileTime.fromMillis(now - 10_000));
+        Path notARun = Files.createDirectories(runs.resolve("scratch"));
+        Path current = run(runs, "run-now", now);
+
+        var deleted = RunArchive.pruneOldRuns(runs, 3, current);
+
+        assertEquals(2, deleted.size());
+        assertFalse(Files.exists(a));
+        assertFalse(Files.exists(b));
+        assertTrue(Files.exists(c));
+        assertTrue(Files.exists(zipped));
+        assertTrue(Files.exists(current));
+        assertTrue(Files.exists(notARun));
+    }
+
+    @Test
+    void pruneOldRuns_skipsUnfinishedLockedAndForeignRuns() throws Exception {
+        Path runs = Files.createTempDirectory("deskpilot-archive");
+        long now = System.currentTimeMillis();
+        Path old = run(runs, "run-old", now - 50_000);
+        Path crashedOrLive = unfinishedRun(runs, "run-live", now - 40_000);
+        Path locked = run(runs, "run-locked", now - 30_000);
+        Path foreignZip = runs.resolve("backup.zip");
+        Files.write(foreignZip, new byte[]{0});
+        Files.setLastModifiedTime(foreignZip, FileTime.fromMillis(now - 20_000));
+        Path current = unfinishedRun(runs, "run-now", now);
+
+        try (RunArchive.RunLock lock = RunArchive.lock(locked)) {
+            assertThrows(java.io.IOException.class, () -> RunArchive.lock(locked));
+
+            var deleted = RunArchive.pruneOldRuns(runs, 1, current);
+
+            assertEquals(java.util.List.of(old), deleted);
+            assertTrue(Files.exists(crashedOrLive));
+            assertTrue(Files.exists(locked));
+            assertTrue(Files.exists(foreignZip));
+        }
+
+        // once released, the finished run is fair game again (and its lock file is gone)
+        assertFalse(Files.exists(runs.resolve("run-locked.lock")));
+        assertEquals(java.util.List.of(locked), RunArchive.pruneOldRuns(runs, 1, current));
+    }
+}
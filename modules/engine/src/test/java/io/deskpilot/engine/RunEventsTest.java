@@ -0,0 +1,53 @@
+package io.deskpilot.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunEventsTest {
+
+    @Test
+    void writesOneJsonObjectPerLineWithEscaping() throws Exception {
+        Path f = Files.createTempDirectory("deskpilot-events").resolve("events.jsonl");
+        try (RunEvents ev = new RunEvents(f, 100)) {
+            ev.event("step.start").put("step", "click \"Save\"\n").put("dir", "02-click").emit();
+            ev.event("step.end").put("durationMs", 42L).put("ok", true).put("score", 0.5).emit();
+        }
+
+        List<String> lines = Files.readAllLines(f);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).matches("\\{\"ts\":\\d+,\"seq\":1,\"type\":\"step.start\",.*\\}"), lines.get(0));
+        assertTrue(lines.get(0).contains("\"step\":\"click \\\"Save\\\"\\n\""), lines.get(0));
+        assertTrue(lines.get(1).endsWith(",\"durationMs\":42,\"ok\":true,\"score\":0.5}"), lines.get(1));
+    }
+
+    @Test
+    void buffersUntilFlushPointThenAppends() throws Exception {
+        Path f = Files.createTempDirectory("deskpilot-events").resolve("events.jsonl");
+        RunEvents ev = new RunEvents(f, 100);
+
+        ev.event("artifact").put("file", "02-a/x.png").emit();
+        assertEquals(0, Files.size(f), "buffered");
+
+        ev.event("step.end").flush().emit();
+        assertEquals(2, Files.readAllLines(f).size());
+        ev.close();
+
+        // a second appender (e.g. a re-attached session) appends instead of truncating
+        try (RunEvents again = new RunEvents(f, 1)) {
+            again.event("step.start").emit();
+        }
+        assertEquals(3, Files.readAllLines(f).size());
+    }
+
+    @Test
+    void noopDiscardsEverything() {
+        assertFalse(RunEvents.NOOP.enabled());
+        RunEvents.NOOP.event("x").put("a", 1L).emit();
+        RunEvents.NOOP.close();
+    }
+}
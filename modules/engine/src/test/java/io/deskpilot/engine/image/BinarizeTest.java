@@ -0,0 +1,55 @@
+package io.deskpilot.engine.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarizeTest {
+
+    private static BufferedImage gray(int w, int h, int fill) {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_GRAY);
+        java.util.Arrays.fill(((DataBufferByte) img.getRaster().getDataBuffer()).getData(), (byte) fill);
+        return img;
+    }
+
+    @Test
+    void otsuSplitsTwoTonesBetweenThePeaks() {
+        BufferedImage img = gray(10, 10, 200);
+        for (int x = 0; x < 10; x++) for (int y = 0; y < 3; y++) img.getRaster().setSample(x, y, 0, 40);
+
+        Binarize.Otsu o = Binarize.otsu(img);
+        assertTrue(o.threshold() > 40 && o.threshold() <= 200, "t=" + o.threshold());
+        assertEquals(1.0, o.separability(), 1e-9);
+
+        Binarize.threshold(img, o.threshold());
+        assertEquals(0, img.getRaster().getSample(5, 1, 0));
+        assertEquals(255, img.getRaster().getSample(5, 8, 0));
+    }
+
+    @Test
+    void flatImageHasNoSeparabilityAndStaysPaperUnderSauvola() {
+        BufferedImage img = gray(40, 40, 180);
+        assertEquals(0.0, Binarize.otsu(img).separability(), 1e-9);
+
+        Binarize.sauvola(img, 15, 0.34);
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 40; x++) assertEquals(255, img.getRaster().getSample(x, y, 0));
+        }
+    }
+
+    @Test
+    void polarityAndArgumentChecks() {
+        BufferedImage img = gray(4, 1, 0);
+        img.getRaster().setSample(0, 0, 0, 255);
+        assertTrue(Binarize.normalizePolarity(img));
+        assertEquals(0, img.getRaster().getSample(0, 0, 0));
+        assertEquals(255, img.getRaster().getSample(1, 0, 0));
+        assertFalse(Binarize.normalizePolarity(img));
+
+        assertThrows(IllegalArgumentException.class, () -> Binarize.otsu(new BufferedImage(2, 2, BufferedImage.TYPE_INT_RGB)));
+        assertThrows(IllegalArgumentException.class, () -> Binarize.sauvola(img, 1, 0.3));
+    }
+}
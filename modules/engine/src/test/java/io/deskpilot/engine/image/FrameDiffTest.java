@@ -0,0 +1,165 @@
+package io.deskpilot.engine.image;
+
+import io.deskpilot.engine.ImageDiff;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameDiffTest {
+
+    @Test
+    void matchesLegacyStrideMetrics() {
+        BufferedImage a = noise(123, 97, 1);
+        BufferedImage b = perturb(a, 2, 0.3, 40);
+
+        assertEquals(legacyStride(a, b, 8), FrameDiff.exact().withStride(8).ratio(a, b), 1e-12);
+        assertEquals(legacyStride(a, b, 4), FrameDiff.exact().withStride(4).ratio(a, b), 1e-12);
+    }
+
+    @Test
+    void matchesLegacyToleranceMetric_forAnyImageType() {
+        BufferedImage a = noise(64, 48, 3);
+        BufferedImage b = perturb(a, 4, 0.5, 25);
+
+        BufferedImage bArgb = new BufferedImage(b.getWidth(), b.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        BufferedImage bBgr = new BufferedImage(b.getWidth(), b.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+        bArgb.getGraphics().drawImage(b, 0, 0, null);
+        bBgr.getGraphics().drawImage(b, 0, 0, null);
+
+        double expected = legacyTolerance(a, b, 10);
+        FrameDiff d = FrameDiff.exact().withTolerance(10);
+        assertEquals(expected, d.ratio(a, b), 1e-12);
+        assertEquals(expected, d.ratio(a, bArgb), 1e-12);
+        assertEquals(expected, d.ratio(a, bBgr), 1e-12);
+    }
+
+    @Test
+    void maskedPixelsAreIgnored() {
+        BufferedImage a = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+        BufferedImage b = new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 20; y++) {
+            for (int x = 30; x < 40; x++) b.setRGB(x, y, 0xFFFFFF); // "clock" area changes
+        }
+
+        assertEquals(0.25, FrameDiff.exact().ratio(a, b), 1e-12);
+
+        DiffMask mask = DiffMask.of(40, 20, List.of(new Rectangle(30, 0, 10, 20), new Rectangle(35, 5, 20, 3)));
+        assertEquals(0.0, FrameDiff.exact().withMask(mask).ratio(a, b), 1e-12);
+
+        b.setRGB(0, 0, 0xFFFFFF);
+        assertEquals(1.0 / 600, FrameDiff.exact().withMask(mask).ratio(a, b), 1e-12);
+    }
+
+    @Test
+    void earlyExitStopsAboveThreshold_andParallelMatchesSerial() {
+        BufferedImage a = noise(1200, 700, 5);
+        BufferedImage b = perturb(a, 6, 0.2, 80);
+
+        double full = FrameDiff.exact().ratio(a, b);
+        assertEquals(full, FrameDiff.exact().withParallel(true).ratio(a, b), 1e-12);
+
+        double early = FrameDiff.exact().withEarlyExit(0.01).ratio(a, b);
+        assertTrue(early > 0.01);
+        assertTrue(early <= full);
+
+        BufferedImage same = perturb(a, 7, 0.0, 0);
+        assertEquals(0.0, FrameDiff.exact().withEarlyExit(0.01).withParallel(true).ratio(a, same), 1e-12);
+    }
+
+    // ---- legacy reference implementations (pre-FrameDiff) ----
+
+    private static double legacyStride(BufferedImage a, BufferedImage b, int stride) {
+        int w = Math.min(a.getWidth(), b.getWidth());
+        int h = Math.min(a.getHeight(), b.getHeight());
+        long total = 0, changed = 0;
+        for (int y = 0; y < h; y += stride) {
+            for (int x = 0; x < w; x += stride) {
+                total++;
+                if (a.getRGB(x, y) != b.getRGB(x, y)) changed++;
+            }
+        }
+        return total == 0 ? 0 : (changed / (double) total);
+    }
+
+    private static double legacyTolerance(BufferedImage a, BufferedImage b, int tol) {
+        int w = Math.min(a.getWidth(), b.getWidth());
+        int h = Math.min(a.getHeight(), b.getHeight());
+        long diff = 0;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int pa = a.getRGB(x, y), pb = b.getRGB(x, y);
+                if (Math.abs(((pa >> 16) & 0xFF) - ((pb >> 16) & 0xFF)) > tol
+                        || Math.abs(((pa >> 8) & 0xFF) - ((pb >> 8) & 0xFF)) > tol
+                        || Math.abs((pa & 0xFF) - (pb & 0xFF)) > tol) diff++;
+            }
+        }
+        return (double) diff / ((long) w * h);
+    }
+
+    @Test
+    void identicalRequiresSameSizeAndEveryPixel() {
+        BufferedImage a = noise(90, 30, 5);
+        BufferedImage copy = perturb(a, 1, 0.0, 0);
+        assertTrue(FrameDiff.identical(a, copy));
+
+        copy.setRGB(89, 29, copy.getRGB(89, 29) ^ 0x01);
+        assertFalse(FrameDiff.identical(a, copy));
+        assertFalse(FrameDiff.identical(a, noise(90, 31, 5)));
+        assertFalse(FrameDiff.identical(null, a));
+    }
+
+    @Test
+    void nothingToCompareAndAlpha_keepPreviousSemantics() {
+        BufferedImage a = noise(10, 10, 5);
+        BufferedImage b = noise(10, 10, 6);
+
+        // no sampled pixels (fully masked): nothing changed, as the stride checks reported
+        DiffMask all = DiffMask.of(10, 10, List.of(new Rectangle(0, 0, 10, 10)));
+        assertEquals(0.0, FrameDiff.exact().withMask(all).ratio(a, b), 1e-12);
+        assertEquals(1.0, FrameDiff.exact().ratio(null, a), 1e-12);
+        assertEquals(1.0, ImageDiff.diffRatio(a, null), 1e-12);
+
+        // alpha-only differences are ignored
+        BufferedImage opaque = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage translucent = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                opaque.setRGB(x, y, 0xFF336699);
+                translucent.setRGB(x, y, 0x10336699);
+            }
+        }
+        assertEquals(0.0, FrameDiff.exact().ratio(opaque, translucent), 1e-12);
+        assertTrue(FrameDiff.identical(opaque, translucent));
+    }
+
+    private static BufferedImage noise(int w, int h, long seed) {
+        Random rnd = new Random(seed);
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) img.setRGB(x, y, rnd.nextInt(0xFFFFFF));
+        }
+        return img;
+    }
+
+    private static BufferedImage perturb(BufferedImage src, long seed, double fraction, int maxDelta) {
+        Random rnd = new Random(seed);
+        BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < src.getHeight(); y++) {
+            for (int x = 0; x < src.getWidth(); x++) {
+                int p = src.getRGB(x, y) & 0xFFFFFF;
+                if (rnd.nextDouble() < fraction) {
+                    int d = rnd.nextInt(2 * maxDelta + 1) - maxDelta;
+                    int g = Math.max(0, Math.min(255, ((p >> 8) & 0xFF) + d));
+                    p = (p & 0xFF00FF) | (g << 8);
+                }
+                out.setRGB(x, y, p);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,53 @@
+package io.deskpilot.engine.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VolatileRegionDetectorTest {
+
+    @Test
+    void blinkingCaretIsDetected_andMaskMakesFramesStable() {
+        BufferedImage on = frame(true);
+        BufferedImage off = frame(false);
+
+        VolatileRegionDetector d = new VolatileRegionDetector(16, 0);
+        BufferedImage prev = on;
+        for (int i = 0; i < 6; i++) {
+            BufferedImage cur = (i % 2 == 0) ? off : on;
+            d.observe(prev, cur);
+            prev = cur;
+        }
+
+        List<Rectangle> hot = d.volatileRegions(3, 0.05);
+        assertEquals(List.of(new Rectangle(32, 16, 16, 16)), hot);
+
+        FrameDiff masked = FrameDiff.exact().withMask(DiffMask.of(160, 120, hot));
+        assertTrue(FrameDiff.exact().ratio(on, off) > 0);
+        assertEquals(0.0, masked.ratio(on, off), 1e-12);
+    }
+
+    @Test
+    void largeChangingAreaIsNotMasked() {
+        BufferedImage black = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        BufferedImage white = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        white.getGraphics().fillRect(0, 0, 64, 64);
+
+        VolatileRegionDetector d = new VolatileRegionDetector(16, 0);
+        for (int i = 0; i < 4; i++) d.observe(i % 2 == 0 ? black : white, i % 2 == 0 ? white : black);
+
+        assertTrue(d.volatileRegions(3, 0.05).isEmpty());
+    }
+
+    private static BufferedImage frame(boolean caretOn) {
+        BufferedImage img = new BufferedImage(160, 120, BufferedImage.TYPE_INT_RGB);
+        if (caretOn) {
+            for (int y = 18; y < 30; y++) img.setRGB(40, y, 0xFFFFFF);
+        }
+        return img;
+    }
+}
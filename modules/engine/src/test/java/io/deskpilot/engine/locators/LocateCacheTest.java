@@ -0,0 +1,60 @@
+package io.deskpilot.engine.locators;
+
+import io.deskpilot.engine.targets.TemplateTarget;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocateCacheTest {
+
+    @Test
+    void hit_returnsTaggedResult_andLruEvicts() {
+        LocateCache c = new LocateCache(2);
+        LocatorResult r = LocatorResult.notFound(LocatorKind.TEMPLATE, "btn", Map.of("reason", "no_match"));
+
+        c.put("a", "h1", r);
+        c.put("b", "h2", r);
+
+        LocatorResult hit = c.get("a", "h1");
+        assertNotNull(hit);
+        assertEquals("true", hit.diag.get("cacheHit"));
+        assertEquals("no_match", hit.diag.get("reason"));
+
+        c.put("c", "h3", r); // evicts "b" (least recently used)
+        assertNull(c.get("b", "h2"));
+        assertNull(c.get("a", "h99")); // same identity, different content
+        assertEquals(1, c.hits());
+        assertEquals(2, c.misses());
+    }
+
+    @Test
+    void disabledCache_neverStores() {
+        LocateCache c = new LocateCache(0);
+        c.put("a", "h1", LocatorResult.notFound(LocatorKind.OCR, "x", null));
+        assertNull(c.get("a", "h1"));
+        assertEquals(0, c.size());
+    }
+
+    @Test
+    void searchAreaDigest_onlyDependsOnScannedPixels() {
+        BufferedImage a = new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB);
+        BufferedImage b = new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g = b.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(30, 30, 5, 5); // outside the scanned area
+        g.dispose();
+
+        TemplateTarget area = new TemplateTarget("btn", new String[]{ "x.png" }, 0.8, new Rectangle(0, 0, 20, 20), null);
+        TemplateTarget whole = new TemplateTarget("btn", new String[]{ "x.png" }, 0.8, null, null);
+        assertEquals(TemplateLocatorEngine.searchAreaDigest(a, area), TemplateLocatorEngine.searchAreaDigest(b, area));
+        assertNotEquals(TemplateLocatorEngine.searchAreaDigest(a, whole), TemplateLocatorEngine.searchAreaDigest(b, whole));
+        assertEquals(64, TemplateLocatorEngine.searchAreaDigest(a, area).length()); // SHA-256 hex
+    }
+}
@@ -0,0 +1,110 @@
+package io.deskpilot.engine.locators;
+
+import io.deskpilot.engine.NormalizedRegion;
+import io.deskpilot.engine.ocr.OcrConfig;
+import io.deskpilot.engine.ocr.PresetRace;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrContainsLocatorTest {
+
+    private static final NormalizedRegion REGION = new NormalizedRegion(0.1, 0.1, 0.5, 0.2);
+
+    /** Reads a fixed text per preset; the session's own config reads {@code plain}. */
+    static final class FakeSession implements LocatorSession {
+        private final String plain;
+        private final Map<OcrConfig.Preset, String> byPreset;
+        boolean raced;
+
+        FakeSession(String plain, Map<OcrConfig.Preset, String> byPreset) {
+            this.plain = plain;
+            this.byPreset = byPreset;
+        }
+
+        @Override public Rectangle getClientRectWin32() { return new Rectangle(0, 0, 100, 100); }
+
+        @Override public java.awt.Point resolvePointWin32(io.deskpilot.engine.UiTarget target) {
+            throw new UnsupportedOperationException("not needed");
+        }
+
+        @Override
+        public LocatorResult locateTemplate(io.deskpilot.engine.targets.TemplateTarget target, String label) {
+            throw new UnsupportedOperationException("not needed");
+        }
+
+        @Override public String readTextNormalized(NormalizedRegion region) { return plain; }
+
+        @Override
+        public PresetRace.Outcome readTextRace(NormalizedRegion region, List<OcrConfig> configs, Predicate<String> accept) {
+            raced = true;
+            Map<String, String> texts = new java.util.LinkedHashMap<>();
+            for (OcrConfig c : configs) {
+                String t = byPreset.getOrDefault(c.preset, "");
+                texts.put(c.preset.name(), t);
+                if (accept.test(t)) return new PresetRace.Outcome(c, t, texts, configs.size() - texts.size());
+            }
+            return new PresetRace.Outcome(null, "", texts, 0);
+        }
+    }
+
+    @Test
+    void singleConfigPathUsesSessionRead() throws Exception {
+        FakeSession s = new FakeSession("File Saved!", Map.of());
+        LocatorResult r = new OcrContainsLocator("status", REGION, "file saved").locate(s);
+
+        assertEquals(LocateStatus.FOUND, r.status);
+        assertFalse(s.raced);
+        assertFalse(r.diag.containsKey("winnerPreset"));
+    }
+
+    @Test
+    void racedPresetsReportTheWinner() throws Exception {
+        FakeSession s = new FakeSession("", Map.of(
+                OcrConfig.Preset.DEFAULT, "fi1e 5aved",
+                OcrConfig.Preset.TEXT_UI, "File saved."));
+        Set<OcrConfig.Preset> presets = EnumSet.of(OcrConfig.Preset.DEFAULT, OcrConfig.Preset.TEXT_UI);
+
+        LocatorResult r = new OcrContainsLocator("status", REGION, "File saved", presets).locate(s);
+
+        assertTrue(s.raced);
+        assertEquals(LocateStatus.FOUND, r.status);
+        assertEquals("TEXT_UI", r.diag.get("winnerPreset"));
+        assertTrue(r.diag.get("ocrByPreset").contains("fi1e 5aved"), r.diag.toString());
+    }
+
+    @Test
+    void maxEditsToleratesMisreadsAndReportsDistance() throws Exception {
+        OcrContainsLocator exact = new OcrContainsLocator("status", REGION, "File saved");
+        FakeSession misread = new FakeSession("Fi1e sav3d", Map.of());
+
+        assertEquals(LocateStatus.NOT_FOUND, exact.locate(misread).status);
+        assertFalse(exact.locate(misread).diag.containsKey("matchDistance"));
+
+        LocatorResult two = exact.withMaxEdits(2).locate(misread);
+        assertEquals(LocateStatus.FOUND, two.status);
+        assertEquals("2", two.diag.get("matchDistance"));
+
+        LocatorResult one = exact.withMaxEdits(1).locate(misread);
+        assertEquals(LocateStatus.NOT_FOUND, one.status);
+        assertEquals("2", one.diag.get("matchDistance")); // near miss explained
+        assertThrows(IllegalArgumentException.class, () -> exact.withMaxEdits(-1));
+        assertThrows(IllegalArgumentException.class, () -> exact.withMaxEdits(4)); // "file saved" allows 3
+    }
+
+    @Test
+    void defaultRaceIsUnsupportedRatherThanMislabelled() {
+        LocatorSession plain = new RegionLocatorTest.FakeSession(new Rectangle(0, 0, 100, 100));
+        OcrContainsLocator raced = new OcrContainsLocator("status", REGION, "anything",
+                EnumSet.of(OcrConfig.Preset.AUTO, OcrConfig.Preset.TEXT_UI));
+
+        assertThrows(UnsupportedOperationException.class, () -> raced.locate(plain));
+    }
+}
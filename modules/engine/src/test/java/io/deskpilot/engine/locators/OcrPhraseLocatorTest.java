@@ -0,0 +1,94 @@
+package io.deskpilot.engine.locators;
+
+import io.deskpilot.engine.NormalizedRegion;
+import io.deskpilot.engine.OcrEngine.OcrWord;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrPhraseLocatorTest {
+
+    private static final NormalizedRegion REGION = new NormalizedRegion(0.0, 0.0, 1.0, 0.1);
+
+    /** Serves a fixed word list (WIN32 boxes) for any region. */
+    static final class WordsSession implements LocatorSession {
+        private final List<OcrWord> words;
+
+        WordsSession(List<OcrWord> words) {
+            this.words = words;
+        }
+
+        @Override public Rectangle getClientRectWin32() { return new Rectangle(0, 0, 800, 600); }
+
+        @Override public String readTextNormalized(NormalizedRegion region) { return ""; }
+
+        @Override public Point resolvePointWin32(io.deskpilot.engine.UiTarget target) {
+            throw new UnsupportedOperationException("not needed");
+        }
+
+        @Override
+        public LocatorResult locateTemplate(io.deskpilot.engine.targets.TemplateTarget target, String label) {
+            throw new UnsupportedOperationException("not needed");
+        }
+
+        @Override
+        public List<OcrWord> readWords(NormalizedRegion region) {
+            return words;
+        }
+    }
+
+    private static OcrWord w(String text, int x, float conf) {
+        return new OcrWord(text, new Rectangle(x, 10, 40, 20), conf);
+    }
+
+    @Test
+    void clicksCentreOfMatchedWords() throws Exception {
+        WordsSession s = new WordsSession(List.of(
+                w("file", 0, 91), w("save", 100, 93), w("as...", 150, 88), w("help", 300, 95)));
+
+        LocatorResult r = new OcrPhraseLocator("save_as", REGION, "Save As").locate(s);
+
+        assertEquals(LocateStatus.FOUND, r.status);
+        assertEquals(new Rectangle(100, 10, 90, 20), r.bounds);
+        assertEquals(new Point(145, 20), r.point);
+        assertEquals(0.88, r.score, 1e-6);
+        assertEquals("[save@93, as...@88]", r.diag.get("matchedWords"));
+    }
+
+    @Test
+    void lowConfidenceNoiseIsDroppedBeforeMatching() throws Exception {
+        // a blurred "ok" read with 20% confidence must not satisfy the target
+        WordsSession s = new WordsSession(List.of(w("cancel", 0, 90), w("ok", 100, 20)));
+
+        LocatorResult r = new OcrPhraseLocator("ok", REGION, "OK").locate(s);
+        assertEquals(LocateStatus.NOT_FOUND, r.status);
+        assertEquals("1", r.diag.get("droppedLowConfidence"));
+
+        LocatorResult lenient = new OcrPhraseLocator("ok", REGION, "OK", 10f).locate(s);
+        assertEquals(LocateStatus.FOUND, lenient.status);
+    }
+
+    @Test
+    void punctuatedWordSplitsIntoTokensSharingOneBox() throws Exception {
+        WordsSession s = new WordsSession(List.of(w("save-as", 100, 90), w("now", 150, 90)));
+
+        LocatorResult r = new OcrPhraseLocator("save_as", REGION, "save as").locate(s);
+
+        assertEquals(LocateStatus.FOUND, r.status);
+        assertEquals(new Rectangle(100, 10, 40, 20), r.bounds);
+        assertEquals("[save-as@90]", r.diag.get("matchedWords"));
+    }
+
+    @Test
+    void sessionsWithoutWordsAndBadArgumentsFailLoudly() {
+        LocatorSession plain = new RegionLocatorTest.FakeSession(new Rectangle(0, 0, 100, 100));
+        assertThrows(UnsupportedOperationException.class,
+                () -> new OcrPhraseLocator("x", REGION, "x").locate(plain));
+        assertThrows(IllegalArgumentException.class, () -> new OcrPhraseLocator("x", REGION, "..."));
+        assertThrows(IllegalArgumentException.class, () -> new OcrPhraseLocator("x", REGION, "x", 101f));
+    }
+}
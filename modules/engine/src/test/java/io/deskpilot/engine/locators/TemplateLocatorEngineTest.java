@@ -6,6 +6,10 @@ import org.junit.jupiter.api.Test;
 
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,4 +65,45 @@ class TemplateLocatorEngineTest {
         assertTrue(r.score >= 0.0, "near score should be recorded");
         assertNotNull(r.bounds);
     }
-}
\ No newline at end of file
+
+    @Test
+    void movedClientRect_missesLocateCache() throws Exception {
+        BufferedImage client = ImageUtil.loadResource("test-templates/client40.png");
+        TemplateTarget t = new TemplateTarget("black8", new String[]{ "test-templates/black8.png" }, 0.80, null, null);
+        String hash = TemplateLocatorEngine.searchAreaDigest(client, t);
+        LocateCache cache = new LocateCache(8);
+
+        Rectangle before = new Rectangle(100, 200, client.getWidth(), client.getHeight());
+        String idBefore = TemplateLocatorEngine.identity(t, "black8", before);
+        cache.put(idBefore, hash, TemplateLocatorEngine.locate(client, before, t, "black8"));
+        assertNotNull(cache.get(idBefore, hash));
+
+        // window moved, same pixels: the cached WIN32 point would be wrong, so the lookup must miss
+        Rectangle after = new Rectangle(300, 50, client.getWidth(), client.getHeight());
+        String idAfter = TemplateLocatorEngine.identity(t, "black8", after);
+        assertNull(cache.get(idAfter, hash));
+
+        LocatorResult fresh = TemplateLocatorEngine.locate(client, after, t, "black8");
+        LocatorResult stale = TemplateLocatorEngine.locate(client, before, t, "black8");
+        assertEquals(stale.point.x + 200, fresh.point.x);
+        assertEquals(stale.point.y - 150, fresh.point.y);
+    }
+
+    @Test
+    void identity_changesWhenTemplateFileChanges() throws Exception {
+        Path src = Path.of(getClass().getClassLoader().getResource("test-templates/black8.png").toURI());
+        Path copy = src.resolveSibling("identity-probe.png");
+        Files.copy(src, copy, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            TemplateTarget t = new TemplateTarget("probe", new String[]{ "test-templates/identity-probe.png" }, 0.80, null, null);
+            Rectangle rect = new Rectangle(0, 0, 40, 40);
+
+            String first = TemplateLocatorEngine.identity(t, "probe", rect);
+            Files.setLastModifiedTime(copy, FileTime.fromMillis(Files.getLastModifiedTime(copy).toMillis() - 60_000));
+            assertNotEquals(first, TemplateLocatorEngine.identity(t, "probe", rect));
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+        assertEquals("missing", TemplateLocatorEngine.resourceFingerprint("test-templates/identity-probe.png"));
+    }
+}
@@ -0,0 +1,119 @@
+package io.deskpilot.engine.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void histogramPercentilesStayWithinBucketResolution() {
+        Histogram h = new Histogram();
+        for (int ms = 1; ms <= 1000; ms++) h.record(ms, TimeUnit.MILLISECONDS);
+
+        assertEquals(1000, h.count());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), h.maxNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500_500), h.sumNanos());
+
+        // 8 sub-buckets per power of two => upper bounds are at most 12.5% above the true value
+        long p50 = h.percentileNanos(0.50);
+        long p99 = h.percentileNanos(0.99);
+        assertTrue(p50 >= 500_000_000L && p50 <= 562_500_000L, "p50=" + p50);
+        assertTrue(p99 >= 990_000_000L && p99 <= 1_000_000_000L, "p99=" + p99);
+        assertEquals(h.maxNanos(), h.percentileNanos(1.0));
+    }
+
+    @Test
+    void bucketIndexAndUpperBoundAgree() {
+        for (long v : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 1_000_000, 123_456_789_012L, Long.MAX_VALUE}) {
+            int i = Histogram.index(v);
+            assertTrue(i >= 0 && i < Histogram.BUCKETS, "index " + i + " for " + v);
+            assertTrue(Histogram.upperBound(i) >= v, "upperBound < value for " + v);
+            if (i > 0) assertTrue(Histogram.upperBound(i - 1) < v, "previous bucket covers " + v);
+        }
+    }
+
+    @Test
+    void countersAreKeyedByNameAndLabels() {
+        MetricsRegistry m = new MetricsRegistry();
+        m.counter("x_total", "kind", "OCR", "status", "FOUND").inc();
+        m.counter("x_total", "status", "FOUND", "kind", "OCR").add(2); // label order does not matter
+        m.counter("x_total", "kind", "TEMPLATE", "status", "FOUND").inc();
+
+        assertEquals(3, m.counterValue("x_total", "kind", "OCR", "status", "FOUND"));
+        assertEquals(1, m.counterValue("x_total", "kind", "TEMPLATE", "status", "FOUND"));
+        assertEquals(0, m.counterValue("x_total"));
+        assertThrows(IllegalArgumentException.class, () -> m.counter("bad-name"));
+        assertThrows(IllegalArgumentException.class, () -> m.counter("bad-name")); // never cached as valid
+        assertThrows(IllegalArgumentException.class, () -> m.counter("x_total", "bad-label", "v"));
+        assertThrows(IllegalArgumentException.class, () -> m.counter("x_total", "kind"));
+        assertThrows(IllegalArgumentException.class, () -> m.counter("x_total").add(-1));
+    }
+
+    @Test
+    void prometheusTextHasCumulativeBucketsSumAndCount() {
+        MetricsRegistry m = new MetricsRegistry().describe("op_seconds", "Op latency.");
+        m.counter("ops_total", "op", "a\"b").inc();
+        Histogram h = m.histogram("op_seconds", "op", "click");
+        h.recordNanos(500);          // below the first bucket bound (1024ns)
+        h.record(3, TimeUnit.MILLISECONDS);
+
+        String text = m.toPrometheus();
+        assertTrue(text.contains("# TYPE ops_total counter\n"), text);
+        assertTrue(text.contains("ops_total{op=\"a\\\"b\"} 1\n"), text);
+        assertTrue(text.contains("# HELP op_seconds Op latency.\n# TYPE op_seconds histogram\n"), text);
+        assertTrue(text.contains("op_seconds_bucket{op=\"click\",le=\"0.000001024\"} 1\n"), text);
+        assertTrue(text.contains("op_seconds_bucket{op=\"click\",le=\"0.004194304\"} 2\n"), text);
+        assertTrue(text.contains("op_seconds_bucket{op=\"click\",le=\"+Inf\"} 2\n"), text);
+        assertTrue(text.contains("op_seconds_sum{op=\"click\"} 0.0030005\n"), text);
+        assertTrue(text.contains("op_seconds_count{op=\"click\"} 2\n"), text);
+
+        long previous = 0;
+        for (String line : text.split("\n")) {
+            if (!line.startsWith("op_seconds_bucket")) continue;
+            long v = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+            assertTrue(v >= previous, "buckets must be cumulative: " + line);
+            previous = v;
+        }
+    }
+
+    @Test
+    void mergeAddsCountersAndHistograms() {
+        MetricsRegistry a = new MetricsRegistry();
+        MetricsRegistry b = new MetricsRegistry();
+        a.counter("c_total").add(2);
+        b.counter("c_total").add(3);
+        a.histogram("h_seconds").recordNanos(1_000);
+        b.histogram("h_seconds").recordNanos(9_000_000);
+
+        a.mergeFrom(b);
+        assertEquals(5, a.counterValue("c_total"));
+        Histogram h = a.findHistogram("h_seconds");
+        assertEquals(2, h.count());
+        assertEquals(9_000_000, h.maxNanos());
+        assertEquals(9_001_000, h.sumNanos());
+    }
+
+    @Test
+    void writesPromAndJsonFiles() throws Exception {
+        MetricsRegistry m = EngineMetrics.newRegistry();
+        EngineMetrics.locate(m, "TEMPLATE", "FOUND", System.nanoTime());
+        EngineMetrics.timeout(m, "click");
+
+        Path dir = Files.createTempDirectory("metrics");
+        m.writeTo(dir);
+
+        String prom = Files.readString(dir.resolve("metrics.prom"));
+        assertTrue(prom.contains("deskpilot_locate_attempts_total{kind=\"TEMPLATE\",status=\"FOUND\"} 1"), prom);
+        assertTrue(prom.contains("deskpilot_timeouts_total{op=\"click\"} 1"), prom);
+
+        String json = Files.readString(dir.resolve("metrics.json"));
+        assertTrue(json.contains("{\"name\": \"deskpilot_timeouts_total\", \"labels\": {\"op\": \"click\"}, \"value\": 1}"), json);
+        assertTrue(json.contains("\"name\": \"deskpilot_locate_duration_seconds\""), json);
+        assertTrue(json.contains("\"p99Seconds\": "), json);
+    }
+}
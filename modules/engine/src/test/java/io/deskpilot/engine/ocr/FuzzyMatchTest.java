@@ -0,0 +1,81 @@
+package io.deskpilot.engine.ocr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyMatchTest {
+
+    @Test
+    void typicalOcrMisreads() {
+        assertEquals(0, FuzzyMatch.bestDistance("saved", "file saved ok"));
+        assertEquals(1, FuzzyMatch.bestDistance("saved", "file sav3d ok"));    // substitution
+        assertEquals(1, FuzzyMatch.bestDistance("saved", "file savd ok"));     // deletion
+        assertEquals(1, FuzzyMatch.bestDistance("saved", "file sa ved ok"));   // insertion
+        assertEquals(5, FuzzyMatch.bestDistance("saved", ""));
+
+        assertTrue(FuzzyMatch.contains("saved", "fi1e sav3d", 1));
+        assertFalse(FuzzyMatch.contains("saved", "fi1e 5av3d", 1));
+        assertFalse(FuzzyMatch.contains("saved", "sav3d", 0));
+        assertThrows(IllegalArgumentException.class, () -> FuzzyMatch.contains("x", "y", -1));
+    }
+
+    @Test
+    void editBudgetIsCappedAtAThirdOfThePattern() {
+        // with maxEdits >= length any text would match, even an empty one
+        assertEquals(2, FuzzyMatch.bestDistance("ok", ""));
+        assertThrows(IllegalArgumentException.class, () -> FuzzyMatch.contains("ok", "", 2));
+        assertThrows(IllegalArgumentException.class, () -> FuzzyMatch.contains("ok", "zz", 1));
+        assertThrows(IllegalArgumentException.class, () -> FuzzyMatch.contains("saved", "x", 2));
+
+        assertEquals(0, FuzzyMatch.maxEditsFor("ok"));
+        assertEquals(1, FuzzyMatch.maxEditsFor("saved"));
+        assertEquals(3, FuzzyMatch.maxEditsFor("file saved"));
+        assertTrue(FuzzyMatch.contains("ok", "ok!", 0));
+        assertTrue(FuzzyMatch.contains("file saved", "fi1e 5av3d", 3));
+        assertThrows(IllegalArgumentException.class, () -> FuzzyMatch.maxEditsFor(null));
+    }
+
+    @Test
+    void bitParallelAgreesWithDynamicProgramming() {
+        Random rnd = new Random(3);
+        for (int round = 0; round < 2_000; round++) {
+            String p = random(rnd, 1 + rnd.nextInt(64));
+            String t = random(rnd, rnd.nextInt(120));
+            assertEquals(reference(p, t), FuzzyMatch.bestDistance(p, t), p + " / " + t);
+        }
+    }
+
+    @Test
+    void patternsLongerThanAWordUseTheFallback() {
+        String p = "a".repeat(70) + "b";
+        String t = "x" + "a".repeat(70) + "c" + "y";
+        assertEquals(1, FuzzyMatch.bestDistance(p, t));
+        assertEquals(reference(p, t), FuzzyMatch.bestDistance(p, t));
+    }
+
+    /** Textbook Sellers DP over the full matrix. */
+    private static int reference(String p, String t) {
+        int m = p.length();
+        int n = t.length();
+        int[][] d = new int[m + 1][n + 1];
+        for (int i = 0; i <= m; i++) d[i][0] = i;
+        int best = m;
+        for (int j = 1; j <= n; j++) {
+            for (int i = 1; i <= m; i++) {
+                int sub = d[i - 1][j - 1] + (p.charAt(i - 1) == t.charAt(j - 1) ? 0 : 1);
+                d[i][j] = Math.min(sub, Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1));
+            }
+            best = Math.min(best, d[m][j]);
+        }
+        return best;
+    }
+
+    private static String random(Random rnd, int len) {
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) sb.append("abc 1".charAt(rnd.nextInt(5)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package io.deskpilot.engine.ocr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiPatternMatcherTest {
+
+    @Test
+    void reportsWhichBranchAppearedInNormalizedText() {
+        MultiPatternMatcher m = new MultiPatternMatcher(List.of("Saved", "Error: duplicate", "Session expired"));
+
+        assertEquals(List.of("saved", "error duplicate", "session expired"), m.patterns());
+        assertEquals(0, m.firstMatch("File SAVED."));
+        assertEquals(1, m.firstMatch("ERROR -- duplicate\nrecord"));
+        assertEquals(2, m.firstMatch("your session   expired!"));
+        assertEquals(-1, m.firstMatch("saving..."));
+        assertEquals(-1, m.firstMatch(null));
+    }
+
+    @Test
+    void overlappingPatternsAreAllFoundAndLowestIndexWins() {
+        // "he" is a suffix of "she" and a prefix of "hers": exercises failure links
+        MultiPatternMatcher m = new MultiPatternMatcher(List.of("hers", "his", "she", "he"));
+
+        assertArrayEquals(new int[]{0, 2, 3}, m.matches("ushers"));
+        assertEquals(0, m.firstMatch("ushers"));
+        assertArrayEquals(new int[]{3}, m.matches("ahe"));
+    }
+
+    @Test
+    void agreesWithContainsOnRandomText() {
+        Random rnd = new Random(11);
+        List<String> pats = new ArrayList<>();
+        for (int i = 0; i < 30; i++) pats.add(random(rnd, 1 + rnd.nextInt(4)));
+        MultiPatternMatcher m = new MultiPatternMatcher(pats);
+
+        for (int round = 0; round < 200; round++) {
+            String text = random(rnd, 60);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < pats.size(); i++) {
+                if (OcrText.normalizeForMatch(text).contains(m.patterns().get(i))) expected.add(i);
+            }
+            assertEquals(expected, java.util.Arrays.stream(m.matches(text)).boxed().toList(), text);
+        }
+    }
+
+    @Test
+    void blankPatternsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new MultiPatternMatcher(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new MultiPatternMatcher(List.of("ok", "!!!")));
+    }
+
+    private static String random(Random rnd, int len) {
+        String alphabet = "ab 1.";
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < len || OcrText.normalizeForMatch(sb.toString()).isEmpty()) {
+            sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
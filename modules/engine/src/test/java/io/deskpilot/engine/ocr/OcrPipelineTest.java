@@ -0,0 +1,136 @@
+package io.deskpilot.engine.ocr;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GradientPaint;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrPipelineTest {
+
+    /** Anti-aliased dark text and a gradient on a light background, like a captured toolbar. */
+    private static BufferedImage uiCrop() {
+        BufferedImage img = new BufferedImage(180, 40, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(250, 250, 245), 180, 40, new Color(205, 215, 230)));
+        g.fillRect(0, 0, 180, 40);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(new Color(30, 40, 60));
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 14));
+        g.drawString("Save As... 42%", 8, 26);
+        g.setColor(new Color(200, 60, 40));
+        g.fillRect(150, 8, 20, 24);
+        g.dispose();
+        return img;
+    }
+
+    @Test
+    void fusedOutputIsByteGrayAndMatchesLegacyPipeline() {
+        BufferedImage crop = uiCrop();
+
+        for (OcrConfig.Preset p : OcrConfig.Preset.values()) {
+            OcrConfig cfg = OcrConfig.preset(p);
+            if (cfg.adaptive != null) continue; // no legacy equivalent
+            BufferedImage fused = OcrPipeline.preprocess(crop, cfg).preprocessed;
+            BufferedImage legacy = OcrPipeline.preprocessLegacy(crop, cfg).preprocessed;
+
+            assertEquals(BufferedImage.TYPE_BYTE_GRAY, fused.getType(), p.name());
+            assertEquals(legacy.getWidth(), fused.getWidth(), p.name());
+            assertEquals(legacy.getHeight(), fused.getHeight(), p.name());
+
+            long sumDiff = 0;
+            int bigDiffs = 0;
+            int n = fused.getWidth() * fused.getHeight();
+            for (int y = 0; y < fused.getHeight(); y++) {
+                for (int x = 0; x < fused.getWidth(); x++) {
+                    int a = fused.getRaster().getSample(x, y, 0);
+                    int b = legacy.getRGB(x, y) & 0xFF;
+                    int d = Math.abs(a - b);
+                    sumDiff += d;
+                    if (d > 16) bigDiffs++;
+                }
+            }
+
+            if (cfg.threshold01_255 == null) {
+                assertTrue(sumDiff / (double) n <= 1.5, p + " mean diff " + sumDiff / (double) n);
+                assertTrue(bigDiffs <= n / 200, p + " pixels off by >16: " + bigDiffs);
+            } else {
+                // binarized: only pixels sitting right at the threshold may flip
+                assertTrue(bigDiffs <= n / 100, p + " flipped pixels: " + bigDiffs + "/" + n);
+            }
+        }
+    }
+
+    @Test
+    void unscaledPathAndThresholdEdges() {
+        BufferedImage img = new BufferedImage(3, 1, BufferedImage.TYPE_INT_RGB);
+        img.setRGB(0, 0, 0x000000);
+        img.setRGB(1, 0, 0x808080);
+        img.setRGB(2, 0, 0xFFFFFF);
+
+        BufferedImage gray = OcrPipeline.preprocess(img, OcrConfig.defaults().withScale(1.0)).preprocessed;
+        assertEquals(0, gray.getRaster().getSample(0, 0, 0));
+        assertEquals(128, gray.getRaster().getSample(1, 0, 0));
+        assertEquals(255, gray.getRaster().getSample(2, 0, 0));
+
+        BufferedImage bin = OcrPipeline.preprocess(img, OcrConfig.defaults().withScale(1.0).withThreshold(128)).preprocessed;
+        assertEquals(0, bin.getRaster().getSample(0, 0, 0));
+        assertEquals(255, bin.getRaster().getSample(1, 0, 0)); // >= threshold is white
+        assertEquals(255, bin.getRaster().getSample(2, 0, 0));
+    }
+
+    @Test
+    void autoPresetPicksOtsuForTwoTonesAndSauvolaForGradients() {
+        OcrConfig auto = OcrConfig.preset(OcrConfig.Preset.AUTO);
+        assertEquals(OcrConfig.Adaptive.AUTO, auto.adaptive);
+
+        BufferedImage flat = new BufferedImage(120, 30, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = flat.createGraphics();
+        g.setColor(new Color(235, 235, 235));
+        g.fillRect(0, 0, 120, 30);
+        g.setColor(new Color(20, 20, 20));
+        g.fillRect(10, 10, 60, 8);
+        g.dispose();
+        OcrPipeline.Result r = OcrPipeline.preprocess(flat, auto);
+        assertTrue(r.binarization.startsWith("otsu:"), r.binarization);
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, r.preprocessed.getType());
+
+        // strong left-to-right background gradient: no single threshold separates ink from paper
+        BufferedImage grad = new BufferedImage(160, 30, BufferedImage.TYPE_INT_RGB);
+        g = grad.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(250, 250, 250), 160, 0, new Color(60, 60, 60)));
+        g.fillRect(0, 0, 160, 30);
+        g.setColor(new Color(10, 10, 10));
+        g.fillRect(8, 12, 10, 6);
+        g.fillRect(140, 12, 10, 6);
+        g.dispose();
+        OcrPipeline.Result sv = OcrPipeline.preprocess(grad, auto);
+        assertTrue(sv.binarization.startsWith("sauvola:"), sv.binarization);
+        BufferedImage bin = sv.preprocessed;
+        assertEquals(0, bin.getRaster().getSample(13 * 3, 15 * 3, 0), "left ink");
+        assertEquals(0, bin.getRaster().getSample(145 * 3, 15 * 3, 0), "right ink");
+        assertEquals(255, bin.getRaster().getSample(13 * 3, 4 * 3, 0), "left paper");
+        assertEquals(255, bin.getRaster().getSample(145 * 3, 4 * 3, 0), "right paper");
+
+        // light text on a dark bar comes out as dark text on white
+        BufferedImage dark = new BufferedImage(120, 30, BufferedImage.TYPE_INT_RGB);
+        g = dark.createGraphics();
+        g.setColor(new Color(30, 30, 60));
+        g.fillRect(0, 0, 120, 30);
+        g.setColor(Color.WHITE);
+        g.fillRect(10, 10, 60, 8);
+        g.dispose();
+        OcrPipeline.Result inv = OcrPipeline.preprocess(dark, auto);
+        assertTrue(inv.binarization.endsWith(":inverted"), inv.binarization);
+        assertEquals(255, inv.preprocessed.getRaster().getSample(3, 3, 0));
+        assertEquals(0, inv.preprocessed.getRaster().getSample(40 * 3, 14 * 3, 0));
+
+        assertNotEquals(auto.key(), auto.withAdaptive(OcrConfig.Adaptive.OTSU).key());
+        assertNull(auto.withThreshold(150).adaptive);
+    }
+}
@@ -0,0 +1,97 @@
+package io.deskpilot.engine.ocr;
+
+import io.deskpilot.engine.metrics.EngineMetrics;
+import io.deskpilot.engine.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrResultCacheTest {
+
+    private static BufferedImage gray(int w, int h, int seed) {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_GRAY);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                img.getRaster().setSample(x, y, 0, (x * 31 + y * 17 + seed) & 0xFF);
+            }
+        }
+        return img;
+    }
+
+    @Test
+    void identicalPixelsAreAnsweredFromCache() throws Exception {
+        OcrResultCache cache = new OcrResultCache(8);
+        MetricsRegistry metrics = new MetricsRegistry();
+        cache.setMetrics(metrics);
+        AtomicInteger ocrCalls = new AtomicInteger();
+        String cfg = OcrConfig.defaults().key();
+
+        String a = cache.computeIfAbsent(OcrResultCache.TEXT, gray(40, 20, 1), cfg, () -> "save " + ocrCalls.incrementAndGet());
+        String b = cache.computeIfAbsent(OcrResultCache.TEXT, gray(40, 20, 1), cfg, () -> "save " + ocrCalls.incrementAndGet());
+
+        assertEquals("save 1", a);
+        assertEquals(a, b);
+        assertEquals(1, ocrCalls.get());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(0.5, cache.hitRate(), 1e-9);
+        assertEquals(1, metrics.counterValue(EngineMetrics.OCR_CACHE_LOOKUPS, "result", "hit"));
+        assertEquals(1, metrics.counterValue(EngineMetrics.OCR_CACHE_LOOKUPS, "result", "miss"));
+    }
+
+    @Test
+    void pixelsConfigAndKindAreAllPartOfTheKey() throws Exception {
+        OcrResultCache cache = new OcrResultCache(8);
+        AtomicInteger ocrCalls = new AtomicInteger();
+        String def = OcrConfig.defaults().key();
+        String ui = OcrConfig.preset(OcrConfig.Preset.TEXT_UI).key();
+
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(40, 20, 1), def, ocrCalls::incrementAndGet);
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(40, 20, 2), def, ocrCalls::incrementAndGet);
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(40, 20, 1), ui, ocrCalls::incrementAndGet);
+        cache.computeIfAbsent(OcrResultCache.WORDS, gray(40, 20, 1), def, ocrCalls::incrementAndGet);
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(20, 40, 1), def, ocrCalls::incrementAndGet);
+
+        assertEquals(5, ocrCalls.get());
+        assertEquals(0, cache.hits());
+        assertNotEquals(def, OcrConfig.defaults().withThreshold(120).key());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndZeroDisables() throws Exception {
+        OcrResultCache cache = new OcrResultCache(2);
+        AtomicInteger ocrCalls = new AtomicInteger();
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(8, 8, 1), "", ocrCalls::incrementAndGet);
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(8, 8, 2), "", ocrCalls::incrementAndGet);
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(8, 8, 1), "", ocrCalls::incrementAndGet); // touch 1
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(8, 8, 3), "", ocrCalls::incrementAndGet); // evicts 2
+        assertEquals(2, cache.size());
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(8, 8, 1), "", ocrCalls::incrementAndGet);
+        assertEquals(3, ocrCalls.get());
+        cache.computeIfAbsent(OcrResultCache.TEXT, gray(8, 8, 2), "", ocrCalls::incrementAndGet);
+        assertEquals(4, ocrCalls.get());
+
+        OcrResultCache off = new OcrResultCache(0);
+        off.computeIfAbsent(OcrResultCache.TEXT, gray(8, 8, 1), "", ocrCalls::incrementAndGet);
+        off.computeIfAbsent(OcrResultCache.TEXT, gray(8, 8, 1), "", ocrCalls::incrementAndGet);
+        assertEquals(6, ocrCalls.get());
+        assertEquals(0, off.hits() + off.misses());
+    }
+
+    @Test
+    void imageHashMatchesAcrossRasterLayouts() {
+        BufferedImage rgb = new BufferedImage(5, 3, BufferedImage.TYPE_INT_RGB);
+        rgb.setRGB(2, 1, 0x123456);
+        BufferedImage parent = new BufferedImage(9, 9, BufferedImage.TYPE_INT_RGB);
+        parent.setRGB(4, 3, 0x123456);
+        BufferedImage sub = parent.getSubimage(2, 2, 5, 3); // shares parent's raster, exercises the slow path
+
+        assertEquals(OcrResultCache.imageHash(rgb), OcrResultCache.imageHash(sub));
+        assertEquals(64, OcrResultCache.imageHash(rgb).length());
+        sub.setRGB(0, 0, 1);
+        assertNotEquals(OcrResultCache.imageHash(rgb), OcrResultCache.imageHash(sub));
+    }
+}
@@ -0,0 +1,131 @@
+package io.deskpilot.engine.ocr;
+
+import io.deskpilot.engine.OcrEngine.OcrWord;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrWordIndexTest {
+
+    private static OcrWord w(String text, int x, int y, int width, int height) {
+        return new OcrWord(text, new Rectangle(x, y, width, height));
+    }
+
+    private static BufferedImage frame() {
+        BufferedImage img = new BufferedImage(200, 350, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, img.getWidth(), img.getHeight());
+        g.dispose();
+        return img;
+    }
+
+    private static final Rectangle WHOLE = new Rectangle(0, 0, 200, 350);
+
+    private static OcrWordIndex index(List<OcrWord> words) {
+        return OcrWordIndex.empty(frame(), "cfg").with(frame(), WHOLE, words);
+    }
+
+    private static final List<OcrWord> SCREEN = List.of(
+            // toolbar, deliberately out of order
+            w("edit", 60, 5, 30, 12),
+            w("file", 10, 6, 28, 12),
+            w("view", 110, 4, 32, 12),
+            // status bar, two lines
+            w("saved", 80, 300, 40, 14),
+            w("file", 20, 302, 30, 14),
+            w("ln", 20, 322, 14, 14),
+            w("12", 40, 321, 16, 14));
+
+    @Test
+    void regionQueryReturnsWordsInReadingOrder() {
+        OcrWordIndex idx = index(SCREEN);
+
+        assertEquals(7, idx.size());
+        assertEquals("file edit view", idx.text(new Rectangle(0, 0, 200, 30)));
+        assertEquals("file saved\nln 12", idx.text(new Rectangle(0, 290, 200, 60)));
+        assertEquals("", idx.text(new Rectangle(0, 100, 200, 100)));
+        assertTrue(idx.words(new Rectangle(0, 0, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void wordsCutByRegionEdgeBelongToTheSideHoldingTheirCentre() {
+        OcrWordIndex idx = index(SCREEN);
+
+        // "edit" spans x 60..90 (centre 75): only the right-hand region gets it
+        assertEquals("file", idx.text(new Rectangle(0, 0, 70, 30)));
+        assertEquals("edit view", idx.text(new Rectangle(70, 0, 200, 30)));
+    }
+
+    @Test
+    void gridQueryMatchesLinearScanAcrossCells() {
+        List<OcrWord> many = new ArrayList<>();
+        for (int i = 0; i < 400; i++) many.add(w("w" + i, (i * 37) % 1900, (i * 53) % 1000, 20 + i % 30, 12));
+        OcrWordIndex idx = index(many);
+
+        Rectangle area = new Rectangle(300, 200, 517, 333);
+        long expected = many.stream()
+                .filter(x -> area.contains(x.box.x + x.box.width / 2, x.box.y + x.box.height / 2))
+                .count();
+        assertEquals(expected, idx.words(area).size());
+        assertTrue(expected > 0);
+    }
+
+    @Test
+    void patchesCoverOnlyQueriedAreasAndMergeWhenTheyOverlap() {
+        OcrWordIndex idx = OcrWordIndex.empty(frame(), "cfg");
+        Rectangle toolbar = new Rectangle(0, 0, 200, 30);
+
+        // first read: just the padded region, clipped to the frame
+        Rectangle p1 = idx.patchFor(toolbar, 16);
+        assertEquals(new Rectangle(0, 0, 200, 46), p1);
+        idx = idx.with(frame(), p1, SCREEN.subList(0, 3));
+        assertEquals(1, idx.patches());
+
+        // a far region gets its own patch instead of one box spanning both
+        Rectangle p2 = idx.patchFor(new Rectangle(0, 290, 200, 60), 16);
+        assertEquals(new Rectangle(0, 274, 200, 76), p2);
+        idx = idx.with(frame(), p2, SCREEN.subList(3, 7));
+        assertEquals(2, idx.patches());
+        assertEquals(7, idx.size());
+
+        // an overlapping read is merged with the patch it touches, which it then replaces
+        Rectangle p3 = idx.patchFor(new Rectangle(0, 40, 100, 20), 0);
+        assertEquals(new Rectangle(0, 0, 200, 60), p3);
+        idx = idx.with(frame(), p3, List.of(w("file", 10, 6, 28, 12)));
+        assertEquals(2, idx.patches());
+        assertEquals("file", idx.text(toolbar));
+        assertEquals("file saved\nln 12", idx.text(new Rectangle(0, 290, 200, 60)));
+    }
+
+    @Test
+    void matchesOnlyWhileThePatchPixelsAndConfigAreUnchanged() {
+        OcrWordIndex idx = OcrWordIndex.empty(frame(), "preset=DEFAULT")
+                .with(frame(), new Rectangle(0, 0, 200, 46), SCREEN.subList(0, 3))
+                .with(frame(), new Rectangle(0, 274, 200, 76), SCREEN.subList(3, 7));
+        Rectangle toolbar = new Rectangle(0, 0, 200, 30);
+        Rectangle status = new Rectangle(0, 290, 200, 60);
+
+        assertTrue(idx.matches(frame(), toolbar, "preset=DEFAULT"));
+        assertFalse(idx.matches(frame(), toolbar, "preset=TEXT_UI"));
+        assertFalse(idx.matches(new BufferedImage(201, 350, BufferedImage.TYPE_INT_RGB), toolbar, "preset=DEFAULT"));
+        assertFalse(idx.matches(frame(), new Rectangle(0, 100, 200, 50), "preset=DEFAULT"), "never read");
+
+        // a clock ticking in the status bar only invalidates reads of the status bar
+        BufferedImage ticked = frame();
+        ticked.setRGB(150, 330, 0x000000);
+        assertTrue(idx.matches(ticked, toolbar, "preset=DEFAULT"));
+        assertFalse(idx.matches(ticked, status, "preset=DEFAULT"));
+
+        assertThrows(IllegalArgumentException.class, () -> idx.with(frame(), toolbar, null));
+        assertThrows(IllegalArgumentException.class, () -> idx.with(ticked, new Rectangle(500, 500, 10, 10), List.of()));
+        assertThrows(IllegalArgumentException.class, () -> OcrWordIndex.empty(null, ""));
+    }
+}
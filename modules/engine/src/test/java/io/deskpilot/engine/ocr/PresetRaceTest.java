@@ -0,0 +1,81 @@
+package io.deskpilot.engine.ocr;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresetRaceTest {
+
+    private final ExecutorService ex = Executors.newFixedThreadPool(4);
+
+    private static final OcrConfig DEFAULT = OcrConfig.preset(OcrConfig.Preset.DEFAULT);
+    private static final OcrConfig TEXT_UI = OcrConfig.preset(OcrConfig.Preset.TEXT_UI);
+    private static final OcrConfig LIGHT_BG = OcrConfig.preset(OcrConfig.Preset.LIGHT_BG);
+
+    @AfterEach
+    void shutdown() {
+        ex.shutdownNow();
+    }
+
+    @Test
+    void firstSatisfyingPresetWinsAndSlowLosersAreCancelled() throws Exception {
+        CountDownLatch loserStarted = new CountDownLatch(1);
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+
+        PresetRace.Outcome o = PresetRace.race(List.of(DEFAULT, TEXT_UI), cfg -> {
+            if (cfg == TEXT_UI) {
+                // only win once the loser is running, so cancel(true) has a thread to interrupt
+                assertTrue(loserStarted.await(5, TimeUnit.SECONDS));
+                return "saved successfully";
+            }
+            loserStarted.countDown();
+            try {
+                Thread.sleep(10_000); // stands in for a blocked engine borrow
+                return "too late";
+            } catch (InterruptedException e) {
+                loserInterrupted.countDown();
+                throw e;
+            }
+        }, t -> t.contains("saved"), ex);
+
+        assertTrue(o.matched());
+        assertSame(TEXT_UI, o.winner());
+        assertEquals("saved successfully", o.text());
+        assertEquals(1, o.cancelled());
+        assertTrue(loserInterrupted.await(5, TimeUnit.SECONDS), "loser was not interrupted");
+    }
+
+    @Test
+    void withoutWinnerAllTextsAreReported() throws Exception {
+        PresetRace.Outcome o = PresetRace.race(List.of(DEFAULT, TEXT_UI, LIGHT_BG),
+                cfg -> "text-" + cfg.preset.name().toLowerCase(), t -> t.contains("nope"), ex);
+
+        assertFalse(o.matched());
+        assertNull(o.winner());
+        assertEquals(3, o.texts().size());
+        assertEquals("text-light_bg", o.texts().get("LIGHT_BG"));
+        assertEquals(0, o.cancelled());
+    }
+
+    @Test
+    void failingPresetDoesNotSinkTheRace() throws Exception {
+        PresetRace.Outcome o = PresetRace.race(List.of(DEFAULT, TEXT_UI), cfg -> {
+            if (cfg == DEFAULT) throw new IllegalStateException("engine exploded");
+            return "ok text";
+        }, t -> t.contains("ok"), ex);
+        assertSame(TEXT_UI, o.winner());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> PresetRace.race(List.of(DEFAULT),
+                cfg -> { throw new IllegalStateException("engine exploded"); }, t -> true, ex));
+        assertEquals("engine exploded", e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> PresetRace.race(List.of(), cfg -> "", t -> true, ex));
+    }
+}
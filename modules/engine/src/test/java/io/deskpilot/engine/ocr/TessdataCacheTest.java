@@ -0,0 +1,115 @@
+package io.deskpilot.engine.ocr;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TessdataCacheTest {
+
+    private static final byte[] DATA = "fake traineddata payload".getBytes(StandardCharsets.UTF_8);
+
+    private static TessdataCache.Source source(AtomicInteger opens) {
+        return () -> {
+            opens.incrementAndGet();
+            return new ByteArrayInputStream(DATA);
+        };
+    }
+
+    @Test
+    void installsOnceThenHits() throws Exception {
+        Path root = Files.createTempDirectory("tesscache");
+        AtomicInteger opens = new AtomicInteger();
+        String sha = TessdataCache.sha256(source(new AtomicInteger()));
+
+        TessdataCache cache = new TessdataCache(root, false);
+        TessdataCache.Installed first = cache.ensure("eng.traineddata", source(opens), sha);
+        assertFalse(first.hit());
+        assertEquals(root.resolve(sha.substring(0, 16)), first.datapath());
+        assertArrayEquals(DATA, Files.readAllBytes(first.datapath().resolve("eng.traineddata")));
+        assertEquals(sha, Files.readString(first.datapath().resolve("eng.traineddata.sha256")).trim());
+
+        TessdataCache.Installed second = new TessdataCache(root, true).ensure("eng.traineddata", source(opens), sha);
+        assertTrue(second.hit());
+        assertEquals(first.datapath(), second.datapath());
+        assertEquals(1, opens.get(), "a hit must not read the source");
+
+        try (var files = Files.list(first.datapath())) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().contains(".tmp-")));
+        }
+    }
+
+    @Test
+    void corruptedInstallIsReplaced() throws Exception {
+        Path root = Files.createTempDirectory("tesscache");
+        String sha = TessdataCache.sha256(source(new AtomicInteger()));
+        TessdataCache cache = new TessdataCache(root, true);
+        Path dir = cache.ensure("eng.traineddata", source(new AtomicInteger()), sha).datapath();
+
+        Files.write(dir.resolve("eng.traineddata"), new byte[]{1, 2, 3}); // truncated by a crash
+
+        TessdataCache.Installed again = cache.ensure("eng.traineddata", source(new AtomicInteger()), sha);
+        assertFalse(again.hit());
+        assertArrayEquals(DATA, Files.readAllBytes(dir.resolve("eng.traineddata")));
+    }
+
+    @Test
+    void checksumMismatchFailsWithoutInstalling() throws Exception {
+        Path root = Files.createTempDirectory("tesscache");
+        String wrong = "0".repeat(64);
+
+        var e = assertThrows(java.io.IOException.class,
+                () -> new TessdataCache(root, false).ensure("eng.traineddata", source(new AtomicInteger()), wrong));
+        assertTrue(e.getMessage().contains("checksum mismatch"), e.getMessage());
+
+        Path dir = root.resolve(wrong.substring(0, 16));
+        assertFalse(Files.exists(dir.resolve("eng.traineddata")));
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void concurrentInstallersConverge() throws Exception {
+        Path root = Files.createTempDirectory("tesscache");
+        ExecutorService ex = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TessdataCache.Installed>> fs = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                // separate cache objects behave like separate JVMs sharing the root
+                fs.add(ex.submit(() -> new TessdataCache(root, false)
+                        .ensure("eng.traineddata", source(new AtomicInteger()), null)));
+            }
+            Path dir = null;
+            for (Future<TessdataCache.Installed> f : fs) {
+                Path d = f.get().datapath();
+                if (dir == null) dir = d;
+                assertEquals(dir, d);
+            }
+            assertArrayEquals(DATA, Files.readAllBytes(dir.resolve("eng.traineddata")));
+        } finally {
+            ex.shutdownNow();
+        }
+    }
+
+    @Test
+    void shippedTraineddataChecksumMatches() throws Exception {
+        String expected;
+        try (var in = TessdataCache.class.getResourceAsStream("/tessdata/eng.traineddata.sha256")) {
+            assertNotNull(in, "eng.traineddata.sha256 must ship next to eng.traineddata");
+            expected = new String(in.readAllBytes(), StandardCharsets.US_ASCII).trim();
+        }
+        String actual = TessdataCache.sha256(() -> TessdataCache.class.getResourceAsStream("/tessdata/eng.traineddata"));
+        assertEquals(expected, actual, "update tessdata/eng.traineddata.sha256 after replacing the model");
+    }
+}
@@ -0,0 +1,37 @@
+package io.deskpilot.engine.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePollTest {
+
+    @Test
+    void startsFastAfterInput_backsOffWhileIdle_andResetsOnChange() {
+        AdaptivePoll p = AdaptivePoll.around(200, 100);
+        assertEquals(50, p.currentMs());
+
+        long prev = p.currentMs();
+        for (int i = 0; i < 20; i++) {
+            p.onIdle();
+            assertTrue(p.currentMs() >= prev);
+            prev = p.currentMs();
+        }
+        assertEquals(400, p.currentMs());
+
+        p.onChange();
+        assertEquals(50, p.currentMs());
+    }
+
+    @Test
+    void startsAtBaseWithoutRecentInput_andNeverSleepsPastDeadline() {
+        AdaptivePoll p = AdaptivePoll.around(200, -1);
+        assertEquals(200, p.currentMs());
+
+        long now = System.currentTimeMillis();
+        assertTrue(p.nextDelayMs(now + 30) <= 30);
+        assertEquals(0, p.nextDelayMs(now - 5));
+
+        assertEquals(0, AdaptivePoll.around(0, 0).currentMs());
+    }
+}
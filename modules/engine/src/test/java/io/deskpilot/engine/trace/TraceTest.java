@@ -0,0 +1,123 @@
+package io.deskpilot.engine.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceTest {
+
+    @Test
+    void disabledSpansAreTheSharedNoop() {
+        assertFalse(Trace.enabled());
+        try (Span s = Trace.span("x", "y")) {
+            assertSame(Span.NOOP, s);
+            assertSame(s, s.arg("k", 1));
+        }
+    }
+
+    @Test
+    void recordsCompleteEventsAndWritesChromeTraceJson() throws Exception {
+        TraceRecorder rec = new TraceRecorder(100);
+        Trace.install(rec);
+        try {
+            try (Span s = Trace.span("template.findBest", "locate")) {
+                s.arg("label", "save \"icon\"").arg("w", 10);
+            }
+            Trace.sleep(2);
+        } finally {
+            Trace.uninstall(rec);
+        }
+        assertFalse(Trace.enabled());
+        assertEquals(2, rec.size());
+
+        Path f = Files.createTempDirectory("deskpilot-trace").resolve("trace.json");
+        rec.writeTo(f);
+        String json = Files.readString(f);
+
+        assertTrue(json.startsWith("{\"displayTimeUnit\":\"ms\""), json);
+        assertTrue(json.contains("\"ph\":\"M\",\"name\":\"thread_name\""), json);
+        assertTrue(json.contains("\"name\":\"template.findBest\",\"cat\":\"locate\",\"args\":{\"label\":\"save \\\"icon\\\"\",\"w\":10}"), json);
+        assertTrue(json.contains("\"name\":\"sleep\",\"cat\":\"wait\",\"args\":{\"ms\":2}"), json);
+        assertTrue(json.trim().endsWith("]}"), json);
+    }
+
+    @Test
+    void recorderIsBounded() {
+        TraceRecorder rec = new TraceRecorder(2);
+        Trace.install(rec);
+        try {
+            for (int i = 0; i < 5; i++) Trace.span("s" + i, "t").close();
+        } finally {
+            Trace.uninstall(rec);
+        }
+        assertEquals(2, rec.size());
+        assertEquals(3, rec.dropped());
+    }
+
+    @Test
+    void parallelSessionsRecordOnlyTheirOwnSpans() throws Exception {
+        TraceRecorder a = new TraceRecorder(100);
+        TraceRecorder b = new TraceRecorder(100);
+        CountDownLatch bothInstalled = new CountDownLatch(2);
+        CountDownLatch aUninstalled = new CountDownLatch(1);
+
+        Thread ta = new Thread(() -> {
+            Trace.install(a);
+            bothInstalled.countDown();
+            try {
+                bothInstalled.await();
+                Trace.span("a.1", "t").close();
+            } catch (InterruptedException ignored) {
+            } finally {
+                Trace.uninstall(a);
+                aUninstalled.countDown();
+            }
+        });
+        Thread tb = new Thread(() -> {
+            Trace.install(b);
+            bothInstalled.countDown();
+            try {
+                aUninstalled.await(); // the other session closing must not switch this one off
+                Trace.span("b.1", "t").close();
+                Thread worker = new Thread(Trace.wrap(() -> Trace.span("b.worker", "t").close()));
+                worker.start();
+                worker.join();
+            } catch (InterruptedException ignored) {
+            } finally {
+                Trace.uninstall(b);
+            }
+        });
+        ta.start();
+        tb.start();
+        ta.join(5_000);
+        tb.join(5_000);
+
+        assertEquals(1, a.size());
+        assertEquals(2, b.size());
+        assertFalse(Trace.enabled(), "recorders are bound per thread, not process-wide");
+    }
+
+    @Test
+    void stoppedRecorderIgnoresThreadsThatStillHaveItBound() {
+        TraceRecorder rec = new TraceRecorder(100);
+        Trace.install(rec);
+        try {
+            Trace.span("before", "t").close();
+            rec.stop();
+            assertSame(Span.NOOP, Trace.span("after", "t"));
+            assertFalse(Trace.enabled());
+        } finally {
+            Trace.uninstall(rec);
+        }
+        assertEquals(1, rec.size());
+
+        Trace.Scope scope = Trace.bind(new TraceRecorder(1));
+        assertTrue(Trace.enabled());
+        scope.close();
+        assertFalse(Trace.enabled());
+    }
+}
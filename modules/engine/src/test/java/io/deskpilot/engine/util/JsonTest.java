@@ -0,0 +1,17 @@
+package io.deskpilot.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTest {
+
+    @Test
+    void quote_escapesQuotesBackslashesAndControlCharacters() {
+        assertEquals("\"plain\"", Json.quote("plain"));
+        assertEquals("\"a\\\"b\\\\c\"", Json.quote("a\"b\\c"));
+        assertEquals("\"l1\\nl2\\r\\t\\u0001\"", Json.quote("l1\nl2\r\t\u0001"));
+        assertEquals("\"C:\\\\runs\\\\demo\"", Json.quote("C:\\runs\\demo"));
+        assertEquals("null", Json.quote(null));
+    }
+}
@@ -4,6 +4,7 @@ import io.deskpilot.engine.DeskPilot;
 import io.deskpilot.engine.DeskPilotSession;
 import io.deskpilot.engine.RunOptions;
 import io.deskpilot.engine.actions.Actions;
+import io.deskpilot.engine.metrics.MetricsRegistry;
 import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -72,6 +73,11 @@ public abstract class BaseDeskPilotTestTestNG {
         return actions;
     }
 
+    /** Metrics of the current session; {@link MetricsRegistry#process()} holds totals across tests. */
+    protected final MetricsRegistry metrics() {
+        return session().metrics();
+    }
+
     Path _deskpilotRunFolder() {
         return runFolder;
     }